@@ -0,0 +1,44 @@
+/**
+ * Ariane Community Messaging
+ * App Message Async Worker
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import scala.concurrent.Future;
+
+import java.util.Map;
+
+/**
+ * AppMsgAsyncWorker interface.
+ * <p/>
+ * An AppMsgWorker which treats requests asynchronously (downstream I/O...). When an AppMsgAsyncWorker is provided to
+ * the request services of the {@link net.echinopsii.ariane.community.messaging.api.MomServiceFactory}, the service
+ * routee calls applyAsync() and goes on with the next requests : the reply is sent (and the request acknowledged)
+ * once the returned future completes. The requests outstanding on a routee are limited
+ * (see {@link MomClient#MOM_CLI_SERVICE_ASYNC_MAX_PER_ROUTEE}) : next requests wait in the routee until some complete.
+ * <p/>
+ * apply() is still used where requests can't be treated asynchronously (request executors, subscriber services...).
+ */
+public interface AppMsgAsyncWorker extends AppMsgWorker {
+    /**
+     * apply business treatment to the message asynchronously
+     * @param message to be applied
+     * @return the future answer msg (a failed future is answered with a server error)
+     */
+    Future<Map<String, Object>> applyAsync(Map<String, Object> message);
+}
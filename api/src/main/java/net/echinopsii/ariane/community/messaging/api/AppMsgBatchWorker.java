@@ -0,0 +1,45 @@
+/**
+ * Ariane Community Messaging
+ * App Message Batch Worker
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AppMsgBatchWorker interface.
+ * <p/>
+ * An AppMsgWorker which can also treat messages by batch to amortize its per call costs (database round trips,
+ * transactions...). When an AppMsgBatchWorker is provided to the request or subscriber services of the
+ * {@link net.echinopsii.ariane.community.messaging.api.MomServiceFactory}, each service routee accumulates the
+ * received messages and calls applyBatch() once the batch is full or once the batch delay is elapsed since its first
+ * message (see {@link MomClient#MOM_CLI_SERVICE_BATCH_SIZE} and {@link MomClient#MOM_CLI_SERVICE_BATCH_DELAY}).
+ * The replies are then sent to each requester individually.
+ * <p/>
+ * apply() is still used where messages can't be batched (request executors, retried requests...).
+ */
+public interface AppMsgBatchWorker extends AppMsgWorker {
+    /**
+     * apply business treatment to a batch of messages
+     * @param messages the messages to be applied (in reception order)
+     * @return the answers keyed by the correlation ID ({@link MomMsgTranslator#MSG_CORRELATION_ID}) of their message.
+     * Messages without correlation ID or without answer get no reply. Ignored (can be null) for subscriber services.
+     */
+    Map<String, Map<String, Object>> applyBatch(List<Map<String, Object>> messages);
+}
@@ -0,0 +1,75 @@
+/**
+ * Ariane Community Messaging
+ * Mom Async Publisher
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import java.util.Map;
+
+/**
+ * MomAsyncPublisher interface
+ * <p/>
+ * Provide asynchronous fire and forget : the request is queued in a bounded buffer and encoded / published later by
+ * the client publisher thread so that the calling thread is never stalled by the MoM broker.
+ * <br/> - the overflow policy defines the behavior when the buffer is full (block, drop oldest request or fail)
+ * <br/> - the queue depth and the published / failed / dropped requests counters are exposed for monitoring.
+ * <p/>
+ * @param <Q> type of destination (could be a String or specific MoM queue)
+ */
+public interface MomAsyncPublisher<Q> {
+
+    enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        FAIL
+    }
+
+    /**
+     * queue request for publication on destination / no answer awaited
+     * @param request the request message
+     * @param destination the target destination queue
+     * @throws MomException if the publisher is stopped, if the buffer is full with FAIL overflow policy or if the
+     *         calling thread is interrupted while blocked with BLOCK overflow policy
+     */
+    void publish(Map<String, Object> request, Q destination) throws MomException;
+
+    /**
+     * @return the overflow policy
+     */
+    OverflowPolicy getOverflowPolicy();
+
+    /**
+     * @return the requests count waiting in the buffer
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the requests count published (and confirmed if supported by the MoM provider)
+     */
+    long getPublishedCount();
+
+    /**
+     * @return the requests count which could not be published
+     */
+    long getFailedCount();
+
+    /**
+     * @return the requests count dropped by the DROP_OLDEST overflow policy or refused by the FAIL overflow policy
+     */
+    long getDroppedCount();
+}
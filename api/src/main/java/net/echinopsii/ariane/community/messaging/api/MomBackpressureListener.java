@@ -0,0 +1,44 @@
+/**
+ * Ariane Community Messaging
+ * Mom Backpressure Listener
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomBackpressureListener interface is notified when a request service consumer pauses (too many requests waiting
+ * for or in treatment) and resumes (requests in treatment back below the resume watermark).
+ * <p/>
+ * Only the consumers pulling their requests pause (NATS) : RabbitMQ services are bounded by their channel prefetch
+ * and are never notified.
+ */
+public interface MomBackpressureListener {
+
+    /**
+     * called when the service consumer pauses (should not block)
+     * @param service the service source
+     * @param inFlight the requests count received and not treated yet
+     */
+    void onPause(String service, int inFlight);
+
+    /**
+     * called when the service consumer resumes (should not block)
+     * @param service the service source
+     * @param inFlight the requests count received and not treated yet
+     */
+    void onResume(String service, int inFlight);
+}
@@ -0,0 +1,44 @@
+/**
+ * Ariane Community Messaging
+ * Mom Circuit Breaker Listener
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomCircuitBreakerListener interface is notified of the request executor circuit breakers state transitions
+ * (one circuit breaker per RPC destination) :
+ * <br/> - CLOSED : requests are sent to the destination
+ * <br/> - OPEN : requests fail fast with a MomException (destination considered down)
+ * <br/> - HALF_OPEN : a probe request is sent to the destination. Its answer closes the circuit, its failure opens it again.
+ */
+public interface MomCircuitBreakerListener {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * called on each circuit breaker state transition (should not block)
+     * @param destination the RPC destination
+     * @param from the previous circuit breaker state
+     * @param to the new circuit breaker state
+     */
+    void onStateChange(String destination, State from, State to);
+}
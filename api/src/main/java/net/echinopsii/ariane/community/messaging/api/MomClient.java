@@ -30,7 +30,7 @@ import java.util.Properties;
  * This is also the entry point :
  * <br/> - to create new services via this MomClient MomServiceFactory.
  * <br/> - to create on demand message group service based on the existing service.
- * <br/> - to create new requests executors.
+ * <br/> - to create new requests executors (or lease them from a pool).
  * <br/> - to create new message group requests.
  * <p/>
  * The resources created through MomClient are intended to be stored on registries
@@ -51,6 +51,41 @@ public interface MomClient {
     String MOM_CLI_ROUTEES_NB_PER_SERVICE = "mom_cli.nb_routees_per_service";
     String MOM_CLI_RPC_TIMEOUT            = "mom_cli.rpc_timeout";
     String MOM_CLI_RPC_RETRY              = "mom_cli.rpc_retry";
+    String MOM_CLI_RPC_TIMEOUT_ADAPTIVE   = "mom_cli.rpc_timeout_adaptive";
+    String MOM_CLI_RPC_TIMEOUT_MIN        = "mom_cli.rpc_timeout_min";
+    String MOM_CLI_RPC_TIMEOUT_MAX        = "mom_cli.rpc_timeout_max";
+    String MOM_CLI_RPC_TIMEOUT_FACTOR     = "mom_cli.rpc_timeout_factor";
+    String MOM_CLI_RPC_RETRY_BACKOFF      = "mom_cli.rpc_retry_backoff";
+    String MOM_CLI_RPC_RETRY_BACKOFF_MAX  = "mom_cli.rpc_retry_backoff_max";
+    String MOM_CLI_RPC_RETRY_BUDGET       = "mom_cli.rpc_retry_budget";
+    String MOM_CLI_RPC_CIRCUIT_BREAKER            = "mom_cli.rpc_circuit_breaker";
+    String MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS   = "mom_cli.rpc_circuit_breaker_timeouts";
+    String MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE = "mom_cli.rpc_circuit_breaker_error_rate";
+    String MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW     = "mom_cli.rpc_circuit_breaker_window";
+    String MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME  = "mom_cli.rpc_circuit_breaker_open_time";
+    String MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE     = "mom_cli.request_executor_pool_size";
+    String MOM_CLI_FAF_ASYNC_BUFFER_SIZE          = "mom_cli.faf_async_buffer_size";
+    String MOM_CLI_FAF_ASYNC_WINDOW               = "mom_cli.faf_async_window";
+    String MOM_CLI_FAF_ASYNC_OVERFLOW             = "mom_cli.faf_async_overflow";
+    String MOM_CLI_ID_GENERATOR                   = "mom_cli.id_generator";
+    String MOM_CLI_RPC_CACHE_SIZE                 = "mom_cli.rpc_cache_size";
+    String MOM_CLI_ROUTEES_RESIZER                = "mom_cli.routees_resizer";
+    String MOM_CLI_ROUTEES_MIN_PER_SERVICE        = "mom_cli.nb_routees_min_per_service";
+    String MOM_CLI_ROUTEES_MAX_PER_SERVICE        = "mom_cli.nb_routees_max_per_service";
+    String MOM_CLI_ROUTEES_RESIZE_INTERVAL        = "mom_cli.routees_resize_interval";
+    String MOM_CLI_ROUTING_LOGIC                  = "mom_cli.routing_logic";
+    String MOM_CLI_ROUTING_HASH_FIELD             = "mom_cli.routing_hash_field";
+    String MOM_CLI_SERVICE_MAX_IN_FLIGHT          = "mom_cli.service_max_in_flight";
+    String MOM_CLI_SERVICE_RESUME_IN_FLIGHT       = "mom_cli.service_resume_in_flight";
+    String MOM_CLI_DISPATCHERS                    = "mom_cli.dispatchers";
+    String MOM_CLI_DISPATCHER_PREFIX              = "mom_cli.dispatcher.";
+    String MOM_CLI_SERVICE_DISPATCHER_PREFIX      = "mom_cli.service_dispatcher.";
+    String MOM_CLI_SERVICE_REPLY_CACHE_SIZE       = "mom_cli.service_reply_cache_size";
+    String MOM_CLI_SERVICE_REPLY_CACHE_BYTES      = "mom_cli.service_reply_cache_bytes";
+    String MOM_CLI_SERVICE_REPLY_CACHE_RETENTION  = "mom_cli.service_reply_cache_retention";
+    String MOM_CLI_SERVICE_BATCH_SIZE             = "mom_cli.service_batch_size";
+    String MOM_CLI_SERVICE_BATCH_DELAY            = "mom_cli.service_batch_delay";
+    String MOM_CLI_SERVICE_ASYNC_MAX_PER_ROUTEE   = "mom_cli.service_async_max_per_routee";
 
     String MOM_HOST = "mom_host.fqdn";
     String MOM_PORT = "mom_host.port";
@@ -64,6 +99,9 @@ public interface MomClient {
     String RBQ_PLATFORM_KEY    = "mom_cli.rabbitmq.platform";
     String RBQ_COPYRIGHT_KEY   = "mom_cli.rabbitmq.copyright";
     String RBQ_VERSION_KEY     = "mom_cli.rabbitmq.version";
+    String RBQ_DIRECT_REPLY_TO = "mom_cli.rabbitmq.direct_reply_to";
+    String RBQ_SERVICE_PREFETCH_PER_ROUTEE = "mom_cli.rabbitmq.service_prefetch_per_routee";
+    String RBQ_SERVICE_ACK_INTERVAL        = "mom_cli.rabbitmq.service_ack_interval";
 
     // NATS SPECIFIC PROPERTIES KEYS
     String NATS_CONNECTION_NAME = "mom_cli.nats.connection_name";
@@ -119,6 +157,33 @@ public interface MomClient {
      */
     MomRequestExecutor createRequestExecutor();
 
+    /**
+     * Lease a request executor from this MomClient request executors pool (a new one is created if none is idle).
+     * The request executor is owned by the calling thread until it is returned : this is the way to share request
+     * executors between threads.
+     * @return the leased request executor
+     */
+    MomRequestExecutor leaseRequestExecutor();
+
+    /**
+     * Return a request executor leased with {@link #leaseRequestExecutor()} to this MomClient request executors pool.
+     * The request executor must not be used anymore by the calling thread.
+     * @param requestExecutor the leased request executor
+     */
+    void returnRequestExecutor(MomRequestExecutor requestExecutor);
+
+    /**
+     * Get the asynchronous fire and forget publisher of this MomClient (started on first call).
+     * @return the asynchronous publisher
+     */
+    MomAsyncPublisher getAsyncPublisher();
+
+    /**
+     * Get the ID generator used by this MomClient and its request executors (correlation IDs, reply subjects...).
+     * @return the ID generator
+     */
+    MomIDGenerator getIDGenerator();
+
     /**
      * Get remote procedure call timeout.
      * @return
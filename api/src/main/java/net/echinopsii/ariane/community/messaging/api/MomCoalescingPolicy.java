@@ -0,0 +1,101 @@
+/**
+ * Ariane Community Messaging
+ * Mom Coalescing Policy
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * MomCoalescingPolicy class defines the single-flight coalescing of a request executor : identical remote procedure
+ * calls in flight at the same time share one MoM round trip and the single answer is fanned out to all callers
+ * (each caller gets its own copy of the answer before its answer worker is applied).
+ * <p/>
+ * Two requests are identical if they target the same destination and if they have the same coalescing key : the
+ * projection of the request on the policy fields (or on all request fields but the MoM transport ones if no field is
+ * provided). Override {@link #getKey(Map)} to define another projection.
+ * <p/>
+ * Coalescing must be enabled for read only remote procedure calls.
+ */
+public class MomCoalescingPolicy {
+
+    private static final Set<String> TRANSPORT_FIELDS = new HashSet<>(Arrays.asList(
+            MomMsgTranslator.MSG_CORRELATION_ID, MomMsgTranslator.MSG_REPLY_TO, MomMsgTranslator.MSG_MESSAGE_ID,
+            MomMsgTranslator.MSG_TIMESTAMP, MomMsgTranslator.MSG_EXPIRATION, MomMsgTranslator.MSG_RETRY_COUNT,
+            MomMsgTranslator.MSG_TRACE, MomMsgTranslator.MSG_SPLIT_COUNT, MomMsgTranslator.MSG_SPLIT_MID,
+            MomMsgTranslator.MSG_SPLIT_OID
+    ));
+
+    private List<String> fields;
+
+    protected MomCoalescingPolicy(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @return coalescing policy keyed by all request fields but the MoM transport ones
+     */
+    public static MomCoalescingPolicy onRequest() {
+        return new MomCoalescingPolicy(Collections.<String>emptyList());
+    }
+
+    /**
+     * @param fields the request fields defining the coalescing key (operation and parameters for example)
+     * @return coalescing policy keyed by the provided request fields
+     */
+    public static MomCoalescingPolicy onFields(String... fields) {
+        if (fields.length == 0) throw new IllegalArgumentException("Coalescing fields must be provided !");
+        return new MomCoalescingPolicy(Arrays.asList(fields));
+    }
+
+    /**
+     * @return the request fields defining the coalescing key (empty if all fields but the MoM transport ones are used)
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param request the request message
+     * @return the coalescing key of request (must implement equals and hashCode) or null if the request must not be coalesced
+     */
+    public Object getKey(Map<String, Object> request) {
+        List<Object> key = new ArrayList<>();
+        if (fields.isEmpty()) {
+            for (Map.Entry<String, Object> field : new TreeMap<>(request).entrySet()) {
+                if (TRANSPORT_FIELDS.contains(field.getKey())) continue;
+                key.add(field.getKey());
+                key.add(getKeyValue(field.getValue()));
+            }
+        } else
+            for (String field : fields) key.add(getKeyValue(request.get(field)));
+        return key;
+    }
+
+    private static Object getKeyValue(Object value) {
+        return (value instanceof byte[]) ? ByteBuffer.wrap((byte[]) value) : value;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Ariane Community Messaging
+ * Mom Gather Policy
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomGatherPolicy class defines when a scatter-gather remote procedure call is complete :
+ * <br/> - ALL : every destinations answered (or failed)
+ * <br/> - FIRST : the first successful answer has been received
+ * <br/> - QUORUM : N successful answers have been received
+ * <p/>
+ * In any case the gathering ends on the scatter-gather deadline. FIRST and QUORUM gathering also ends as soon as
+ * the policy can't be satisfied anymore.
+ */
+public class MomGatherPolicy {
+
+    public enum Mode {
+        ALL,
+        FIRST,
+        QUORUM
+    }
+
+    private static final MomGatherPolicy ALL_POLICY   = new MomGatherPolicy(Mode.ALL, 0);
+    private static final MomGatherPolicy FIRST_POLICY = new MomGatherPolicy(Mode.FIRST, 1);
+
+    private Mode mode;
+    private int  quorum;
+
+    private MomGatherPolicy(Mode mode, int quorum) {
+        this.mode = mode;
+        this.quorum = quorum;
+    }
+
+    /**
+     * @return the policy waiting all destinations answers
+     */
+    public static MomGatherPolicy all() {
+        return ALL_POLICY;
+    }
+
+    /**
+     * @return the policy waiting the first successful answer
+     */
+    public static MomGatherPolicy first() {
+        return FIRST_POLICY;
+    }
+
+    /**
+     * @param quorum the successful answers count to wait (must be positive)
+     * @return the policy waiting quorum successful answers
+     */
+    public static MomGatherPolicy quorum(int quorum) {
+        if (quorum <= 0) throw new IllegalArgumentException("Quorum must be positive !");
+        return new MomGatherPolicy(Mode.QUORUM, quorum);
+    }
+
+    /**
+     * @return the policy mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @param destinationsCount the scatter-gather destinations count
+     * @return the successful answers count required to complete the scatter-gather
+     */
+    public int getRequiredReplies(int destinationsCount) {
+        switch (mode) {
+            case FIRST:
+                return Math.min(1, destinationsCount);
+            case QUORUM:
+                return Math.min(quorum, destinationsCount);
+            default:
+                return destinationsCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (mode == Mode.QUORUM) ? mode + "(" + quorum + ")" : mode.toString();
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Ariane Community Messaging
+ * Mom Hedging Policy
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomHedgingPolicy class defines the hedged requests of a request executor : if no answer has been received after the
+ * hedging delay, a duplicate request (same correlation ID) is sent and the first answer wins.
+ * <p/>
+ * Hedged requests must be enabled for idempotent remote procedure calls only.
+ * <br/> - the hedging delay is fixed or the destination current 95th percentile latency
+ * <br/> - hedged requests are capped to a ratio of the request executor traffic
+ */
+public class MomHedgingPolicy {
+
+    private long   delay;
+    private double maxRatio;
+
+    private MomHedgingPolicy(long delay, double maxRatio) {
+        if (maxRatio <= 0 || maxRatio > 1) throw new IllegalArgumentException("Hedging ratio must be in ]0, 1] !");
+        this.delay = delay;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * @param delay the hedging delay (millisecond)
+     * @param maxRatio the maximum hedged requests / requests ratio (0.05 means 5% of traffic)
+     * @return hedging policy with fixed delay
+     */
+    public static MomHedgingPolicy withDelay(long delay, double maxRatio) {
+        if (delay <= 0) throw new IllegalArgumentException("Hedging delay must be positive !");
+        return new MomHedgingPolicy(delay, maxRatio);
+    }
+
+    /**
+     * @param maxRatio the maximum hedged requests / requests ratio (0.05 means 5% of traffic)
+     * @return hedging policy with destination 95th percentile latency as delay
+     */
+    public static MomHedgingPolicy withP95Delay(double maxRatio) {
+        return new MomHedgingPolicy(0, maxRatio);
+    }
+
+    /**
+     * @return the hedging delay (millisecond) or 0 if destination 95th percentile latency is used
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * @return the maximum hedged requests / requests ratio
+     */
+    public double getMaxRatio() {
+        return maxRatio;
+    }
+}
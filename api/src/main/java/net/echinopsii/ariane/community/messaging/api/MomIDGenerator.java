@@ -0,0 +1,37 @@
+/**
+ * Ariane Community Messaging
+ * Mom ID Generator
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomIDGenerator interface
+ * <p/>
+ * Provide the unique IDs (correlation IDs, reply subjects, split message IDs...) created by a MomClient and its
+ * request executors. Implementations must be thread safe and should not serialize the calling threads.
+ * <p/>
+ * Default implementation :
+ * @see net.echinopsii.ariane.community.messaging.common.MomStripedIDGenerator
+ */
+public interface MomIDGenerator {
+
+    /**
+     * @return a new unique ID (made of [A-Za-z0-9_-] characters only)
+     */
+    String nextID();
+}
@@ -0,0 +1,92 @@
+/**
+ * Ariane Community Messaging
+ * Mom RPC Result
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import java.util.Map;
+
+/**
+ * MomRPCResult class is the outcome of one remote procedure call executed among others (batch, scatter-gather...) :
+ * <br/> - SUCCESS : the reply (treated or not by answer worker) is available
+ * <br/> - TIMEOUT : no reply has been received before deadline
+ * <br/> - ERROR : the request could not be published or the answer worker failed
+ * <br/> - CANCELLED : the call has been cancelled as its answer was not needed anymore (scatter-gather policy satisfied)
+ */
+public class MomRPCResult {
+
+    public enum Status {
+        SUCCESS,
+        TIMEOUT,
+        ERROR,
+        CANCELLED
+    }
+
+    private Status status;
+    private Map<String, Object> request;
+    private Map<String, Object> reply;
+    private Throwable error;
+
+    /**
+     * @param status the RPC status
+     * @param request the request message
+     * @param reply the reply message (null if status is not SUCCESS)
+     * @param error the RPC error (null if status is SUCCESS)
+     */
+    public MomRPCResult(Status status, Map<String, Object> request, Map<String, Object> reply, Throwable error) {
+        this.status = status;
+        this.request = request;
+        this.reply = reply;
+        this.error = error;
+    }
+
+    /**
+     * @return the RPC status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if RPC status is SUCCESS
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    /**
+     * @return the request message
+     */
+    public Map<String, Object> getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the reply message (treated or not by answer worker) or null if status is not SUCCESS
+     */
+    public Map<String, Object> getReply() {
+        return reply;
+    }
+
+    /**
+     * @return the RPC error (TimeoutException, IOException, MomException...) or null if status is SUCCESS
+     */
+    public Throwable getError() {
+        return error;
+    }
+}
@@ -19,7 +19,10 @@
 
 package net.echinopsii.ariane.community.messaging.api;
 
+import scala.concurrent.Future;
+
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
@@ -28,7 +31,14 @@ import java.util.concurrent.TimeoutException;
  * <p/>
  * Provide simple method definition for :
  * <br/> - fire and forget request (no answer awaited)
+ * <br/> - batch of fire and forget requests confirmed by the MoM provider.
  * <br/> - remote procedure call request where the answer will be treated by provided answer worker.
+ * <br/> - non blocking remote procedure call request returning a future on the answer.
+ * <br/> - batch of remote procedure call requests pipelined to the same destination.
+ * <br/> - scatter-gather remote procedure call fanning one request out to several destinations.
+ * <br/> - opt-in hedged requests for idempotent remote procedure calls.
+ * <br/> - opt-in single-flight coalescing of identical read only remote procedure calls.
+ * <br/> - per destination circuit breakers failing remote procedure calls fast while a destination doesn't answer.
  * <p/>
  * @param <Q> type of destination / source (could be a String or specific MoM queue)
  * @param <W> type of AppMsgWorker (where you push your business logic)
@@ -43,6 +53,15 @@ public interface MomRequestExecutor<Q, W extends AppMsgWorker> {
      */
     Map<String, Object> FAF(Map<String, Object> request, Q destination);
 
+    /**
+     * send a batch of requests to the destination in one burst and wait once for the MoM provider confirmation of the
+     * whole batch / no answer awaited
+     * @param requests the request messages
+     * @param destination the target destination queue
+     * @return the request messages which could not be sent or were not confirmed (empty if the whole batch is sent)
+     */
+    List<Map<String, Object>> FAFBatch(List<Map<String, Object>> requests, Q destination);
+
     /**
      * send a request and get the answer
      * @param request the request message
@@ -51,7 +70,7 @@ public interface MomRequestExecutor<Q, W extends AppMsgWorker> {
      * @return the answer message
      * @throws TimeoutException if no answers has been received after timeout * retry,
      *         IOException while publishing request or receiving answer,
-     *         MomException if response is null when apply to answerWorker
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
      */
     Map<String, Object> RPC(Map<String, Object> request, Q destination, W answerWorker)  throws TimeoutException, IOException, MomException;
 
@@ -64,7 +83,78 @@ public interface MomRequestExecutor<Q, W extends AppMsgWorker> {
      * @return the answer message
      * @throws TimeoutException if no answers has been received after timeout * retry,
      *         IOException while publishing request or receiving answer,
-     *         MomException if response is null when apply to answerWorker
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
      */
     Map<String, Object> RPC(Map<String, Object> request, Q destination, Q answerSource, W answerWorker)  throws TimeoutException, IOException, MomException;
+
+    /**
+     * send a request and return immediately a future on the answer (the calling thread is not blocked while waiting
+     * the answer)
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param answerWorker the worker object to treat the answer
+     * @return the future answer message. The future fails with :
+     *         TimeoutException if no answers has been received after timeout * retry,
+     *         IOException while publishing request,
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
+     */
+    Future<Map<String, Object>> RPCAsync(Map<String, Object> request, Q destination, W answerWorker);
+
+    /**
+     * send all requests back to back to the destination then collect their answers (by correlation ID) within
+     * one overall deadline (the RPC timeout)
+     * @param requests the request messages
+     * @param destination the target destination queue
+     * @param answerWorker the worker object to treat the answers
+     * @return the RPC results in the requests order (SUCCESS with answer message, TIMEOUT or ERROR)
+     */
+    List<MomRPCResult> RPCBatch(List<Map<String, Object>> requests, Q destination, W answerWorker);
+
+    /**
+     * send a copy of the request to each destination then gather the answers until the gather policy is satisfied
+     * or the overall deadline (the RPC timeout) is reached. Answers not needed anymore are dropped.
+     * @param request the request message
+     * @param destinations the target destination queues
+     * @param policy the gather policy (all, first, quorum)
+     * @param answerWorker the worker object to treat the answers
+     * @return the RPC results in the destinations order (SUCCESS with answer message, TIMEOUT, ERROR or CANCELLED)
+     */
+    List<MomRPCResult> RPCScatterGather(Map<String, Object> request, List<Q> destinations, MomGatherPolicy policy, W answerWorker);
+
+    /**
+     * enable hedged requests on this request executor (to be used for idempotent RPC only) : if no answer has been
+     * received after the policy delay a duplicate request is sent and the first answer wins.
+     * @param policy the hedging policy (null to disable hedged requests)
+     */
+    void setHedgingPolicy(MomHedgingPolicy policy);
+
+    /**
+     * @return the hedging policy of this request executor (null if hedged requests are disabled)
+     */
+    MomHedgingPolicy getHedgingPolicy();
+
+    /**
+     * enable single-flight coalescing on this request executor (to be used for read only RPC only) : identical
+     * requests in flight at the same time on the MomClient share one round trip and each caller gets its own copy
+     * of the answer before its answer worker is applied.
+     * @param policy the coalescing policy (null to disable coalescing)
+     */
+    void setCoalescingPolicy(MomCoalescingPolicy policy);
+
+    /**
+     * @return the coalescing policy of this request executor (null if coalescing is disabled)
+     */
+    MomCoalescingPolicy getCoalescingPolicy();
+
+    /**
+     * define the listener notified of this request executor circuit breakers state transitions
+     * @param listener the circuit breakers listener (null to remove)
+     */
+    void setCircuitBreakerListener(MomCircuitBreakerListener listener);
+
+    /**
+     * @param destination the target destination queue
+     * @return the circuit breaker state of destination (CLOSED if circuit breakers are disabled)
+     */
+    MomCircuitBreakerListener.State getCircuitBreakerState(Q destination);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+/**
+ * Ariane Community Messaging
+ * Mom Routees Resize Listener
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+/**
+ * MomRouteesResizeListener interface is notified each time a service routees pool is resized (metrics hook) :
+ * <br/> - grow : the routees are busy (treatment time or backlog above the resizer grow threshold)
+ * <br/> - shrink : the routees have been idle (below the resizer shrink threshold) for several resize intervals
+ */
+public interface MomRouteesResizeListener {
+
+    /**
+     * called on each routees pool resize (should not block)
+     * @param service the service router name
+     * @param from the previous routees count
+     * @param to the new routees count
+     * @param backlog the requests waiting in the routees mailboxes when resized
+     * @param serviceTime the mean treatment time (ms) of the requests treated during the last resize interval
+     */
+    void onResize(String service, int from, int to, long backlog, double serviceTime);
+}
@@ -0,0 +1,117 @@
+/**
+ * Ariane Community Messaging
+ * Mom Routing Policy
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.api;
+
+import java.util.Map;
+
+/**
+ * MomRoutingPolicy class defines how a service dispatches its requests to its worker routees :
+ * <br/> - ROUND_ROBIN : each routee in turn (default)
+ * <br/> - SMALLEST_MAILBOX : the routee with the fewest waiting requests (a slow request does not hold the next ones)
+ * <br/> - CONSISTENT_HASH : the routee owning the hash of a request field (requests with the same key are treated by
+ * the same routee - requests without key are spread)
+ * <br/> - RANDOM : a random routee
+ */
+public class MomRoutingPolicy {
+
+    public enum Logic {
+        ROUND_ROBIN,
+        SMALLEST_MAILBOX,
+        CONSISTENT_HASH,
+        RANDOM
+    }
+
+    private Logic logic;
+    private String hashField;
+
+    protected MomRoutingPolicy(Logic logic, String hashField) {
+        this.logic = logic;
+        this.hashField = hashField;
+    }
+
+    /**
+     * @return round robin routing policy
+     */
+    public static MomRoutingPolicy roundRobin() {
+        return new MomRoutingPolicy(Logic.ROUND_ROBIN, null);
+    }
+
+    /**
+     * @return smallest mailbox routing policy
+     */
+    public static MomRoutingPolicy smallestMailbox() {
+        return new MomRoutingPolicy(Logic.SMALLEST_MAILBOX, null);
+    }
+
+    /**
+     * @param hashField the request field defining the routing key (an entity key for example)
+     * @return consistent hash routing policy keyed by the provided request field
+     */
+    public static MomRoutingPolicy consistentHash(String hashField) {
+        if (hashField == null || hashField.equals("")) throw new IllegalArgumentException("Consistent hash field must be provided !");
+        return new MomRoutingPolicy(Logic.CONSISTENT_HASH, hashField);
+    }
+
+    /**
+     * @return random routing policy
+     */
+    public static MomRoutingPolicy random() {
+        return new MomRoutingPolicy(Logic.RANDOM, null);
+    }
+
+    /**
+     * @param logic the routing logic name (round_robin, smallest_mailbox, consistent_hash or random)
+     * @param hashField the request field defining the routing key (consistent_hash only)
+     * @return the routing policy
+     */
+    public static MomRoutingPolicy valueOf(String logic, String hashField) {
+        switch (Logic.valueOf(logic.toUpperCase())) {
+            case SMALLEST_MAILBOX: return smallestMailbox();
+            case CONSISTENT_HASH: return consistentHash(hashField);
+            case RANDOM: return random();
+            default: return roundRobin();
+        }
+    }
+
+    /**
+     * @return the routing logic
+     */
+    public Logic getLogic() {
+        return logic;
+    }
+
+    /**
+     * @return the request field defining the routing key (CONSISTENT_HASH only)
+     */
+    public String getHashField() {
+        return hashField;
+    }
+
+    /**
+     * @param request the request message
+     * @return the routing key of request (CONSISTENT_HASH only) or null if request has no key
+     */
+    public Object getHashKey(Map<String, Object> request) {
+        if (hashField == null || request == null) return null;
+        Object value = request.get(hashField);
+        if (value == null || value instanceof byte[]) return value;
+        return value.toString();
+    }
+}
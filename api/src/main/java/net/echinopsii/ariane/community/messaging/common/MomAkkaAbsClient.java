@@ -22,12 +22,19 @@ package net.echinopsii.ariane.community.messaging.common;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.DeadLetter;
+import net.echinopsii.ariane.community.messaging.api.MomAsyncPublisher;
+import net.echinopsii.ariane.community.messaging.api.MomBackpressureListener;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomIDGenerator;
 import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import net.echinopsii.ariane.community.messaging.api.MomRoutingPolicy;
 import net.echinopsii.ariane.community.messaging.api.MomService;
 import net.echinopsii.ariane.community.messaging.api.MomServiceFactory;
+import org.slf4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * MomAkkaAbsClient provides an abstract implementation of MomClient interface based on actors model and Akka.
@@ -36,15 +43,56 @@ import java.util.*;
  * <br/>- the clientID definition
  * <br/> - link to the ServiceFactory to create new services besides this MomClient
  * <br/> - registries for requests executors, messages groups requests and messages groups services
+ * <br/> - a request executors pool for multi-threaded callers (see {@link MomRequestExecutorPool})
+ * <br/> - an asynchronous fire and forget pipeline (see {@link MomAsyncFAFPipeline})
+ * <br/> - the coalesced remote procedure calls registry shared by the request executors (see {@link MomRPCCoalescer})
+ * <br/> - the remote procedure calls response cache shared by the request executors (see {@link MomRPCResponseCache})
+ * <br/> - the reply cache shared by the request services routees (see {@link MomServiceReplyCache})
  * <br/> - MomClient configuration with setter/getter. Default values :
  * <br/> --- msgDebugOnTimeout = false
  * <br/> --- rpcTimeout = 10 (sec)
  * <br/> --- rpcRetry   = 3
+ * <br/> --- rpcTimeoutAdaptive = false : if enabled the RPC timeout of a destination is derived from its observed
+ * latency (mean + rpcTimeoutFactor * deviation) clamped to [rpcTimeoutMin, rpcTimeoutMax]. An adaptive timeout can be
+ * far shorter than rpcTimeout : slow calls are then retried (and executed again by non idempotent workers) and the
+ * retries feed the circuit breaker. Enable it only for idempotent services with a steady latency.
+ * <br/> --- rpcTimeoutMin = 100 (ms)
+ * <br/> --- rpcTimeoutMax = rpcTimeout (ms)
+ * <br/> --- rpcTimeoutFactor = 4
+ * <br/> --- rpcRetryBackoff = 50 (ms) : retry N waits a random delay in [0, min(rpcRetryBackoffMax, rpcRetryBackoff * 2^N)]
+ * <br/> --- rpcRetryBackoffMax = 5000 (ms)
+ * <br/> --- rpcRetryBudget = none : every call is retried rpcRetry times. If a ratio is defined (0.2 for instance) the
+ * retries are limited to this ratio of the RPC requests (with a reserve of 10 retries)
+ * <br/> --- rpcCircuitBreaker = false : if enabled the request executors trip a destination circuit open when it doesn't
+ * answer anymore : RPC to this destination then fail fast with a MomException instead of being sent and retried
+ * <br/> --- rpcCircuitBreakerTimeouts = 5 : consecutive timeouts opening the circuit
+ * <br/> --- rpcCircuitBreakerErrorRate = 0.5 : failures rate on the last rpcCircuitBreakerWindow calls opening the circuit
+ * <br/> --- rpcCircuitBreakerWindow = 20
+ * <br/> --- rpcCircuitBreakerOpenTime = 10000 (ms) : time before a probe request is let through an open circuit
+ * <br/> --- requestExecutorPoolSize = 16 : maximum idle request executors kept by the request executors pool
+ * <br/> --- asyncFAFBufferSize = 4096 : asynchronous FAF buffer capacity (requests)
+ * <br/> --- asyncFAFWindow = 128 : asynchronous FAF in-flight requests per destination
+ * <br/> --- asyncFAFOverflowPolicy = BLOCK : asynchronous FAF full buffer behavior (BLOCK, DROP_OLDEST or FAIL)
+ * <br/> --- idGenerator = {@link MomStripedIDGenerator} : generator of the correlation IDs, reply subjects...
+ * <br/> --- rpcCacheSize = 1024 : maximum answers kept by the RPC response cache
+ * <br/> --- routerResizer = null : services routees count is fixed (see {@link MomAkkaRouterResizer})
+ * <br/> --- routingPolicy = round robin : services requests dispatching to routees (can be overridden per service)
+ * <br/> --- serviceMaxInFlight = 1024 : requests a service consumer hands to its routees before pausing (0 : unbounded)
+ * <br/> --- serviceResumeInFlight = serviceMaxInFlight / 2 : in-flight requests under which a paused consumer resumes
+ * <br/> --- dispatchers = none : services actors run on the actor system default dispatcher unless a dedicated
+ * dispatcher is assigned to their source (see {@link MomAkkaDispatcher})
+ * <br/> --- serviceReplyCacheSize = 10000 : maximum replies kept by the services reply cache
+ * <br/> --- serviceReplyCacheBytes = 32 MB : maximum estimated size of the replies kept by the services reply cache
+ * <br/> --- serviceReplyCacheRetention = 20000 (ms) : services cached replies retention
+ * <br/> --- serviceBatchSize = 32 : maximum messages count of the batches treated by an AppMsgBatchWorker
+ * <br/> --- serviceBatchDelay = 1000 (microseconds) : maximum delay of a batch since its first message
+ * <br/> --- serviceAsyncMaxPerRoutee = 16 : maximum outstanding requests of an AppMsgAsyncWorker per routee
  * <p/>
  * MomAkkaAbsClient use actors model pattern to manage the MomClient entities (services or requests executors).
  * <br/> On top of the MomClient actors hierarchy you will find :
  * <br/> - the akka system actors (root guardian, system guardian and user guardian).
- * <br/> - a dead letter logger actor to print any lost message in the system (parent is user guardian)
+ * <br/> - a dead letter logger actor to print any lost message in the system and drop the lost consumer envelopes
+ * (parent is user guardian - one per actor system)
  * <br/> - a main supervisor dedicated to supervise and cleanly close the MomClient main services and requests executors actors.
  * <br/> - message group services supervisors to supervise and cleanly close the MomClient services dedicated to a
  * message group.
@@ -52,12 +100,14 @@ import java.util.*;
  * MomAkkaAbsClient also provide an actor specific configuration for services : the routees count per service.
  * Indeed when creating new service you may want to define several worker actors to dispatch treatment load on these
  * actors. To do so Akka provide router/routees actors pattern to help (the router will forward request to the routees
- * - round robin fashion by default). Default value for this parameter is 5.
+ * - round robin fashion by default). Default value for this parameter is 5. If a router resizer is defined the
+ * routees count of the services is adapted to their load between the resizer bounds.
  *
  */
 public abstract class MomAkkaAbsClient implements MomClient {
+    private static final Logger log = MomLoggerFactory.getLogger(MomAkkaAbsClient.class);
 
-    private static ActorRef dlLogger = null;
+    private static Set<ActorSystem> dlLoggedSystems = Collections.newSetFromMap(new WeakHashMap<ActorSystem, Boolean>());
 
     private ActorSystem system      = null;
     private ActorRef mainSupervisor = null;
@@ -67,10 +117,43 @@ public abstract class MomAkkaAbsClient implements MomClient {
     private int routeesCountPerService = 5;
     private long rpcTimeout = 10;
     private int rpcRetry = 3;
+    private boolean rpcTimeoutAdaptive = false;
+    private long rpcTimeoutMin = 100;
+    private long rpcTimeoutMax = 0;
+    private double rpcTimeoutFactor = 4;
+    private long rpcRetryBackoff = 50;
+    private long rpcRetryBackoffMax = 5000;
+    private MomRPCRetryBudget rpcRetryBudget = null;
+    private boolean rpcCircuitBreaker = false;
+    private int rpcCircuitBreakerTimeouts = 5;
+    private double rpcCircuitBreakerErrorRate = 0.5;
+    private int rpcCircuitBreakerWindow = 20;
+    private long rpcCircuitBreakerOpenTime = 10000;
+    private int requestExecutorPoolSize = 16;
+    private int asyncFAFBufferSize = 4096;
+    private int asyncFAFWindow = 128;
+    private MomAsyncPublisher.OverflowPolicy asyncFAFOverflowPolicy = MomAsyncPublisher.OverflowPolicy.BLOCK;
+    private MomIDGenerator idGenerator = new MomStripedIDGenerator();
+    private MomAkkaRouterResizer routerResizer = null;
+    private MomRoutingPolicy routingPolicy = MomRoutingPolicy.roundRobin();
+    private Map<String, MomRoutingPolicy> serviceRoutingPolicies = new ConcurrentHashMap<>();
+    private int serviceMaxInFlight = 1024;
+    private int serviceResumeInFlight = -1;
+    private MomBackpressureListener backpressureListener = null;
+    private int serviceBatchSize = 32;
+    private long serviceBatchDelay = 1000;
+    private int serviceAsyncMaxPerRoutee = 16;
+    private Map<String, MomAkkaDispatcher> dispatchers = new ConcurrentHashMap<>();
+    private Map<String, String> serviceDispatchers = new ConcurrentHashMap<>();
 
     private MomServiceFactory serviceFactory ;
 
-    private List<MomRequestExecutor> requestExecutors = new ArrayList<>();
+    private List<MomRequestExecutor> requestExecutors = new CopyOnWriteArrayList<>();
+    private volatile MomRequestExecutorPool requestExecutorPool = null;
+    private MomAsyncFAFPipeline asyncFAFPipeline = null;
+    private MomRPCCoalescer rpcCoalescer = new MomRPCCoalescer();
+    private MomRPCResponseCache rpcResponseCache = new MomRPCResponseCache(1024);
+    private MomServiceReplyCache serviceReplyCache = new MomServiceReplyCache(10000, 32*1024*1024, 20000);
     private HashMap<String, Long> msgGroupThreadRegistry = new HashMap<>();
     private HashMap<Long, String> threadMsgGroupRegistry = new HashMap<>();
     private HashMap<String, ActorRef> msgGroupSupervisors = new HashMap<>();
@@ -103,11 +186,14 @@ public abstract class MomAkkaAbsClient implements MomClient {
     public void setActorSystem(ActorSystem sys) {
         String mainSupName;
         if (this.clientID!=null) mainSupName = this.clientID.replace(" ", "_") + "_main_supervisor";
-        else mainSupName = UUID.randomUUID() + "_main_supervisor";
+        else mainSupName = this.idGenerator.nextID() + "_main_supervisor";
         this.system = sys;
-        if (dlLogger==null) {
-            dlLogger = this.system.actorOf(MomAkkaDLLogger.props(), "DLLogger");
-            this.system.eventStream().subscribe(dlLogger, DeadLetter.class);
+        synchronized (dlLoggedSystems) {
+            if (!dlLoggedSystems.contains(sys)) {
+                ActorRef dlLogger = this.system.actorOf(MomAkkaDLLogger.props(), "DLLogger");
+                this.system.eventStream().subscribe(dlLogger, DeadLetter.class);
+                dlLoggedSystems.add(sys);
+            }
         }
         this.mainSupervisor = this.system.actorOf(MomAkkaSupervisor.props(), mainSupName);
     }
@@ -178,6 +264,186 @@ public abstract class MomAkkaAbsClient implements MomClient {
         return routeesCountPerService;
     }
 
+    /**
+     * @return the services routees resizer (null if services routees count is fixed)
+     */
+    public MomAkkaRouterResizer getRouterResizer() {
+        return routerResizer;
+    }
+
+    /**
+     * @return the requests a service consumer hands to its routees before pausing (0 : unbounded)
+     */
+    public int getServiceMaxInFlight() {
+        return serviceMaxInFlight;
+    }
+
+    /**
+     * setup the in-flight requests bound of the services which will be created from now on
+     * @param serviceMaxInFlight the requests a service consumer hands to its routees before pausing (0 : unbounded)
+     */
+    public void setServiceMaxInFlight(int serviceMaxInFlight) {
+        this.serviceMaxInFlight = (serviceMaxInFlight > 0) ? serviceMaxInFlight : 0;
+    }
+
+    /**
+     * @return the in-flight requests under which a paused service consumer resumes
+     */
+    public int getServiceResumeInFlight() {
+        return (serviceResumeInFlight >= 0 && serviceResumeInFlight < serviceMaxInFlight) ? serviceResumeInFlight : serviceMaxInFlight / 2;
+    }
+
+    /**
+     * setup the resume watermark of the services which will be created from now on
+     * @param serviceResumeInFlight the in-flight requests under which a paused service consumer resumes
+     */
+    public void setServiceResumeInFlight(int serviceResumeInFlight) {
+        this.serviceResumeInFlight = serviceResumeInFlight;
+    }
+
+    /**
+     * @return the services consumers pause / resume listener (can be null)
+     */
+    public MomBackpressureListener getBackpressureListener() {
+        return backpressureListener;
+    }
+
+    /**
+     * @param backpressureListener the pause / resume listener of the services which will be created from now on
+     */
+    public void setBackpressureListener(MomBackpressureListener backpressureListener) {
+        this.backpressureListener = backpressureListener;
+    }
+
+    /**
+     * (internal usage)
+     * @param source the service source
+     * @return a new backpressure for the service consumer or null if services are unbounded
+     */
+    public MomServiceBackpressure createServiceBackpressure(String source) {
+        if (serviceMaxInFlight <= 0) return null;
+        return new MomServiceBackpressure(source, serviceMaxInFlight, getServiceResumeInFlight(), backpressureListener);
+    }
+
+    /**
+     * @return the maximum messages count of the batches treated by an AppMsgBatchWorker
+     */
+    public int getServiceBatchSize() {
+        return serviceBatchSize;
+    }
+
+    /**
+     * @param serviceBatchSize the maximum messages count of the batches treated by an AppMsgBatchWorker (1 : no batch)
+     */
+    public void setServiceBatchSize(int serviceBatchSize) {
+        this.serviceBatchSize = serviceBatchSize;
+    }
+
+    /**
+     * @return the maximum delay (microseconds) of a batch since its first message
+     */
+    public long getServiceBatchDelay() {
+        return serviceBatchDelay;
+    }
+
+    /**
+     * @param serviceBatchDelay the maximum delay (microseconds) of a batch since its first message
+     */
+    public void setServiceBatchDelay(long serviceBatchDelay) {
+        this.serviceBatchDelay = serviceBatchDelay;
+    }
+
+    /**
+     * @return the maximum outstanding requests of an AppMsgAsyncWorker per routee
+     */
+    public int getServiceAsyncMaxPerRoutee() {
+        return serviceAsyncMaxPerRoutee;
+    }
+
+    /**
+     * @param serviceAsyncMaxPerRoutee the maximum outstanding requests of an AppMsgAsyncWorker per routee
+     */
+    public void setServiceAsyncMaxPerRoutee(int serviceAsyncMaxPerRoutee) {
+        this.serviceAsyncMaxPerRoutee = serviceAsyncMaxPerRoutee;
+    }
+
+    /**
+     * add a dedicated dispatcher which can then be assigned to services
+     * @param dispatcher the dispatcher definition
+     */
+    public void addDispatcher(MomAkkaDispatcher dispatcher) {
+        dispatchers.put(dispatcher.getName(), dispatcher);
+    }
+
+    /**
+     * @param name the dispatcher name
+     * @return the dispatcher definition or null if not defined
+     */
+    public MomAkkaDispatcher getDispatcher(String name) {
+        return dispatchers.get(name);
+    }
+
+    /**
+     * assign a dedicated dispatcher to the service (request, subscriber or feeder) which will be created on source
+     * @param source the service source
+     * @param dispatcherName the dispatcher name (actor system default dispatcher if null)
+     */
+    public void setServiceDispatcher(String source, String dispatcherName) {
+        if (dispatcherName!=null) serviceDispatchers.put(source, dispatcherName);
+        else serviceDispatchers.remove(source);
+    }
+
+    /**
+     * (internal usage)
+     * @param source the service source
+     * @return the Akka dispatcher id of the service actors (registered on the actor system) or null for the default dispatcher
+     */
+    public String getServiceDispatcherID(String source) {
+        String name = (source!=null) ? serviceDispatchers.get(source) : null;
+        if (name == null) return null;
+        MomAkkaDispatcher dispatcher = dispatchers.get(name);
+        if (dispatcher == null) {
+            log.warn("Dispatcher " + name + " of service " + source + " is not defined. Use default dispatcher.");
+            return null;
+        }
+        return dispatcher.register(getActorSystem());
+    }
+
+    /**
+     * @param source the service source
+     * @return the routing policy of the service (the service one if defined else the client default one)
+     */
+    public MomRoutingPolicy getRoutingPolicy(String source) {
+        MomRoutingPolicy policy = (source!=null) ? serviceRoutingPolicies.get(source) : null;
+        return (policy!=null) ? policy : routingPolicy;
+    }
+
+    /**
+     * setup the default routing policy of the services which will be created from now on
+     * @param routingPolicy the default routing policy (round robin if null)
+     */
+    public void setRoutingPolicy(MomRoutingPolicy routingPolicy) {
+        this.routingPolicy = (routingPolicy!=null) ? routingPolicy : MomRoutingPolicy.roundRobin();
+    }
+
+    /**
+     * setup the routing policy of the service which will be created on source
+     * @param source the service source
+     * @param routingPolicy the service routing policy (client default one if null)
+     */
+    public void setServiceRoutingPolicy(String source, MomRoutingPolicy routingPolicy) {
+        if (routingPolicy!=null) serviceRoutingPolicies.put(source, routingPolicy);
+        else serviceRoutingPolicies.remove(source);
+    }
+
+    /**
+     * setup the routees resizer of the services which will be created from now on
+     * @param routerResizer the routees resizer (null for a fixed routees count per service)
+     */
+    public void setRouterResizer(MomAkkaRouterResizer routerResizer) {
+        this.routerResizer = routerResizer;
+    }
+
     /**
      * setup routees count per service with provided value
      * @param routeesCountPerService
@@ -221,6 +487,358 @@ public abstract class MomAkkaAbsClient implements MomClient {
         this.rpcRetry = rpcRetry;
     }
 
+    /**
+     * @return true if RPC timeout is derived from destinations observed latency
+     */
+    public boolean isRPCTimeoutAdaptive() {
+        return rpcTimeoutAdaptive;
+    }
+
+    /**
+     * enable / disable adaptive RPC timeout
+     * @param rpcTimeoutAdaptive
+     */
+    public void setRPCTimeoutAdaptive(boolean rpcTimeoutAdaptive) {
+        this.rpcTimeoutAdaptive = rpcTimeoutAdaptive;
+    }
+
+    /**
+     * @return adaptive rpc timeout lower bound (millisecond)
+     */
+    public long getRPCTimeoutMin() {
+        return rpcTimeoutMin;
+    }
+
+    /**
+     * define adaptive rpc timeout lower bound with provided value (millisecond)
+     * @param rpcTimeoutMin
+     */
+    public void setRPCTimeoutMin(long rpcTimeoutMin) {
+        this.rpcTimeoutMin = rpcTimeoutMin;
+    }
+
+    /**
+     * @return rpc timeout upper bound (millisecond) - if not defined rpc timeout - or -1 if rpc timeout is disabled
+     */
+    public long getRPCTimeoutMax() {
+        if (this.rpcTimeoutMax > 0) return this.rpcTimeoutMax;
+        else if (this.rpcTimeout > 0) return this.rpcTimeout * 1000;
+        else return -1L;
+    }
+
+    /**
+     * define rpc timeout upper bound with provided value (millisecond)
+     * @param rpcTimeoutMax
+     */
+    public void setRPCTimeoutMax(long rpcTimeoutMax) {
+        this.rpcTimeoutMax = rpcTimeoutMax;
+    }
+
+    /**
+     * @return adaptive rpc timeout deviation factor
+     */
+    public double getRPCTimeoutFactor() {
+        return rpcTimeoutFactor;
+    }
+
+    /**
+     * define adaptive rpc timeout deviation factor with provided value
+     * @param rpcTimeoutFactor
+     */
+    public void setRPCTimeoutFactor(double rpcTimeoutFactor) {
+        this.rpcTimeoutFactor = rpcTimeoutFactor;
+    }
+
+    /**
+     * @return rpc retry backoff base (millisecond)
+     */
+    public long getRPCRetryBackoff() {
+        return rpcRetryBackoff;
+    }
+
+    /**
+     * define rpc retry backoff base with provided value (millisecond)
+     * @param rpcRetryBackoff
+     */
+    public void setRPCRetryBackoff(long rpcRetryBackoff) {
+        this.rpcRetryBackoff = rpcRetryBackoff;
+    }
+
+    /**
+     * @return rpc retry backoff upper bound (millisecond)
+     */
+    public long getRPCRetryBackoffMax() {
+        return rpcRetryBackoffMax;
+    }
+
+    /**
+     * define rpc retry backoff upper bound with provided value (millisecond)
+     * @param rpcRetryBackoffMax
+     */
+    public void setRPCRetryBackoffMax(long rpcRetryBackoffMax) {
+        this.rpcRetryBackoffMax = rpcRetryBackoffMax;
+    }
+
+    /**
+     * @return rpc retry budget shared by this MomClient request executors or null if retries are not budgeted
+     */
+    public MomRPCRetryBudget getRPCRetryBudget() {
+        return rpcRetryBudget;
+    }
+
+    /**
+     * define rpc retry budget ratio (retries / requests)
+     * @param ratio the retries / requests ratio (0 or less : retries are not budgeted)
+     */
+    public void setRPCRetryBudget(double ratio) {
+        this.rpcRetryBudget = (ratio > 0) ? new MomRPCRetryBudget(ratio, 10) : null;
+    }
+
+    /**
+     * @return true if request executors RPC circuit breakers are enabled
+     */
+    public boolean isRPCCircuitBreaker() {
+        return rpcCircuitBreaker;
+    }
+
+    /**
+     * enable or disable request executors RPC circuit breakers
+     * @param rpcCircuitBreaker
+     */
+    public void setRPCCircuitBreaker(boolean rpcCircuitBreaker) {
+        this.rpcCircuitBreaker = rpcCircuitBreaker;
+    }
+
+    /**
+     * @return consecutive timeouts count opening a RPC circuit breaker
+     */
+    public int getRPCCircuitBreakerTimeouts() {
+        return rpcCircuitBreakerTimeouts;
+    }
+
+    /**
+     * define consecutive timeouts count opening a RPC circuit breaker (0 to disable)
+     * @param rpcCircuitBreakerTimeouts
+     */
+    public void setRPCCircuitBreakerTimeouts(int rpcCircuitBreakerTimeouts) {
+        this.rpcCircuitBreakerTimeouts = rpcCircuitBreakerTimeouts;
+    }
+
+    /**
+     * @return failures rate opening a RPC circuit breaker
+     */
+    public double getRPCCircuitBreakerErrorRate() {
+        return rpcCircuitBreakerErrorRate;
+    }
+
+    /**
+     * define failures rate opening a RPC circuit breaker (0 to disable)
+     * @param rpcCircuitBreakerErrorRate
+     */
+    public void setRPCCircuitBreakerErrorRate(double rpcCircuitBreakerErrorRate) {
+        this.rpcCircuitBreakerErrorRate = rpcCircuitBreakerErrorRate;
+    }
+
+    /**
+     * @return calls count on which RPC circuit breaker failures rate is computed
+     */
+    public int getRPCCircuitBreakerWindow() {
+        return rpcCircuitBreakerWindow;
+    }
+
+    /**
+     * define calls count on which RPC circuit breaker failures rate is computed
+     * @param rpcCircuitBreakerWindow
+     */
+    public void setRPCCircuitBreakerWindow(int rpcCircuitBreakerWindow) {
+        this.rpcCircuitBreakerWindow = rpcCircuitBreakerWindow;
+    }
+
+    /**
+     * @return time (millisecond) a RPC circuit breaker stays open before letting a probe request through
+     */
+    public long getRPCCircuitBreakerOpenTime() {
+        return rpcCircuitBreakerOpenTime;
+    }
+
+    /**
+     * define time (millisecond) a RPC circuit breaker stays open before letting a probe request through
+     * @param rpcCircuitBreakerOpenTime
+     */
+    public void setRPCCircuitBreakerOpenTime(long rpcCircuitBreakerOpenTime) {
+        this.rpcCircuitBreakerOpenTime = rpcCircuitBreakerOpenTime;
+    }
+
+    /**
+     * (internal usage)
+     * setup RPC configuration from provided properties :
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_ADAPTIVE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MIN}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_FACTOR}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BUDGET}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ID_GENERATOR} (MomIDGenerator class name)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CACHE_SIZE}
+     * @param properties configuration properties
+     */
+    protected void initRPCConfiguration(Dictionary properties) {
+        if (properties.get(MOM_CLI_RPC_TIMEOUT)!=null)
+            this.setRPCTimout(new Long((String) properties.get(MOM_CLI_RPC_TIMEOUT)));
+        if (properties.get(MOM_CLI_RPC_RETRY)!=null)
+            this.setRPCRetry(new Integer((String) properties.get(MOM_CLI_RPC_RETRY)));
+        if (properties.get(MOM_CLI_RPC_TIMEOUT_ADAPTIVE)!=null)
+            this.setRPCTimeoutAdaptive(((String)properties.get(MOM_CLI_RPC_TIMEOUT_ADAPTIVE)).toLowerCase().equals("true"));
+        if (properties.get(MOM_CLI_RPC_TIMEOUT_MIN)!=null)
+            this.setRPCTimeoutMin(new Long((String) properties.get(MOM_CLI_RPC_TIMEOUT_MIN)));
+        if (properties.get(MOM_CLI_RPC_TIMEOUT_MAX)!=null)
+            this.setRPCTimeoutMax(new Long((String) properties.get(MOM_CLI_RPC_TIMEOUT_MAX)));
+        if (properties.get(MOM_CLI_RPC_TIMEOUT_FACTOR)!=null)
+            this.setRPCTimeoutFactor(new Double((String) properties.get(MOM_CLI_RPC_TIMEOUT_FACTOR)));
+        if (properties.get(MOM_CLI_RPC_RETRY_BACKOFF)!=null)
+            this.setRPCRetryBackoff(new Long((String) properties.get(MOM_CLI_RPC_RETRY_BACKOFF)));
+        if (properties.get(MOM_CLI_RPC_RETRY_BACKOFF_MAX)!=null)
+            this.setRPCRetryBackoffMax(new Long((String) properties.get(MOM_CLI_RPC_RETRY_BACKOFF_MAX)));
+        if (properties.get(MOM_CLI_RPC_RETRY_BUDGET)!=null)
+            this.setRPCRetryBudget(new Double((String) properties.get(MOM_CLI_RPC_RETRY_BUDGET)));
+        if (properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER)!=null)
+            this.setRPCCircuitBreaker(((String)properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER)).toLowerCase().equals("true"));
+        if (properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS)!=null)
+            this.setRPCCircuitBreakerTimeouts(new Integer((String) properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS)));
+        if (properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE)!=null)
+            this.setRPCCircuitBreakerErrorRate(new Double((String) properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE)));
+        if (properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW)!=null)
+            this.setRPCCircuitBreakerWindow(new Integer((String) properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW)));
+        if (properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME)!=null)
+            this.setRPCCircuitBreakerOpenTime(new Long((String) properties.get(MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME)));
+        if (properties.get(MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE)!=null)
+            this.setRequestExecutorPoolSize(new Integer((String) properties.get(MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE)));
+        if (properties.get(MOM_CLI_ID_GENERATOR)!=null) {
+            String idGeneratorClass = (String) properties.get(MOM_CLI_ID_GENERATOR);
+            try {
+                this.setIDGenerator((MomIDGenerator) Class.forName(idGeneratorClass).newInstance());
+            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+                log.error("Unable to instantiate ID generator " + idGeneratorClass + " : " + e.getMessage());
+                log.error("Default ID generator will be used.");
+            }
+        }
+        if (properties.get(MOM_CLI_RPC_CACHE_SIZE)!=null)
+            this.rpcResponseCache.setMaxEntries(new Integer((String) properties.get(MOM_CLI_RPC_CACHE_SIZE)));
+    }
+
+    /**
+     * (internal usage)
+     * setup services configuration from provided properties :
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZER} (true to resize the services routees)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MIN_PER_SERVICE} (default 1)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MAX_PER_SERVICE} (default 4 * routees count per service)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZE_INTERVAL} (ms - default 1000)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_LOGIC} (round_robin, smallest_mailbox, consistent_hash or random)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_HASH_FIELD} (consistent_hash routing key field)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_MAX_IN_FLIGHT} (default 1024 - 0 : unbounded)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_RESUME_IN_FLIGHT} (default max in flight / 2)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHERS} (comma separated dispatcher names)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHER_PREFIX}&lt;name&gt;.type (fork_join, thread_pool or pinned)
+     * and {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHER_PREFIX}&lt;name&gt;.size
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_DISPATCHER_PREFIX}&lt;source&gt; (dispatcher name of the service)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_REPLY_CACHE_SIZE} (default 10000)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_REPLY_CACHE_BYTES} (default 32 MB)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_REPLY_CACHE_RETENTION} (default 20000 ms)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_BATCH_SIZE} (default 32)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_BATCH_DELAY} (default 1000 microseconds)
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_ASYNC_MAX_PER_ROUTEE} (default 16)
+     * @param properties configuration properties
+     */
+    protected void initServiceConfiguration(Dictionary properties) {
+        if (properties.get(MOM_CLI_SERVICE_ASYNC_MAX_PER_ROUTEE)!=null)
+            this.setServiceAsyncMaxPerRoutee(new Integer((String) properties.get(MOM_CLI_SERVICE_ASYNC_MAX_PER_ROUTEE)));
+        if (properties.get(MOM_CLI_SERVICE_BATCH_SIZE)!=null)
+            this.setServiceBatchSize(new Integer((String) properties.get(MOM_CLI_SERVICE_BATCH_SIZE)));
+        if (properties.get(MOM_CLI_SERVICE_BATCH_DELAY)!=null)
+            this.setServiceBatchDelay(new Long((String) properties.get(MOM_CLI_SERVICE_BATCH_DELAY)));
+        if (properties.get(MOM_CLI_SERVICE_REPLY_CACHE_SIZE)!=null)
+            this.serviceReplyCache.setMaxEntries(new Integer((String) properties.get(MOM_CLI_SERVICE_REPLY_CACHE_SIZE)));
+        if (properties.get(MOM_CLI_SERVICE_REPLY_CACHE_BYTES)!=null)
+            this.serviceReplyCache.setMaxBytes(new Long((String) properties.get(MOM_CLI_SERVICE_REPLY_CACHE_BYTES)));
+        if (properties.get(MOM_CLI_SERVICE_REPLY_CACHE_RETENTION)!=null)
+            this.serviceReplyCache.setRetention(new Long((String) properties.get(MOM_CLI_SERVICE_REPLY_CACHE_RETENTION)));
+        if (properties.get(MOM_CLI_DISPATCHERS)!=null) {
+            for (String name : ((String) properties.get(MOM_CLI_DISPATCHERS)).split(",")) {
+                name = name.trim();
+                if (name.equals("")) continue;
+                String type = (String) properties.get(MOM_CLI_DISPATCHER_PREFIX + name + ".type");
+                String size = (String) properties.get(MOM_CLI_DISPATCHER_PREFIX + name + ".size");
+                try {
+                    this.addDispatcher(new MomAkkaDispatcher(name,
+                            (type!=null) ? MomAkkaDispatcher.Type.valueOf(type.toUpperCase()) : MomAkkaDispatcher.Type.FORK_JOIN,
+                            (size!=null) ? new Integer(size) : Runtime.getRuntime().availableProcessors()));
+                } catch (IllegalArgumentException e) {
+                    log.error("Invalid dispatcher " + name + " definition : " + e.getMessage());
+                }
+            }
+        }
+        Enumeration keys = properties.keys();
+        while (keys.hasMoreElements()) {
+            Object key = keys.nextElement();
+            if (key instanceof String && ((String) key).startsWith(MOM_CLI_SERVICE_DISPATCHER_PREFIX))
+                this.setServiceDispatcher(((String) key).substring(MOM_CLI_SERVICE_DISPATCHER_PREFIX.length()),
+                        (String) properties.get(key));
+        }
+        if (properties.get(MOM_CLI_SERVICE_MAX_IN_FLIGHT)!=null)
+            this.setServiceMaxInFlight(new Integer((String) properties.get(MOM_CLI_SERVICE_MAX_IN_FLIGHT)));
+        if (properties.get(MOM_CLI_SERVICE_RESUME_IN_FLIGHT)!=null)
+            this.setServiceResumeInFlight(new Integer((String) properties.get(MOM_CLI_SERVICE_RESUME_IN_FLIGHT)));
+        if (properties.get(MOM_CLI_ROUTING_LOGIC)!=null) {
+            try {
+                this.setRoutingPolicy(MomRoutingPolicy.valueOf((String) properties.get(MOM_CLI_ROUTING_LOGIC),
+                        (String) properties.get(MOM_CLI_ROUTING_HASH_FIELD)));
+            } catch (IllegalArgumentException e) {
+                log.error("Invalid routing logic " + properties.get(MOM_CLI_ROUTING_LOGIC) + " : " + e.getMessage());
+                log.error("Round robin routing logic will be used.");
+            }
+        }
+        if (properties.get(MOM_CLI_ROUTEES_RESIZER)!=null &&
+                (((String)properties.get(MOM_CLI_ROUTEES_RESIZER)).toLowerCase().equals("true"))) {
+            int lowerBound = 1;
+            int upperBound = 4 * this.getRouteesCountPerService();
+            long interval = 1000;
+            if (properties.get(MOM_CLI_ROUTEES_MIN_PER_SERVICE)!=null)
+                lowerBound = new Integer((String) properties.get(MOM_CLI_ROUTEES_MIN_PER_SERVICE));
+            if (properties.get(MOM_CLI_ROUTEES_MAX_PER_SERVICE)!=null)
+                upperBound = new Integer((String) properties.get(MOM_CLI_ROUTEES_MAX_PER_SERVICE));
+            if (properties.get(MOM_CLI_ROUTEES_RESIZE_INTERVAL)!=null)
+                interval = new Long((String) properties.get(MOM_CLI_ROUTEES_RESIZE_INTERVAL));
+            this.setRouterResizer(new MomAkkaRouterResizer(lowerBound, upperBound, interval, 0.8, 0.3, 10));
+        }
+    }
+
+    /**
+     * (internal usage)
+     * setup asynchronous FAF configuration from provided properties :
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_BUFFER_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_OVERFLOW} (block, drop_oldest or fail)
+     * @param properties configuration properties
+     */
+    protected void initFAFConfiguration(Dictionary properties) {
+        if (properties.get(MOM_CLI_FAF_ASYNC_BUFFER_SIZE)!=null)
+            this.setAsyncFAFBufferSize(new Integer((String) properties.get(MOM_CLI_FAF_ASYNC_BUFFER_SIZE)));
+        if (properties.get(MOM_CLI_FAF_ASYNC_WINDOW)!=null)
+            this.setAsyncFAFWindow(new Integer((String) properties.get(MOM_CLI_FAF_ASYNC_WINDOW)));
+        if (properties.get(MOM_CLI_FAF_ASYNC_OVERFLOW)!=null)
+            this.setAsyncFAFOverflowPolicy(MomAsyncPublisher.OverflowPolicy.valueOf(
+                    ((String) properties.get(MOM_CLI_FAF_ASYNC_OVERFLOW)).toUpperCase()));
+    }
+
     /**
      * @return service factory attached to this MomClient
      */
@@ -244,6 +862,166 @@ public abstract class MomAkkaAbsClient implements MomClient {
         return requestExecutors;
     }
 
+    /**
+     * @return maximum idle request executors kept by the request executors pool
+     */
+    public int getRequestExecutorPoolSize() {
+        return requestExecutorPoolSize;
+    }
+
+    /**
+     * define maximum idle request executors kept by the request executors pool (to be set before first lease)
+     * @param requestExecutorPoolSize
+     */
+    public void setRequestExecutorPoolSize(int requestExecutorPoolSize) {
+        this.requestExecutorPoolSize = requestExecutorPoolSize;
+    }
+
+    /**
+     * @return the coalesced remote procedure calls registry of this MomClient
+     */
+    public MomRPCCoalescer getRPCCoalescer() {
+        return rpcCoalescer;
+    }
+
+    /**
+     * @return the remote procedure calls response cache of this MomClient (configure the cached destinations on it)
+     */
+    public MomRPCResponseCache getRPCResponseCache() {
+        return rpcResponseCache;
+    }
+
+    /**
+     * @return the reply cache shared by the request services routees of this MomClient (started on first access)
+     */
+    public MomServiceReplyCache getServiceReplyCache() {
+        serviceReplyCache.start(getActorSystem());
+        return serviceReplyCache;
+    }
+
+    /**
+     * stop the services reply cache expiry and evict its cached replies
+     */
+    public void closeServiceReplyCache() {
+        serviceReplyCache.stop();
+    }
+
+    /**
+     * @return the ID generator of this MomClient
+     */
+    @Override
+    public MomIDGenerator getIDGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * define the ID generator of this MomClient (to be set before any request executor or service creation)
+     * @param idGenerator
+     */
+    public void setIDGenerator(MomIDGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * @return the request executors pool of this MomClient
+     */
+    public MomRequestExecutorPool getRequestExecutorPool() {
+        if (requestExecutorPool==null) {
+            synchronized (this) {
+                if (requestExecutorPool==null) requestExecutorPool = new MomRequestExecutorPool(this, requestExecutorPoolSize);
+            }
+        }
+        return requestExecutorPool;
+    }
+
+    /**
+     * Lease a request executor from this MomClient request executors pool. The request executor is owned by the
+     * calling thread until it is returned with {@link #returnRequestExecutor(MomRequestExecutor)}.
+     * @return the leased request executor
+     */
+    @Override
+    public MomRequestExecutor leaseRequestExecutor() {
+        return getRequestExecutorPool().lease();
+    }
+
+    /**
+     * Return a leased request executor to this MomClient request executors pool.
+     * @param requestExecutor the leased request executor
+     */
+    @Override
+    public void returnRequestExecutor(MomRequestExecutor requestExecutor) {
+        getRequestExecutorPool().release(requestExecutor);
+    }
+
+    /**
+     * @return asynchronous FAF buffer capacity (requests)
+     */
+    public int getAsyncFAFBufferSize() {
+        return asyncFAFBufferSize;
+    }
+
+    /**
+     * define asynchronous FAF buffer capacity (to be set before first asynchronous publisher use)
+     * @param asyncFAFBufferSize
+     */
+    public void setAsyncFAFBufferSize(int asyncFAFBufferSize) {
+        this.asyncFAFBufferSize = asyncFAFBufferSize;
+    }
+
+    /**
+     * @return asynchronous FAF in-flight requests per destination
+     */
+    public int getAsyncFAFWindow() {
+        return asyncFAFWindow;
+    }
+
+    /**
+     * define asynchronous FAF in-flight requests per destination (to be set before first asynchronous publisher use)
+     * @param asyncFAFWindow
+     */
+    public void setAsyncFAFWindow(int asyncFAFWindow) {
+        this.asyncFAFWindow = asyncFAFWindow;
+    }
+
+    /**
+     * @return asynchronous FAF full buffer behavior
+     */
+    public MomAsyncPublisher.OverflowPolicy getAsyncFAFOverflowPolicy() {
+        return asyncFAFOverflowPolicy;
+    }
+
+    /**
+     * define asynchronous FAF full buffer behavior (to be set before first asynchronous publisher use)
+     * @param asyncFAFOverflowPolicy
+     */
+    public void setAsyncFAFOverflowPolicy(MomAsyncPublisher.OverflowPolicy asyncFAFOverflowPolicy) {
+        this.asyncFAFOverflowPolicy = asyncFAFOverflowPolicy;
+    }
+
+    /**
+     * @return the asynchronous FAF pipeline of this MomClient (started on first call)
+     */
+    @Override
+    public synchronized MomAsyncPublisher getAsyncPublisher() {
+        if (asyncFAFPipeline==null) {
+            asyncFAFPipeline = new MomAsyncFAFPipeline(this, asyncFAFBufferSize, asyncFAFWindow, asyncFAFOverflowPolicy);
+            asyncFAFPipeline.start();
+        }
+        return asyncFAFPipeline;
+    }
+
+    /**
+     * (internal usage)
+     * stop the asynchronous FAF pipeline once its queued requests are published (up to RPC timeout max)
+     */
+    protected synchronized void closeAsyncPublisher() {
+        if (asyncFAFPipeline!=null) {
+            long timeout = getRPCTimeoutMax();
+            asyncFAFPipeline.stop((timeout > 0) ? timeout : 0);
+            asyncFAFPipeline = null;
+        }
+    }
+
     /**
      * Open a new message group request based on the current executing thread calling this method
      * @param groupID the message group request ID (must be unique)
@@ -19,21 +19,122 @@
 
 package net.echinopsii.ariane.community.messaging.common;
 
+import akka.actor.Cancellable;
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomCircuitBreakerListener;
+import net.echinopsii.ariane.community.messaging.api.MomCoalescingPolicy;
 import net.echinopsii.ariane.community.messaging.api.MomException;
+import net.echinopsii.ariane.community.messaging.api.MomGatherPolicy;
+import net.echinopsii.ariane.community.messaging.api.MomHedgingPolicy;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomRPCResult;
 import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import org.slf4j.Logger;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MomAkkaAbsRequestExecutor provides an abstract implementation of MomRequestExecutor interface based on actors model and Akka.
+ * <p/>
+ * It also provides the MoM provider agnostic part of the non blocking remote procedure call :
+ * <br/> - pending calls are registered in a concurrent map by correlation ID
+ * <br/> - answers coming from the MoM provider specific reply consumer are demultiplexed through this map
+ * <br/> - timeouts (and retries) are fired from the actor system scheduler shared by all request executors.
+ * <p/>
+ * It also keeps a latency estimator per destination from which the RPC timeouts are derived (see
+ * {@link #getRPCTimeout(String, int)}) and computes the retries backoff (see {@link #getRPCRetryBackoff(String, int)}).
+ * Blocking RPC implementations must call {@link #onRPCRequest(String)}, {@link #onRPCAnswer(String, long, int)} and
+ * {@link #onRPCTimeout(String, long)} to feed them.
+ * <p/>
+ * Hedged requests (opt-in) are managed on non blocking RPC : the hedge is scheduled on the shared scheduler and
+ * republish the pending call request with the same correlation ID. Hedges are capped with a token bucket
+ * (see {@link MomRPCRetryBudget}) fed by the request executor traffic.
+ * <p/>
+ * If enabled on the client, a circuit breaker per destination (see {@link MomRPCCircuitBreaker}) is fed by the same
+ * hooks (and {@link #onRPCError(String)} on publication error) : {@link #onRPCRequest(String)} fails fast with a
+ * MomException while the destination circuit is open and no retry is sent on a circuit which is not closed.
+ * <p/>
+ * Single-flight coalescing (opt-in) is managed on {@link #RPC(Map, String, AppMsgWorker)} and
+ * {@link #RPCAsync(Map, String, AppMsgWorker)} : identical calls in flight share one round trip through the client
+ * {@link MomRPCCoalescer}. The flight leader calls without answer worker and each caller applies its answer worker on
+ * its own copy of the answer.
+ * <p/>
+ * Blocking remote procedure calls on a destination configured on the client {@link MomRPCResponseCache} (out of message
+ * group sessions) are answered from the cache when possible. Cached answers are shared the same way.
+ * <p/>
+ * Batch and scatter-gather remote procedure calls are built on the same pending calls map : requests are published
+ * back to back and the answers are collected within one overall deadline. A call answered before the deadline is never
+ * reported as timed out : the pending call future is completed with the raw answer as soon as it is received and the
+ * answer worker is applied afterwards on the actor system dispatcher (its treatment is awaited beyond the deadline).
  */
 public abstract class MomAkkaAbsRequestExecutor implements MomRequestExecutor<String, AppMsgWorker> {
 
+    private static final Logger log = MomLoggerFactory.getLogger(MomAkkaAbsRequestExecutor.class);
+
     private MomAkkaAbsClient momClient;
 
+    private ConcurrentHashMap<String, PendingRPC> pendingRPCs = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, MomRPCLatencyEstimator> latencyEstimators = new ConcurrentHashMap<>();
+    private volatile MomHedgingPolicy hedgingPolicy = null;
+    private volatile MomRPCRetryBudget hedgingBudget = null;
+    private volatile MomCoalescingPolicy coalescingPolicy = null;
+    private ConcurrentHashMap<String, MomRPCCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private volatile MomCircuitBreakerListener circuitBreakerListener = null;
+
+    /**
+     * Non blocking RPC waiting for its answer.
+     * <p/>
+     * Its state is updated from the caller thread, the scheduler threads (timeout, retry, hedge) and the MoM provider
+     * reply consumer thread : the publish / retry / hedge transitions are serialized on the pending call monitor and
+     * the fields read outside of it are volatile.
+     */
+    protected static class PendingRPC {
+        final String                       corrId;
+        final Map<String, Object>          request;
+        final String                       destination;
+        final Promise<Map<String, Object>> promise;
+        final boolean                      scheduleTimeout;
+        volatile Cancellable               timeoutTask;
+        volatile Cancellable               hedgeTask;
+        volatile boolean                   hedged = false;
+        volatile long                      timeout;
+        volatile int                       retryCount = 0;
+        volatile long                      beginWaitingAnswer;
+
+        PendingRPC(String corrId, Map<String, Object> request, String destination, boolean scheduleTimeout) {
+            this.corrId = corrId;
+            this.request = request;
+            this.destination = destination;
+            this.scheduleTimeout = scheduleTimeout;
+            this.promise = Futures.promise();
+        }
+
+        /**
+         * cancel the scheduled timeout and hedge of this call
+         */
+        synchronized void cancelTasks() {
+            if (timeoutTask!=null) timeoutTask.cancel();
+            if (hedgeTask!=null) hedgeTask.cancel();
+        }
+    }
+
     /**
      * Constructor
      * @param client : the MomClient this request executor will work with
@@ -49,6 +150,61 @@ public abstract class MomAkkaAbsRequestExecutor implements MomRequestExecutor<St
         return momClient;
     }
 
+    /**
+     * Enable (or disable if policy is null) hedged requests on this request executor
+     * @param policy the hedging policy
+     */
+    @Override
+    public void setHedgingPolicy(MomHedgingPolicy policy) {
+        this.hedgingBudget = (policy!=null) ? new MomRPCRetryBudget(policy.getMaxRatio(), 1) : null;
+        this.hedgingPolicy = policy;
+    }
+
+    /**
+     * @return the hedging policy of this request executor (null if hedged requests are disabled)
+     */
+    @Override
+    public MomHedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Enable (or disable if policy is null) single-flight coalescing on this request executor
+     * @param policy the coalescing policy
+     */
+    @Override
+    public void setCoalescingPolicy(MomCoalescingPolicy policy) {
+        this.coalescingPolicy = policy;
+    }
+
+    /**
+     * @return the coalescing policy of this request executor (null if coalescing is disabled)
+     */
+    @Override
+    public MomCoalescingPolicy getCoalescingPolicy() {
+        return coalescingPolicy;
+    }
+
+    /**
+     * @param listener the listener notified of this request executor circuit breakers state transitions (null to remove)
+     */
+    @Override
+    public void setCircuitBreakerListener(MomCircuitBreakerListener listener) {
+        this.circuitBreakerListener = listener;
+        for (MomRPCCircuitBreaker circuitBreaker : circuitBreakers.values())
+            circuitBreaker.setListener(listener);
+    }
+
+    /**
+     * @param destination the RPC destination (message group prefixed if any)
+     * @return the circuit breaker state of destination (CLOSED if circuit breakers are disabled)
+     */
+    @Override
+    public MomCircuitBreakerListener.State getCircuitBreakerState(String destination) {
+        MomRPCCircuitBreaker circuitBreaker = circuitBreakers.get(destination);
+        return (circuitBreaker!=null) ? circuitBreaker.getState() : MomCircuitBreakerListener.State.CLOSED;
+    }
+
     /**
      * Remote procedure call
      * @param request the request message
@@ -57,10 +213,699 @@ public abstract class MomAkkaAbsRequestExecutor implements MomRequestExecutor<St
      * @return the reply of this rpc
      * @throws TimeoutException if no answers has been received after timeout * retry,
      *         IOException while publishing request or receiving answer,
-     *         MomException if response is null when apply to answerWorker
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
      */
     @Override
     public Map<String, Object> RPC(Map<String, Object> request, String destination, AppMsgWorker answerWorker) throws TimeoutException, IOException, MomException {
-        return RPC(request, destination, null, answerWorker);
+        MomRPCResponseCache cache = momClient.getRPCResponseCache();
+        List<Object> cacheKey = (momClient.getCurrentMsgGroup()==null) ? cache.getKey(request, destination) : null;
+        Object key = getCoalescingKey(request, destination);
+        if (cacheKey!=null) {
+            Map<String, Object> answer = cache.get(cacheKey);
+            if (answer==null) {
+                long epoch = cache.getEpoch();
+                answer = sharedRPC(request, destination, key);
+                if (answer!=null) cache.put(cacheKey, answer, epoch);
+            }
+            return applySharedAnswer(answer, answerWorker);
+        }
+        if (key==null) return RPC(request, destination, null, answerWorker);
+        return applySharedAnswer(sharedRPC(request, destination, key), answerWorker);
+    }
+
+    /**
+     * (internal usage)
+     * Remote procedure call whose answer is shared (between coalesced callers or through the response cache) : no
+     * answer worker is applied.
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param key the coalescing key of request (null if the request must not be coalesced)
+     * @return the shared answer
+     * @throws TimeoutException if no answers has been received after timeout * retry,
+     *         IOException while publishing request or receiving answer,
+     *         MomException if destination circuit breaker is open
+     */
+    private Map<String, Object> sharedRPC(Map<String, Object> request, String destination, Object key) throws TimeoutException, IOException, MomException {
+        if (key==null) return RPC(request, destination, null, null);
+
+        MomRPCCoalescer coalescer = momClient.getRPCCoalescer();
+        Promise<Map<String, Object>> flight = Futures.promise();
+        Promise<Map<String, Object>> leaderFlight = coalescer.join(key, flight);
+        Map<String, Object> answer;
+        if (leaderFlight==null) {
+            answer = null;
+            Exception failure = null;
+            try {
+                answer = RPC(request, destination, null, null);
+            } catch (TimeoutException | IOException | MomException | RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                coalescer.land(key, flight, answer, failure);
+            }
+        } else {
+            log.debug("RPC coalesced on " + destination);
+            answer = awaitAsyncRPC(leaderFlight.future());
+        }
+        return answer;
+    }
+
+    /**
+     * Non blocking remote procedure call : register the call in the pending calls map, publish the request and
+     * return the future answer. The future is completed by the MoM provider specific reply consumer
+     * (see {@link #completeAsyncRPC(String, Map)}) or failed by the shared scheduler on timeout (after retries).
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param answerWorker the worker object to treat the answer (can be null)
+     * @return the future answer (treated or not by answer worker). The future fails immediately with a MomException
+     *         if the destination circuit breaker is open.
+     */
+    @Override
+    public Future<Map<String, Object>> RPCAsync(Map<String, Object> request, String destination, final AppMsgWorker answerWorker) {
+        final Object key = getCoalescingKey(request, destination);
+        if (key==null) return RPCAsync(request, destination, answerWorker, true);
+
+        final MomRPCCoalescer coalescer = momClient.getRPCCoalescer();
+        final Promise<Map<String, Object>> flight = Futures.promise();
+        Promise<Map<String, Object>> leaderFlight = coalescer.join(key, flight);
+        if (leaderFlight==null) {
+            RPCAsync(request, destination, null, true).onComplete(new OnComplete<Map<String, Object>>() {
+                @Override
+                public void onComplete(Throwable failure, Map<String, Object> success) {
+                    coalescer.land(key, flight, success, failure);
+                }
+            }, momClient.getActorSystem().dispatcher());
+            leaderFlight = flight;
+        } else log.debug("RPC coalesced on " + destination);
+
+        final Promise<Map<String, Object>> promise = Futures.promise();
+        leaderFlight.future().onComplete(new OnComplete<Map<String, Object>>() {
+            @Override
+            public void onComplete(Throwable failure, Map<String, Object> success) {
+                if (failure!=null) promise.tryFailure(failure);
+                else try {
+                    promise.trySuccess(applySharedAnswer(success, answerWorker));
+                } catch (Exception e) {
+                    promise.tryFailure(e);
+                }
+            }
+        }, momClient.getActorSystem().dispatcher());
+        return promise.future();
+    }
+
+    /**
+     * (internal usage)
+     * @param request the request message
+     * @param destination the target destination queue
+     * @return the coalescing key of request (destination included) or null if the request must not be coalesced
+     */
+    private Object getCoalescingKey(Map<String, Object> request, String destination) {
+        MomCoalescingPolicy policy = coalescingPolicy;
+        if (policy==null) return null;
+        Object requestKey = policy.getKey(request);
+        if (requestKey==null) return null;
+        String groupID = momClient.getCurrentMsgGroup();
+        if (groupID!=null && !destination.contains(groupID)) destination = groupID + "-" + destination;
+        return Arrays.asList(destination, requestKey);
+    }
+
+    /**
+     * (internal usage)
+     * @param answer the shared answer (coalesced call or cached answer)
+     * @param answerWorker the worker object to treat the answer (can be null)
+     * @return the caller own copy of the answer treated or not by answer worker
+     * @throws MomException if answer is null
+     */
+    private Map<String, Object> applySharedAnswer(Map<String, Object> answer, AppMsgWorker answerWorker) throws MomException {
+        if (answer==null) throw new MomException("Response to apply on answerWorker is null !?");
+        Map<String, Object> copy = MomRPCCoalescer.copyAnswer(answer);
+        return (answerWorker!=null) ? answerWorker.apply(copy) : copy;
+    }
+
+    /**
+     * (internal usage)
+     * Non blocking remote procedure call
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param answerWorker the worker object to treat the answer (can be null)
+     * @param scheduleTimeout if true timeout and retries are managed by the shared scheduler else the caller is in
+     *                        charge of the call deadline (see {@link #cancelAsyncRPC(String, Throwable)})
+     * @return the future answer (treated or not by answer worker)
+     */
+    protected Future<Map<String, Object>> RPCAsync(Map<String, Object> request, String destination, AppMsgWorker answerWorker, boolean scheduleTimeout) {
+        return applyAsyncAnswerWorker(RPCAsyncResponse(request, destination, scheduleTimeout), answerWorker);
+    }
+
+    /**
+     * (internal usage)
+     * apply the answer worker on a future answer on the actor system dispatcher
+     * @param response the future answer
+     * @param answerWorker the worker object to treat the answer (can be null)
+     * @return the future answer treated by answer worker (response if answer worker is null)
+     */
+    protected Future<Map<String, Object>> applyAsyncAnswerWorker(Future<Map<String, Object>> response, final AppMsgWorker answerWorker) {
+        if (answerWorker==null) return response;
+        final Promise<Map<String, Object>> promise = Futures.promise();
+        response.onComplete(new OnComplete<Map<String, Object>>() {
+            @Override
+            public void onComplete(Throwable failure, Map<String, Object> success) {
+                if (failure!=null) promise.tryFailure(failure);
+                else if (success==null) promise.tryFailure(new MomException("Response to apply on answerWorker is null !?"));
+                else try {
+                    promise.trySuccess(answerWorker.apply(success));
+                } catch (Exception e) {
+                    promise.tryFailure(e);
+                }
+            }
+        }, momClient.getActorSystem().dispatcher());
+        return promise.future();
+    }
+
+    /**
+     * (internal usage)
+     * Non blocking remote procedure call without answer worker : the future is completed as soon as the answer is
+     * received. Any call registered by this method can be cancelled with {@link #cancelAsyncRPC(String, Throwable)}.
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param scheduleTimeout if true timeout and retries are managed by the shared scheduler else the caller is in
+     *                        charge of the call deadline (see {@link #cancelAsyncRPC(String, Throwable)})
+     * @return the future raw answer
+     */
+    protected Future<Map<String, Object>> RPCAsyncResponse(Map<String, Object> request, String destination, boolean scheduleTimeout) {
+        String groupID = momClient.getCurrentMsgGroup();
+        if (groupID!=null && !destination.contains(groupID)) destination = groupID + "-" + destination;
+
+        String corrId;
+        if (request.get(MomMsgTranslator.MSG_CORRELATION_ID)==null) {
+            corrId = momClient.getIDGenerator().nextID();
+            request.put(MomMsgTranslator.MSG_CORRELATION_ID, corrId);
+        } else corrId = (String) request.get(MomMsgTranslator.MSG_CORRELATION_ID);
+
+        PendingRPC pending = new PendingRPC(corrId, request, destination, scheduleTimeout);
+        if (pendingRPCs.putIfAbsent(corrId, pending)!=null)
+            return Futures.failed(new MomException("RPC " + corrId + " is already pending !"));
+        try {
+            onRPCRequest(destination);
+        } catch (MomException e) {
+            pendingRPCs.remove(corrId, pending);
+            return Futures.failed(e);
+        }
+        sendAsyncRPC(pending);
+        return pending.promise.future();
+    }
+
+    /**
+     * Batch of remote procedure calls : publish all requests back to back then collect the answers by correlation ID
+     * within one overall deadline (the destination RPC timeout - no retry). Calls not answered before the deadline are cancelled.
+     * The answer worker treatment of the calls answered before the deadline is awaited.
+     * @param requests the request messages
+     * @param destination the target destination queue
+     * @param answerWorker the worker object to treat the answers (can be null)
+     * @return the RPC results in the requests order
+     */
+    @Override
+    public List<MomRPCResult> RPCBatch(List<Map<String, Object>> requests, String destination, AppMsgWorker answerWorker) {
+        List<Future<Map<String, Object>>> responses = new ArrayList<>(requests.size());
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(requests.size());
+        for (Map<String, Object> request : requests) {
+            Future<Map<String, Object>> response = RPCAsyncResponse(request, destination, false);
+            responses.add(response);
+            futures.add(applyAsyncAnswerWorker(response, answerWorker));
+        }
+
+        long timeout = getRPCTimeout(destination, 0);
+        long deadline = (timeout>0) ? System.nanoTime() + timeout*1000000 : 0;
+        List<MomRPCResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, Object> request = requests.get(i);
+            Duration atMost = (deadline>0) ? Duration.create(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) : Duration.Inf();
+            results.add(awaitRPCResult(request, responses.get(i), futures.get(i), atMost));
+        }
+        return results;
+    }
+
+    /**
+     * Scatter-gather remote procedure call : publish a copy of the request (with its own correlation ID) to each
+     * destination then gather the answers until the gather policy is satisfied (or, except for ALL, can't be satisfied anymore) or the overall
+     * deadline (the greatest destinations RPC timeout - no retry) is reached. An answer counts as soon as it is received
+     * (before its answer worker treatment). Calls still pending at the end are cancelled so that late answers
+     * are dropped by the reply consumer without blocking anyone.
+     * @param request the request message
+     * @param destinations the target destination queues
+     * @param policy the gather policy
+     * @param answerWorker the worker object to treat the answers (can be null)
+     * @return the RPC results in the destinations order
+     */
+    @Override
+    public List<MomRPCResult> RPCScatterGather(Map<String, Object> request, List<String> destinations, MomGatherPolicy policy,
+                                               AppMsgWorker answerWorker) {
+        final int destinationsCount = destinations.size();
+        final int requiredReplies = policy.getRequiredReplies(destinationsCount);
+        final boolean waitAll = (policy.getMode() == MomGatherPolicy.Mode.ALL);
+        final CountDownLatch gathered = new CountDownLatch(1);
+        final AtomicInteger succeeded = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+
+        long timeout = 0;
+        List<Map<String, Object>> requests = new ArrayList<>(destinationsCount);
+        List<Future<Map<String, Object>>> responses = new ArrayList<>(destinationsCount);
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(destinationsCount);
+        for (String destination : destinations) {
+            long destinationTimeout = getRPCTimeout(destination, 0);
+            if (destinationTimeout <= 0 || timeout < 0) timeout = -1;
+            else timeout = Math.max(timeout, destinationTimeout);
+            Map<String, Object> scatteredRequest = new HashMap<>(request);
+            scatteredRequest.remove(MomMsgTranslator.MSG_CORRELATION_ID);
+            Future<Map<String, Object>> response = RPCAsyncResponse(scatteredRequest, destination, false);
+            response.onComplete(new OnComplete<Map<String, Object>>() {
+                @Override
+                public void onComplete(Throwable failure, Map<String, Object> success) {
+                    int successCount = (failure==null) ? succeeded.incrementAndGet() : succeeded.get();
+                    int failureCount = (failure!=null) ? failed.incrementAndGet() : failed.get();
+                    if (successCount >= requiredReplies || successCount + failureCount == destinationsCount ||
+                            (!waitAll && destinationsCount - failureCount < requiredReplies))
+                        gathered.countDown();
+                }
+            }, momClient.getActorSystem().dispatcher());
+            requests.add(scatteredRequest);
+            responses.add(response);
+            futures.add(applyAsyncAnswerWorker(response, answerWorker));
+        }
+
+        boolean isGathered = (requiredReplies == 0);
+        try {
+            if (!isGathered) {
+                if (timeout>0) isGathered = gathered.await(timeout, TimeUnit.MILLISECONDS);
+                else {
+                    gathered.await();
+                    isGathered = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            log.debug("Thread interrupted while gathering RPC answers...");
+            Thread.currentThread().interrupt();
+        }
+
+        List<MomRPCResult> results = new ArrayList<>(destinationsCount);
+        for (int i = 0; i < destinationsCount; i++) {
+            Map<String, Object> scatteredRequest = requests.get(i);
+            Future<Map<String, Object>> response = responses.get(i);
+            String corrId = (String) scatteredRequest.get(MomMsgTranslator.MSG_CORRELATION_ID);
+            if (!response.isCompleted() && isGathered &&
+                    cancelAsyncRPC(corrId, new MomException("RPC " + corrId + " cancelled : scatter-gather (" + policy + ") completed")))
+                results.add(new MomRPCResult(MomRPCResult.Status.CANCELLED, scatteredRequest, null, null));
+            else results.add(awaitRPCResult(scatteredRequest, response, futures.get(i), Duration.Zero()));
+        }
+        return results;
+    }
+
+    /**
+     * (internal usage)
+     * Wait the answer of a non blocking RPC until atMost and cancel the call if not answered in time. A call which
+     * can't be cancelled anymore has been answered (or failed) meanwhile : its answer worker treatment is awaited.
+     * @param request the request message
+     * @param response the future raw answer (see {@link #RPCAsyncResponse(Map, String, boolean)})
+     * @param future the future answer treated by answer worker
+     * @param atMost the maximum waiting time of the raw answer
+     * @return the RPC result
+     */
+    protected MomRPCResult awaitRPCResult(Map<String, Object> request, Future<Map<String, Object>> response,
+                                          Future<Map<String, Object>> future, Duration atMost) {
+        try {
+            try {
+                Await.ready(response, atMost);
+            } catch (TimeoutException e) {
+                TimeoutException error = new TimeoutException("No response returned from request " + request.get(MomMsgTranslator.MSG_CORRELATION_ID) + " before deadline...");
+                if (cancelAsyncRPC((String) request.get(MomMsgTranslator.MSG_CORRELATION_ID), error))
+                    return new MomRPCResult(MomRPCResult.Status.TIMEOUT, request, null, error);
+            }
+            return new MomRPCResult(MomRPCResult.Status.SUCCESS, request, Await.result(future, Duration.Inf()), null);
+        } catch (TimeoutException e) {
+            return new MomRPCResult(MomRPCResult.Status.TIMEOUT, request, null, e);
+        } catch (Exception e) {
+            return new MomRPCResult(MomRPCResult.Status.ERROR, request, null, e);
+        }
     }
-}
\ No newline at end of file
+
+    /**
+     * (internal usage)
+     * Wait the answer of a non blocking RPC and rethrow its failure as a blocking RPC would do. Useful for MoM provider
+     * specific RPC implementations relying on a long-lived reply source.
+     * @param future the future answer returned by {@link #RPCAsync(Map, String, AppMsgWorker)}
+     * @return the answer (treated or not by answer worker)
+     * @throws TimeoutException if no answers has been received after timeout * retry,
+     *         IOException while publishing request,
+     *         MomException if response is null when apply to answerWorker or if any other error occurs
+     */
+    protected Map<String, Object> awaitAsyncRPC(Future<Map<String, Object>> future) throws TimeoutException, IOException, MomException {
+        try {
+            return Await.result(future, Duration.Inf());
+        } catch (TimeoutException | IOException | MomException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MomException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * (internal usage)
+     * publish (or republish on retry) the pending call request and schedule its timeout
+     * @param pending the pending call
+     */
+    private void sendAsyncRPC(final PendingRPC pending) {
+        synchronized (pending) {
+            if (pendingRPCs.get(pending.corrId)!=pending) return;
+            try {
+                pending.timeout = getRPCTimeout(pending.destination, pending.retryCount);
+                pending.beginWaitingAnswer = System.nanoTime();
+                publishAsyncRPCRequest(pending.request, pending.destination);
+                if (pending.retryCount == 0) scheduleAsyncRPCHedge(pending);
+                if (pending.scheduleTimeout && pending.timeout>0)
+                    pending.timeoutTask = momClient.getActorSystem().scheduler().scheduleOnce(
+                            Duration.create(pending.timeout, TimeUnit.MILLISECONDS),
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    onAsyncRPCTimeout(pending);
+                                }
+                            },
+                            momClient.getActorSystem().dispatcher()
+                    );
+            } catch (IOException e) {
+                onRPCError(pending.destination);
+                if (pendingRPCs.remove(pending.corrId, pending)) {
+                    asyncRPCTerminated(pending.corrId);
+                    pending.promise.tryFailure(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * (internal usage)
+     * retry the pending call after backoff if retry count and retry budget allow it else fail its future with a TimeoutException
+     * @param pending the pending call which timed out
+     */
+    private void onAsyncRPCTimeout(final PendingRPC pending) {
+        synchronized (pending) {
+            if (pendingRPCs.get(pending.corrId)!=pending) return;
+            if (pending.hedgeTask!=null) pending.hedgeTask.cancel();
+            log.warn("No response returned from request on " + pending.destination + " queue after " + pending.timeout +
+                    " ms (retry " + pending.retryCount + ")...");
+            onRPCTimeout(pending.destination, pending.timeout);
+            long backoff = getRPCRetryBackoff(pending.destination, pending.retryCount);
+            if (backoff >= 0) {
+                pending.retryCount++;
+                pending.request.put(MomMsgTranslator.MSG_RETRY_COUNT, pending.retryCount);
+                log.warn("Retry (" + pending.retryCount + ") in " + backoff + " ms");
+                if (backoff == 0) sendAsyncRPC(pending);
+                else pending.timeoutTask = momClient.getActorSystem().scheduler().scheduleOnce(
+                        Duration.create(backoff, TimeUnit.MILLISECONDS),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                sendAsyncRPC(pending);
+                            }
+                        },
+                        momClient.getActorSystem().dispatcher()
+                );
+            } else if (pendingRPCs.remove(pending.corrId, pending)) {
+                asyncRPCTerminated(pending.corrId);
+                pending.promise.tryFailure(new TimeoutException(
+                        "No response returned from request on " + pending.destination + " queue after " +
+                                (pending.retryCount + 1) + " tries (last timeout : " + pending.timeout + " ms)..."
+                ));
+            }
+        }
+    }
+
+    /**
+     * (internal usage)
+     * schedule the hedge of the pending call if hedged requests are enabled. The hedging delay is the policy delay
+     * or the destination 95th percentile latency (no hedge until the destination latency is known). No hedge is
+     * scheduled if the delay is greater than the call timeout.
+     * @param pending the pending call
+     */
+    private void scheduleAsyncRPCHedge(final PendingRPC pending) {
+        MomHedgingPolicy policy = hedgingPolicy;
+        if (policy==null) return;
+        long delay = policy.getDelay();
+        if (delay <= 0) {
+            long p95 = getLatencyEstimator(pending.destination).getP95();
+            if (p95 < 0) return;
+            delay = Math.max(1, p95 / 1000000);
+        }
+        if (pending.timeout > 0 && delay >= pending.timeout) return;
+        pending.hedgeTask = momClient.getActorSystem().scheduler().scheduleOnce(
+                Duration.create(delay, TimeUnit.MILLISECONDS),
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        onAsyncRPCHedge(pending);
+                    }
+                },
+                momClient.getActorSystem().dispatcher()
+        );
+    }
+
+    /**
+     * (internal usage)
+     * republish the pending call request (same correlation ID) if it is still waiting its first answer and if the
+     * hedging budget allows it
+     * @param pending the pending call
+     */
+    private void onAsyncRPCHedge(PendingRPC pending) {
+        MomRPCRetryBudget budget = hedgingBudget;
+        synchronized (pending) {
+            if (pendingRPCs.get(pending.corrId)!=pending || pending.retryCount > 0 || budget==null) return;
+            if (!budget.tryWithdraw()) {
+                log.debug("Hedging budget exhausted : no hedged request on " + pending.destination);
+                return;
+            }
+            try {
+                log.debug("Hedged request " + pending.corrId + " on " + pending.destination);
+                pending.hedged = true;
+                publishAsyncRPCRequest(pending.request, pending.destination);
+            } catch (IOException e) {
+                log.warn("Unable to publish hedged request on " + pending.destination + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param destination the RPC destination
+     * @return the latency estimator of destination
+     */
+    protected MomRPCLatencyEstimator getLatencyEstimator(String destination) {
+        MomRPCLatencyEstimator estimator = latencyEstimators.get(destination);
+        if (estimator==null) {
+            latencyEstimators.putIfAbsent(destination, new MomRPCLatencyEstimator());
+            estimator = latencyEstimators.get(destination);
+        }
+        return estimator;
+    }
+
+    /**
+     * @param destination the RPC destination
+     * @return the circuit breaker of destination or null if circuit breakers are disabled
+     */
+    protected MomRPCCircuitBreaker getCircuitBreaker(String destination) {
+        if (!momClient.isRPCCircuitBreaker()) return null;
+        MomRPCCircuitBreaker circuitBreaker = circuitBreakers.get(destination);
+        if (circuitBreaker==null) {
+            circuitBreakers.putIfAbsent(destination, new MomRPCCircuitBreaker(
+                    destination, momClient.getRPCCircuitBreakerTimeouts(), momClient.getRPCCircuitBreakerErrorRate(),
+                    momClient.getRPCCircuitBreakerWindow(), momClient.getRPCCircuitBreakerOpenTime(), circuitBreakerListener
+            ));
+            circuitBreaker = circuitBreakers.get(destination);
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Get the RPC timeout to apply on destination. If adaptive RPC timeout is enabled the timeout is derived from
+     * the destination latency estimator (clamped to client RPC timeout min / max) else it is the client RPC timeout.
+     * As TCP retransmission timer does, the timeout is doubled on each retry (up to client RPC timeout max).
+     * @param destination the RPC destination
+     * @param retryCount the retry count of the call
+     * @return the RPC timeout (millisecond) or -1 if RPC timeout is disabled
+     */
+    protected long getRPCTimeout(String destination, int retryCount) {
+        long max = momClient.getRPCTimeoutMax();
+        if (max <= 0 || !momClient.isRPCTimeoutAdaptive()) return max;
+        long timeout = getLatencyEstimator(destination).getTimeout(momClient.getRPCTimeoutFactor(), momClient.getRPCTimeoutMin(), max);
+        for (int i = 0; i < retryCount && timeout < max; i++) timeout *= 2;
+        return Math.min(timeout, max);
+    }
+
+    /**
+     * (internal usage)
+     * To be called by any RPC implementation on new request (not on retry) before sending it : check the destination
+     * circuit breaker and feed the client retry budget.
+     * @param destination the RPC destination
+     * @throws MomException if the destination circuit breaker is open (the request must not be sent)
+     */
+    protected void onRPCRequest(String destination) throws MomException {
+        MomRPCCircuitBreaker circuitBreaker = getCircuitBreaker(destination);
+        if (circuitBreaker!=null && !circuitBreaker.tryAcquire())
+            throw new MomException("RPC circuit breaker on " + destination + " is open : request not sent !");
+        MomRPCRetryBudget retryBudget = momClient.getRPCRetryBudget();
+        if (retryBudget!=null) retryBudget.deposit();
+        MomRPCRetryBudget budget = hedgingBudget;
+        if (budget!=null) budget.deposit();
+    }
+
+    /**
+     * (internal usage)
+     * To be called by any RPC implementation on answer : feed the destination latency estimator. As the answer of a
+     * retried call can't be bound to one of its requests the answer time is ignored on retried calls.
+     * @param destination the RPC destination
+     * @param rpcTime the RPC time (nanosecond) since last request publication
+     * @param retryCount the retry count of the call
+     */
+    protected void onRPCAnswer(String destination, long rpcTime, int retryCount) {
+        if (retryCount == 0) getLatencyEstimator(destination).addSample(rpcTime);
+        MomRPCCircuitBreaker circuitBreaker = getCircuitBreaker(destination);
+        if (circuitBreaker!=null) circuitBreaker.onSuccess();
+    }
+
+    /**
+     * (internal usage)
+     * To be called by any RPC implementation on timeout : feed the destination latency estimator with the
+     * timeout so that next timeouts grow if destination is slowing down and the destination circuit breaker.
+     * @param destination the RPC destination
+     * @param timeout the timeout which expired (millisecond)
+     */
+    protected void onRPCTimeout(String destination, long timeout) {
+        if (timeout > 0) getLatencyEstimator(destination).addSample(timeout * 1000000);
+        MomRPCCircuitBreaker circuitBreaker = getCircuitBreaker(destination);
+        if (circuitBreaker!=null) circuitBreaker.onTimeout();
+    }
+
+    /**
+     * (internal usage)
+     * To be called by any RPC implementation if the request can't be published : feed the destination circuit breaker.
+     * @param destination the RPC destination
+     */
+    protected void onRPCError(String destination) {
+        MomRPCCircuitBreaker circuitBreaker = getCircuitBreaker(destination);
+        if (circuitBreaker!=null) circuitBreaker.onError();
+    }
+
+    /**
+     * (internal usage)
+     * Get the backoff to wait before next retry : a random delay (full jitter) in
+     * [0, min(client RPC retry backoff max, client RPC retry backoff * 2^retryCount)].
+     * @param destination the RPC destination
+     * @param retryCount the retry count of the call
+     * @return the backoff (millisecond) or -1 if the call must not be retried (retry count or retry budget exhausted,
+     *         destination circuit breaker not closed)
+     */
+    protected long getRPCRetryBackoff(String destination, int retryCount) {
+        if (retryCount >= momClient.getRPCRetry()) return -1;
+        if (getCircuitBreakerState(destination) != MomCircuitBreakerListener.State.CLOSED) {
+            log.warn("RPC circuit breaker on " + destination + " is not closed : no retry on request to " + destination);
+            return -1;
+        }
+        MomRPCRetryBudget retryBudget = momClient.getRPCRetryBudget();
+        if (retryBudget!=null && !retryBudget.tryWithdraw()) {
+            log.warn("RPC retry budget exhausted : no retry on request to " + destination);
+            return -1;
+        }
+        return getJitteredBackoff(momClient.getRPCRetryBackoff(), momClient.getRPCRetryBackoffMax(), retryCount);
+    }
+
+    /**
+     * @param backoff the base backoff (millisecond)
+     * @param backoffMax the backoff upper bound (millisecond)
+     * @param retryCount the retry count of the call
+     * @return a random delay (full jitter) in [0, min(backoffMax, backoff * 2^retryCount)] (millisecond)
+     */
+    public static long getJitteredBackoff(long backoff, long backoffMax, int retryCount) {
+        long ceiling = backoff;
+        for (int i = 0; i < retryCount && ceiling < backoffMax; i++) ceiling *= 2;
+        ceiling = Math.min(ceiling, backoffMax);
+        return (ceiling > 0) ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    /**
+     * (internal usage)
+     * Complete the pending call identified by corrId with the decoded response. The answer worker (if any) is
+     * applied afterwards on the actor system dispatcher so that the MoM provider reply consumer is never blocked.
+     * @param corrId the response correlation ID
+     * @param response the decoded response
+     * @return true if a pending call has been completed else false (response discarded)
+     */
+    protected boolean completeAsyncRPC(String corrId, final Map<String, Object> response) {
+        final PendingRPC pending = (corrId!=null) ? pendingRPCs.remove(corrId) : null;
+        if (pending==null) {
+            // with hedging the losing copies replies are expected to be discarded
+            if (hedgingPolicy!=null) log.debug("Response discarded ( " + corrId + " ) ...");
+            else log.warn("Response discarded ( " + corrId + " ) ...");
+            return false;
+        }
+        pending.cancelTasks();
+        asyncRPCTerminated(corrId);
+        long rpcTime = System.nanoTime() - pending.beginWaitingAnswer;
+        log.debug("RPC time : " + rpcTime);
+        onRPCAnswer(pending.destination, rpcTime, pending.retryCount);
+
+        pending.promise.trySuccess(response);
+        return true;
+    }
+
+    /**
+     * (internal usage)
+     * cancel the pending call identified by corrId and fail its future
+     * @param corrId the call correlation ID
+     * @param cause the failure cause
+     * @return true if a pending call has been cancelled else false
+     */
+    protected boolean cancelAsyncRPC(String corrId, Throwable cause) {
+        final PendingRPC pending = (corrId!=null) ? pendingRPCs.remove(corrId) : null;
+        if (pending==null) return false;
+        pending.cancelTasks();
+        asyncRPCTerminated(corrId);
+        pending.promise.tryFailure(cause);
+        return true;
+    }
+
+    /**
+     * fail any pending call (to be called when stopping the request executor)
+     * @param reason the failure reason
+     */
+    protected void failPendingRPCs(String reason) {
+        for (PendingRPC pending : pendingRPCs.values()) {
+            if (pendingRPCs.remove(pending.corrId, pending)) {
+                pending.cancelTasks();
+                asyncRPCTerminated(pending.corrId);
+                pending.promise.tryFailure(new MomException(reason));
+            }
+        }
+    }
+
+    /**
+     * (internal usage)
+     * Hook called once a pending call is removed from the pending calls map (answered, timed out or failed).
+     * Override it to clean MoM provider specific resources attached to the call.
+     * @param corrId the call correlation ID
+     */
+    protected void asyncRPCTerminated(String corrId) {
+    }
+
+    /**
+     * (internal usage)
+     * Publish the request of a non blocking RPC to destination. The MoM provider specific implementation must
+     * define the reply to field with its long-lived reply source and push any answer to {@link #completeAsyncRPC(String, Map)}.
+     * @param request the request message (correlation ID already defined)
+     * @param destination the target destination queue
+     * @throws IOException while publishing request
+     */
+    protected abstract void publishAsyncRPCRequest(Map<String, Object> request, String destination) throws IOException;
+
+    /**
+     * clear and close this request executor resources
+     * @throws IOException if error occurs when closing MoM provider resources
+     */
+    public abstract void stop() throws IOException;
+}
@@ -24,7 +24,8 @@ import akka.japi.Creator;
 import org.slf4j.Logger;
 
 /**
- * MomAkkaDLLogger is an actor to log dead letter
+ * MomAkkaDLLogger is an actor to log dead letter. The dead {@link MomMsgEnvelope} are dropped so that their MoM
+ * provider resources (in-flight slot, unacknowledged delivery...) are not leaked.
  */
 public class MomAkkaDLLogger extends UntypedActor {
 
@@ -46,7 +47,7 @@ public class MomAkkaDLLogger extends UntypedActor {
 
     /**
      * Message treatment.
-     * if input message is instanceof DeadLetter then log warn the dead letter
+     * if input message is instanceof DeadLetter then log warn the dead letter (and drop it if it is a MomMsgEnvelope)
      * else pass input message to unhandled
      * @see akka.actor.UntypedActor#unhandled(Object)
      * @param message to treat.
@@ -56,6 +57,7 @@ public class MomAkkaDLLogger extends UntypedActor {
         if (message instanceof DeadLetter) {
             final DeadLetter d = (DeadLetter) message;
             if (!d.message().equals("stop_soon")) log.warn("DeadLetter " + d.message().toString() + " received. Recipient was " + d.recipient().path().name() + " .");
+            if (d.message() instanceof MomMsgEnvelope) ((MomMsgEnvelope) d.message()).drop();
         } else {
             unhandled(message);
         }
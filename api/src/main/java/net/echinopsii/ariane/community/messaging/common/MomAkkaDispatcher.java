@@ -0,0 +1,146 @@
+/**
+ * Messaging - Common Implementation
+ * Service dedicated dispatcher
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.dispatch.DispatcherConfigurator;
+import akka.dispatch.Dispatchers;
+import akka.dispatch.MessageDispatcherConfigurator;
+import akka.dispatch.PinnedDispatcherConfigurator;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MomAkkaDispatcher class defines a named Akka dispatcher dedicated to some services (bulkhead) :
+ * <br/> - FORK_JOIN : fork join pool of size threads (CPU bound services)
+ * <br/> - THREAD_POOL : fixed thread pool of size threads (blocking services)
+ * <br/> - PINNED : one dedicated thread per actor (size is ignored)
+ * <p/>
+ * The dispatcher is registered on the client actor system on first use (whatever this actor system has been created
+ * by the client or provided by the OSGi activator) with the id {@link #DISPATCHER_ID_PREFIX}&lt;name&gt;. The
+ * settings not defined here (throughput, shutdown timeout...) are the actor system default dispatcher ones.
+ */
+public class MomAkkaDispatcher {
+
+    public static final String DISPATCHER_ID_PREFIX = "ariane-mom-dispatcher-";
+
+    public enum Type {
+        FORK_JOIN,
+        THREAD_POOL,
+        PINNED
+    }
+
+    private String name;
+    private Type type;
+    private int size;
+
+    /**
+     * @param name the dispatcher name
+     * @param type the dispatcher thread pool type
+     * @param size the dispatcher threads count (ignored for PINNED)
+     */
+    public MomAkkaDispatcher(String name, Type type, int size) {
+        this.name = name;
+        this.type = type;
+        this.size = Math.max(1, size);
+    }
+
+    /**
+     * @return the dispatcher name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the dispatcher thread pool type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the dispatcher threads count
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the Akka dispatcher id (to be used with Props.withDispatcher)
+     */
+    public String getId() {
+        return DISPATCHER_ID_PREFIX + name;
+    }
+
+    /**
+     * @param props some actor props
+     * @param dispatcherID the Akka dispatcher id (can be null)
+     * @return the props running on dispatcherID or unchanged props if dispatcherID is null
+     */
+    public static Props withDispatcher(Props props, String dispatcherID) {
+        return (dispatcherID!=null) ? props.withDispatcher(dispatcherID) : props;
+    }
+
+    /**
+     * register this dispatcher on the provided actor system if not done already (checked per actor system)
+     * @param system the actor system
+     * @return the Akka dispatcher id
+     */
+    public synchronized String register(ActorSystem system) {
+        Dispatchers dispatchers = system.dispatchers();
+        if (!dispatchers.hasDispatcher(getId())) {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("id", getId());
+            switch (type) {
+                case FORK_JOIN:
+                    settings.put("type", "Dispatcher");
+                    settings.put("executor", "fork-join-executor");
+                    settings.put("fork-join-executor.parallelism-min", size);
+                    settings.put("fork-join-executor.parallelism-max", size);
+                    break;
+                case THREAD_POOL:
+                    settings.put("type", "Dispatcher");
+                    settings.put("executor", "thread-pool-executor");
+                    settings.put("thread-pool-executor.core-pool-size-min", size);
+                    settings.put("thread-pool-executor.core-pool-size-max", size);
+                    settings.put("thread-pool-executor.max-pool-size-min", size);
+                    settings.put("thread-pool-executor.max-pool-size-max", size);
+                    break;
+                case PINNED:
+                    settings.put("type", "PinnedDispatcher");
+                    settings.put("executor", "thread-pool-executor");
+                    settings.put("thread-pool-executor.allow-core-timeout", "off");
+                    break;
+            }
+            Config config = ConfigFactory.parseMap(settings).withFallback(
+                    system.settings().config().getConfig("akka.actor.default-dispatcher"));
+            MessageDispatcherConfigurator configurator = (type == Type.PINNED) ?
+                    new PinnedDispatcherConfigurator(config, dispatchers.prerequisites()) :
+                    new DispatcherConfigurator(config, dispatchers.prerequisites());
+            dispatchers.registerConfigurator(getId(), configurator);
+        }
+        return getId();
+    }
+}
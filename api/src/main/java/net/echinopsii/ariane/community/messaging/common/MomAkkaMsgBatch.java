@@ -0,0 +1,161 @@
+/**
+ * Messaging - Common Implementation
+ * Service actor messages batch
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import akka.actor.ActorContext;
+import akka.actor.ActorRef;
+import net.echinopsii.ariane.community.messaging.api.AppMsgBatchWorker;
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MomAkkaMsgBatch class accumulates the messages received by a service actor (request routee or subscriber) for an
+ * {@link AppMsgBatchWorker}.
+ * <p/>
+ * A batch is due when it reaches maxSize messages or maxDelay microseconds after its first message : the delay is
+ * a flush tick sent to the actor itself through the actor system scheduler (its resolution is the scheduler tick
+ * duration - 10 ms by default). A flush tick of an already treated batch is ignored.
+ * <p/>
+ * Not thread safe : to be used from the owning actor only.
+ */
+public class MomAkkaMsgBatch {
+
+    /**
+     * a message waiting in the batch
+     */
+    public static class Pending {
+        private Object message;
+        private Map<String, Object> request;
+        private long beginTreatment;
+
+        Pending(Object message, Map<String, Object> request, long beginTreatment) {
+            this.message = message;
+            this.request = request;
+            this.beginTreatment = beginTreatment;
+        }
+
+        /**
+         * @return the akka message received by the actor
+         */
+        public Object getMessage() {
+            return message;
+        }
+
+        /**
+         * @return the decoded message
+         */
+        public Map<String, Object> getRequest() {
+            return request;
+        }
+
+        /**
+         * @return the message treatment start time (System.nanoTime())
+         */
+        public long getBeginTreatment() {
+            return beginTreatment;
+        }
+    }
+
+    private static class Flush {
+        long seq;
+
+        Flush(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    private int maxSize;
+    private long maxDelay;
+    private List<Pending> pendings = new ArrayList<>();
+    private long seq = 0;
+
+    /**
+     * @param maxSize the batch maximum messages count
+     * @param maxDelay the batch maximum delay (microseconds) since its first message
+     */
+    public MomAkkaMsgBatch(int maxSize, long maxDelay) {
+        this.maxSize = maxSize;
+        this.maxDelay = Math.max(1, maxDelay);
+    }
+
+    /**
+     * @param worker the service worker
+     * @param maxSize the batch maximum messages count
+     * @return true if the service messages must be batched
+     */
+    public static boolean isBatching(AppMsgWorker worker, int maxSize) {
+        return worker instanceof AppMsgBatchWorker && maxSize > 1;
+    }
+
+    /**
+     * add a message to the batch and schedule the batch flush tick on first message
+     * @param context the actor context
+     * @param message the akka message received by the actor
+     * @param request the decoded message
+     * @param beginTreatment the treatment start time (System.nanoTime())
+     * @return the batch to treat now if it is full else null
+     */
+    public List<Pending> add(ActorContext context, Object message, Map<String, Object> request, long beginTreatment) {
+        pendings.add(new Pending(message, request, beginTreatment));
+        if (pendings.size() >= maxSize) return drain();
+        if (pendings.size() == 1)
+            context.system().scheduler().scheduleOnce(
+                    Duration.create(maxDelay, TimeUnit.MICROSECONDS),
+                    context.self(), new Flush(seq), context.dispatcher(), ActorRef.noSender()
+            );
+        return null;
+    }
+
+    /**
+     * @param message the akka message received by the actor
+     * @return null if message is not a flush tick, else the batch to treat now (empty if the tick is outdated)
+     */
+    public List<Pending> onFlush(Object message) {
+        if (!(message instanceof Flush)) return null;
+        if (((Flush) message).seq != seq) return Collections.emptyList();
+        return drain();
+    }
+
+    /**
+     * @return the current batch (can be empty) - a new batch is started
+     */
+    public List<Pending> drain() {
+        List<Pending> batch = pendings;
+        pendings = new ArrayList<>();
+        seq++;
+        return batch;
+    }
+
+    /**
+     * @param batch a batch
+     * @return the decoded messages of the batch
+     */
+    public static List<Map<String, Object>> requests(List<Pending> batch) {
+        List<Map<String, Object>> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) requests.add(pending.getRequest());
+        return requests;
+    }
+}
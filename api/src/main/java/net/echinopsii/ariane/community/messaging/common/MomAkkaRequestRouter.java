@@ -22,25 +22,76 @@ package net.echinopsii.ariane.community.messaging.common;
 import akka.actor.*;
 import akka.japi.Creator;
 import akka.routing.ActorRefRoutee;
+import akka.routing.ConsistentHashingRouter;
+import akka.routing.ConsistentHashingRoutingLogic;
+import akka.routing.RandomRoutingLogic;
 import akka.routing.RoundRobinRoutingLogic;
 import akka.routing.Routee;
 import akka.routing.Router;
+import akka.routing.RoutingLogic;
+import akka.routing.SmallestMailboxRoutingLogic;
+import net.echinopsii.ariane.community.messaging.api.MomRoutingPolicy;
 import org.slf4j.Logger;
+import scala.concurrent.duration.Duration;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * MomAkkaRequestRouter is an actor to dispatch requests to worker routees (round robin)
+ * MomAkkaRequestRouter is an actor to dispatch requests to worker routees (round robin by default or according to the
+ * provided {@link MomRoutingPolicy}).
+ * <p/>
+ * A terminated routee is replaced by a routee of the same name : with consistent hashing the new routee takes the
+ * place of the terminated one on the hash ring and the routing keys keep their routee.
+ * <p/>
+ * If a {@link MomAkkaRouterResizer} is provided the routees count is adapted to the load every resizer interval :
+ * the routees report each treatment time to the router ({@link Treated}) which then knows the requests backlog and
+ * the routees utilization.
  */
 public class MomAkkaRequestRouter extends UntypedActor {
 
     private static final Logger log = MomLoggerFactory.getLogger(MomAkkaRequestRouter.class);
+    private static final String RESIZE = "resize";
+
     private boolean willStopSoon = false;
 
     private Router router = null;
     private Props routeeProps = null;
     private String routeeNamePrefix = null;
+    private List<ActorRef> routeeRefs = new ArrayList<>();
+    private int nextRouteeIdx = 0;
+
+    private MomAkkaRouterResizer resizer = null;
+    private Cancellable resizeTask = null;
+    private long inFlight = 0;
+    private long treatedCount = 0;
+    private long treatedTime = 0;
+    private long lastResizeCheck = System.nanoTime();
+    private int lowUtilizationIntervals = 0;
+
+    /**
+     * Treated message is sent by a routee to its router once a routed message is treated
+     */
+    public static class Treated implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final long treatmentTime;
+
+        /**
+         * @param treatmentTime the message treatment time (ns)
+         */
+        public Treated(long treatmentTime) {
+            this.treatmentTime = treatmentTime;
+        }
+
+        /**
+         * @return the message treatment time (ns)
+         */
+        public long getTreatmentTime() {
+            return treatmentTime;
+        }
+    }
 
     /**
      * Constructor
@@ -49,15 +100,65 @@ public class MomAkkaRequestRouter extends UntypedActor {
      * @param routeesCount routees count to be managed
      */
     public MomAkkaRequestRouter(Props routeeProps, String routeeNamePrefix, int routeesCount) {
+        this(routeeProps, routeeNamePrefix, routeesCount, null);
+    }
+
+    /**
+     * Constructor
+     * @param routeeProps routee Akka props to create worker actors
+     * @param routeeNamePrefix routee name prefix
+     * @param routeesCount initial routees count to be managed (bounded by resizer if any)
+     * @param resizer the routees resizer (null for a fixed routees count)
+     */
+    public MomAkkaRequestRouter(Props routeeProps, String routeeNamePrefix, int routeesCount, MomAkkaRouterResizer resizer) {
+        this(routeeProps, routeeNamePrefix, routeesCount, resizer, null);
+    }
+
+    /**
+     * Constructor
+     * @param routeeProps routee Akka props to create worker actors
+     * @param routeeNamePrefix routee name prefix
+     * @param routeesCount initial routees count to be managed (bounded by resizer if any)
+     * @param resizer the routees resizer (null for a fixed routees count)
+     * @param routingPolicy the routing policy (null for round robin)
+     */
+    public MomAkkaRequestRouter(Props routeeProps, String routeeNamePrefix, int routeesCount, MomAkkaRouterResizer resizer,
+                                MomRoutingPolicy routingPolicy) {
         this.routeeProps = routeeProps;
         this.routeeNamePrefix = routeeNamePrefix;
-        List<Routee> routees = new ArrayList<>();
-        for (int i = 0; i < routeesCount; i++) {
-            ActorRef r = getContext().actorOf(routeeProps, routeeNamePrefix + "__" + i);
-            getContext().watch(r);
-            routees.add(new ActorRefRoutee(r));
+        this.resizer = resizer;
+        if (resizer!=null) routeesCount = resizer.bounded(routeesCount);
+        this.router = new Router(createRoutingLogic(routingPolicy, getContext().system()), new ArrayList<Routee>());
+        for (int i = 0; i < routeesCount; i++) addRoutee();
+    }
+
+    /**
+     * @param routingPolicy the routing policy (null for round robin)
+     * @param system the actor system
+     * @return the Akka routing logic implementing the routing policy
+     */
+    public static RoutingLogic createRoutingLogic(final MomRoutingPolicy routingPolicy, ActorSystem system) {
+        if (routingPolicy == null) return new RoundRobinRoutingLogic();
+        switch (routingPolicy.getLogic()) {
+            case SMALLEST_MAILBOX:
+                return new SmallestMailboxRoutingLogic();
+            case RANDOM:
+                return new RandomRoutingLogic();
+            case CONSISTENT_HASH:
+                return new ConsistentHashingRoutingLogic(system).withHashMapper(new ConsistentHashingRouter.ConsistentHashMapper() {
+                    private long unkeyedCount = 0;
+
+                    @Override
+                    public Object hashKey(Object message) {
+                        Object key = null;
+                        if (message instanceof MomMsgEnvelope) key = routingPolicy.getHashKey(((MomMsgEnvelope) message).getMessage());
+                        // requests without routing key are spread over the hash ring (a null key would be dead lettered)
+                        return (key != null) ? key : String.valueOf(unkeyedCount++);
+                    }
+                });
+            default:
+                return new RoundRobinRoutingLogic();
         }
-        this.router = new Router(new RoundRobinRoutingLogic(), routees);
     }
 
     /**
@@ -77,6 +178,108 @@ public class MomAkkaRequestRouter extends UntypedActor {
         });
     }
 
+    /**
+     * @param routeeProps routee Akka props to create worker actors
+     * @param routeeNamePrefix routee name prefix
+     * @param routeesCount initial routees count to be managed
+     * @param resizer the routees resizer (null for a fixed routees count)
+     * @return Akka Props to create an actor for MomAkkaRequestRouter
+     */
+    public static Props props(final Props routeeProps, final String routeeNamePrefix, final int routeesCount, final MomAkkaRouterResizer resizer) {
+        return Props.create(new Creator<MomAkkaRequestRouter>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public MomAkkaRequestRouter create() throws Exception {
+                return new MomAkkaRequestRouter(routeeProps, routeeNamePrefix, routeesCount, resizer);
+            }
+        });
+    }
+
+    /**
+     * @param routeeProps routee Akka props to create worker actors
+     * @param routeeNamePrefix routee name prefix
+     * @param routeesCount initial routees count to be managed
+     * @param resizer the routees resizer (null for a fixed routees count)
+     * @param routingPolicy the routing policy (null for round robin)
+     * @return Akka Props to create an actor for MomAkkaRequestRouter
+     */
+    public static Props props(final Props routeeProps, final String routeeNamePrefix, final int routeesCount,
+                              final MomAkkaRouterResizer resizer, final MomRoutingPolicy routingPolicy) {
+        return Props.create(new Creator<MomAkkaRequestRouter>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public MomAkkaRequestRouter create() throws Exception {
+                return new MomAkkaRequestRouter(routeeProps, routeeNamePrefix, routeesCount, resizer, routingPolicy);
+            }
+        });
+    }
+
+    /**
+     * schedule the resize checks if a resizer is defined
+     */
+    @Override
+    public void preStart() {
+        if (resizer!=null)
+            resizeTask = getContext().system().scheduler().schedule(
+                    Duration.create(resizer.getInterval(), TimeUnit.MILLISECONDS),
+                    Duration.create(resizer.getInterval(), TimeUnit.MILLISECONDS),
+                    getSelf(), RESIZE, getContext().dispatcher(), null
+            );
+    }
+
+    /**
+     * cancel the resize checks
+     */
+    @Override
+    public void postStop() {
+        if (resizeTask!=null) resizeTask.cancel();
+    }
+
+    private void addRoutee() {
+        ActorRef r = getContext().actorOf(this.routeeProps, this.routeeNamePrefix + "__" + nextRouteeIdx++);
+        getContext().watch(r);
+        routeeRefs.add(r);
+        this.router = this.router.addRoutee(new ActorRefRoutee(r));
+    }
+
+    private void removeRoutee() {
+        ActorRef r = routeeRefs.remove(routeeRefs.size() - 1);
+        this.router = this.router.removeRoutee(r);
+        getContext().unwatch(r);
+        // routed messages already in its mailbox are treated before the poison pill
+        r.tell(PoisonPill.getInstance(), getSelf());
+    }
+
+    private void resize() {
+        long now = System.nanoTime();
+        long elapsed = now - lastResizeCheck;
+        lastResizeCheck = now;
+        if (inFlight < 0) inFlight = 0;
+
+        int routeesCount = routeeRefs.size();
+        if (routeesCount == 0 || elapsed <= 0) return;
+        double busyRoutees = (double) treatedTime / elapsed;
+        double utilization = Math.max(busyRoutees, inFlight) / routeesCount;
+        double serviceTime = (treatedCount > 0) ? (double) treatedTime / treatedCount / 1000000 : 0;
+        treatedTime = 0;
+        treatedCount = 0;
+
+        if (resizer.isLowUtilization(utilization)) lowUtilizationIntervals++;
+        else lowUtilizationIntervals = 0;
+        int newCount = resizer.resize(routeesCount, utilization, lowUtilizationIntervals);
+        if (newCount != routeesCount) {
+            long backlog = Math.max(0, inFlight - routeesCount);
+            while (routeeRefs.size() < newCount) addRoutee();
+            while (routeeRefs.size() > newCount) removeRoutee();
+            lowUtilizationIntervals = 0;
+            log.info("Routees of " + getSelf().path().name() + " resized from " + routeesCount + " to " + newCount +
+                    " (backlog: " + backlog + ", service time: " + String.format("%.3f", serviceTime) + " ms)");
+            resizer.notifyResize(getSelf().path().name(), routeesCount, newCount, backlog, serviceTime);
+        }
+    }
+
     private ActorRef actorOf(Props props, String name) {
         return getContext().actorOf(props, name);
     }
@@ -85,12 +288,14 @@ public class MomAkkaRequestRouter extends UntypedActor {
      * Message treatment.
      * if input message is "kill"
      * else if message instanceof Terminated create a new routee if !willStopSoon
+     * else if message instanceof Treated or is the resize tick update the routees load and resize if needed
      * else route message to routees (round robing)
      * @param message
      */
     @Override
     public void onReceive(Object message) {
         if (message.equals("kill")) {
+            willStopSoon = true;
             for (ActorRef each : getContext().getChildren()) {
                 getContext().unwatch(each);
                 getContext().stop(each);
@@ -105,9 +310,19 @@ public class MomAkkaRequestRouter extends UntypedActor {
                 this.router = this.router.removeRoutee(t.actor());
                 ActorRef r = getContext().actorOf(this.routeeProps, this.routeeNamePrefix + "__" + routeeIdx);
                 getContext().watch(r);
+                int idx = routeeRefs.indexOf(t.actor());
+                if (idx >= 0) routeeRefs.set(idx, r);
+                else routeeRefs.add(r);
                 this.router = this.router.addRoutee(new ActorRefRoutee(r));
             }
+        } else if (message instanceof Treated) {
+            inFlight--;
+            treatedCount++;
+            treatedTime += ((Treated) message).getTreatmentTime();
+        } else if (message.equals(RESIZE)) {
+            if (resizer!=null && !willStopSoon) resize();
         } else {
+            if (resizer!=null) inFlight++;
             router.route(message, getSender());
         }
     }
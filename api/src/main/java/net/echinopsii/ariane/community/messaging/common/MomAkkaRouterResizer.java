@@ -0,0 +1,165 @@
+/**
+ * Messaging - Common Implementation
+ * Request router routees resizer
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomRouteesResizeListener;
+import org.slf4j.Logger;
+
+/**
+ * MomAkkaRouterResizer class defines how a {@link MomAkkaRequestRouter} grows and shrinks its routees between
+ * lowerBound and upperBound.
+ * <p/>
+ * Every interval the router computes its routees utilization : the greatest of the busy routees estimate (sum of the
+ * treatment times of the interval divided by the interval) and the routed requests not treated yet (mailboxes backlog
+ * included), divided by the routees count.
+ * <br/> - if utilization is above growThreshold the routees count grows immediately to the count which would bring it
+ * back to growThreshold (one routee at least)
+ * <br/> - if utilization stays below shrinkThreshold during shrinkDelay consecutive intervals the routees count shrinks
+ * halfway to this same count (one routee at least). Removed routees treat their mailbox before stopping.
+ * <p/>
+ * The gap between the thresholds and the shrink delay are the resizer hysteresis : a pool grown on a burst is not
+ * shrunk on the next quiet interval. Each resize is logged and notified to the {@link MomRouteesResizeListener}.
+ * <p/>
+ * Default values : interval = 1000 (ms), growThreshold = 0.8, shrinkThreshold = 0.3, shrinkDelay = 10 (intervals)
+ * <br/> shrinkThreshold is capped to growThreshold / 2 so that a shrunk pool is not grown back on the next interval.
+ */
+public class MomAkkaRouterResizer {
+    private static final Logger log = MomLoggerFactory.getLogger(MomAkkaRouterResizer.class);
+
+    private int lowerBound;
+    private int upperBound;
+    private long interval = 1000;
+    private double growThreshold = 0.8;
+    private double shrinkThreshold = 0.3;
+    private int shrinkDelay = 10;
+    private volatile MomRouteesResizeListener listener = null;
+
+    /**
+     * @param lowerBound the minimum routees count (min 1)
+     * @param upperBound the maximum routees count (min lowerBound)
+     */
+    public MomAkkaRouterResizer(int lowerBound, int upperBound) {
+        this.lowerBound = Math.max(1, lowerBound);
+        this.upperBound = Math.max(this.lowerBound, upperBound);
+    }
+
+    /**
+     * @param lowerBound the minimum routees count (min 1)
+     * @param upperBound the maximum routees count (min lowerBound)
+     * @param interval the interval (ms) between two resize checks
+     * @param growThreshold the utilization above which the routees grow
+     * @param shrinkThreshold the utilization below which the routees shrink (after shrinkDelay intervals) - silently
+     *                        lowered to growThreshold / 2 if greater
+     * @param shrinkDelay the consecutive intervals below shrinkThreshold before shrinking
+     */
+    public MomAkkaRouterResizer(int lowerBound, int upperBound, long interval, double growThreshold, double shrinkThreshold, int shrinkDelay) {
+        this(lowerBound, upperBound);
+        this.interval = (interval > 0) ? interval : 1000;
+        this.growThreshold = (growThreshold > 0) ? growThreshold : 0.8;
+        this.shrinkThreshold = Math.min(shrinkThreshold, this.growThreshold / 2);
+        this.shrinkDelay = Math.max(1, shrinkDelay);
+    }
+
+    /**
+     * @param routeesCount a routees count
+     * @return the routees count clamped to [lowerBound, upperBound]
+     */
+    public int bounded(int routeesCount) {
+        return Math.max(lowerBound, Math.min(upperBound, routeesCount));
+    }
+
+    /**
+     * @param utilization the routees utilization on last interval
+     * @return true if utilization is below the shrink threshold
+     */
+    public boolean isLowUtilization(double utilization) {
+        return utilization <= shrinkThreshold;
+    }
+
+    /**
+     * @param routeesCount the current routees count
+     * @param utilization the routees utilization on last interval
+     * @param lowUtilizationIntervals the consecutive intervals with low utilization (this one included)
+     * @return the new routees count (routeesCount if no resize is needed)
+     */
+    public int resize(int routeesCount, double utilization, int lowUtilizationIntervals) {
+        int target = (int) Math.ceil(routeesCount * utilization / growThreshold);
+        if (utilization > growThreshold)
+            return bounded(Math.max(routeesCount + 1, target));
+        if (isLowUtilization(utilization) && lowUtilizationIntervals >= shrinkDelay)
+            return bounded(routeesCount - Math.max(1, (routeesCount - target) / 2));
+        return routeesCount;
+    }
+
+    /**
+     * (internal usage)
+     * notify a routees pool resize to the listener
+     * @param service the service router name
+     * @param from the previous routees count
+     * @param to the new routees count
+     * @param backlog the requests waiting in the routees mailboxes
+     * @param serviceTime the mean treatment time (ms) on last interval
+     */
+    public void notifyResize(String service, int from, int to, long backlog, double serviceTime) {
+        MomRouteesResizeListener current = listener;
+        if (current!=null) {
+            try {
+                current.onResize(service, from, to, backlog, serviceTime);
+            } catch (Exception e) {
+                log.error("Routees resize listener error : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the minimum routees count
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return the maximum routees count
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the interval (ms) between two resize checks
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the routees resize listener (can be null)
+     */
+    public MomRouteesResizeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener the routees resize listener (metrics hook - can be null)
+     */
+    public void setListener(MomRouteesResizeListener listener) {
+        this.listener = listener;
+    }
+}
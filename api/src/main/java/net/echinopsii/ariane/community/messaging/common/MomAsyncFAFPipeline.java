@@ -0,0 +1,271 @@
+/**
+ * Messaging - Common Implementation
+ * Asynchronous FAF pipeline
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomAsyncPublisher;
+import net.echinopsii.ariane.community.messaging.api.MomException;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomAsyncFAFPipeline class is the MoM provider agnostic implementation of MomAsyncPublisher : the asynchronous fire
+ * and forget stage of a MomClient.
+ * <p/>
+ * Requests are queued in a bounded ring buffer (see {@link MomAsyncPublisher.OverflowPolicy} for the full buffer
+ * behavior). A dedicated thread drains the buffer, groups the drained requests by destination and publishes them
+ * through its own request executor with {@link MomRequestExecutor#FAFBatch(List, Object)} :
+ * <br/> - encoding and publication never happen on the application threads
+ * <br/> - the in-flight window is the maximum requests count published to a destination before waiting for the MoM
+ * provider confirmation (RabbitMQ publisher confirms, NATS flush) : a slow broker slows the pipeline down and the
+ * bounded buffer pushes back on the producers.
+ * <p/>
+ * Message group is resolved on the calling thread when the request is queued.
+ * <p/>
+ * Once stopped the pipeline rejects new requests, and the requests still queued when the publisher thread exits
+ * (stop timeout expired) are counted as dropped.
+ */
+public class MomAsyncFAFPipeline implements MomAsyncPublisher<String>, Runnable {
+    private static final Logger log = MomLoggerFactory.getLogger(MomAsyncFAFPipeline.class);
+
+    private static final long DRAIN_POLL_TIMEOUT = 100;
+
+    /**
+     * queued request
+     */
+    private static class Entry {
+        Map<String, Object> request;
+        String destination;
+
+        Entry(Map<String, Object> request, String destination) {
+            this.request = request;
+            this.destination = destination;
+        }
+    }
+
+    private final MomAkkaAbsClient client;
+    private final ArrayBlockingQueue<Entry> buffer;
+    private final int bufferSize;
+    private final int window;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLong publishedCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    private volatile boolean isRunning = false;
+    private volatile boolean isAborted = false;
+    private Thread publisherThread = null;
+
+    /**
+     * @param client the MomClient this pipeline publishes with
+     * @param bufferSize the buffer capacity (requests count)
+     * @param window the in-flight window per destination (requests count)
+     * @param overflowPolicy the full buffer behavior
+     */
+    public MomAsyncFAFPipeline(MomAkkaAbsClient client, int bufferSize, int window, OverflowPolicy overflowPolicy) {
+        this.client = client;
+        this.bufferSize = bufferSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.window = Math.max(1, window);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * queue request for publication on destination
+     * @param request the request message
+     * @param destination the target destination queue
+     * @throws MomException if the pipeline is stopped, if the buffer is full with FAIL overflow policy or if the
+     *         calling thread is interrupted while blocked with BLOCK overflow policy
+     */
+    @Override
+    public void publish(Map<String, Object> request, String destination) throws MomException {
+        if (!isRunning) throw new MomException("Asynchronous FAF pipeline is stopped !");
+        String groupID = client.getCurrentMsgGroup();
+        if (groupID!=null) destination = groupID + "-" + destination;
+        Entry entry = new Entry(request, destination);
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    while (!buffer.offer(entry, DRAIN_POLL_TIMEOUT, TimeUnit.MILLISECONDS))
+                        if (!isRunning) throw new MomException("Asynchronous FAF pipeline is stopped !");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MomException("Interrupted while waiting for asynchronous FAF buffer room !", e);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!buffer.offer(entry))
+                    if (buffer.poll()!=null) droppedCount.incrementAndGet();
+                break;
+            default:
+                if (!buffer.offer(entry)) {
+                    droppedCount.incrementAndGet();
+                    throw new MomException("Asynchronous FAF buffer is full (" + bufferSize + " requests) !");
+                }
+        }
+
+        // stop() may have happened meanwhile : the entry is either seen by the publisher thread or withdrawn here
+        if (!isRunning && buffer.remove(entry))
+            throw new MomException("Asynchronous FAF pipeline is stopped !");
+    }
+
+    /**
+     * publisher thread loop : drain the buffer and publish the drained requests per destination by in-flight window
+     */
+    @Override
+    public void run() {
+        MomRequestExecutor requestExecutor = client.createRequestExecutor();
+        if (requestExecutor==null) {
+            log.error("Unable to create asynchronous FAF pipeline request executor !");
+            return;
+        }
+        List<Entry> drained = new ArrayList<>();
+        while (!isAborted && (isRunning || !buffer.isEmpty())) {
+            try {
+                Entry first = buffer.poll(DRAIN_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first==null) continue;
+                drained.add(first);
+                buffer.drainTo(drained);
+
+                LinkedHashMap<String, List<Map<String, Object>>> requestsByDestination = new LinkedHashMap<>();
+                for (Entry entry : drained) {
+                    List<Map<String, Object>> requests = requestsByDestination.get(entry.destination);
+                    if (requests==null) {
+                        requests = new ArrayList<>();
+                        requestsByDestination.put(entry.destination, requests);
+                    }
+                    requests.add(entry.request);
+                }
+                drained.clear();
+
+                for (String destination : requestsByDestination.keySet()) {
+                    List<Map<String, Object>> requests = requestsByDestination.get(destination);
+                    for (int i = 0; i < requests.size(); i += window) {
+                        List<Map<String, Object>> inFlight = requests.subList(i, Math.min(i + window, requests.size()));
+                        int failed;
+                        try {
+                            failed = requestExecutor.FAFBatch(inFlight, destination).size();
+                        } catch (Exception e) {
+                            log.error("Error while publishing asynchronous FAF requests on " + destination + " : " + e.getMessage(), e);
+                            failed = inFlight.size();
+                        }
+                        publishedCount.addAndGet(inFlight.size() - failed);
+                        if (failed > 0) {
+                            failedCount.addAndGet(failed);
+                            log.warn(failed + " asynchronous FAF requests on " + destination + " could not be published");
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.debug("Asynchronous FAF publisher thread interrupted...");
+            } catch (Exception e) {
+                log.error("Error while publishing asynchronous FAF requests : " + e.getMessage(), e);
+                drained.clear();
+            }
+        }
+        drained.clear();
+        buffer.drainTo(drained);
+        if (drained.size() > 0) {
+            droppedCount.addAndGet(drained.size());
+            log.warn(drained.size() + " asynchronous FAF requests dropped on pipeline stop");
+        }
+        client.getRequestExecutors().remove(requestExecutor);
+        try {
+            ((MomAkkaAbsRequestExecutor) requestExecutor).stop();
+        } catch (Exception e) {
+            log.error("Error while stopping asynchronous FAF pipeline request executor : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * start the publisher thread
+     */
+    public synchronized void start() {
+        if (!isRunning) {
+            isRunning = true;
+            isAborted = false;
+            publisherThread = new Thread(this, "MomAsyncFAFPipeline_" + client.getClientID());
+            publisherThread.setDaemon(true);
+            publisherThread.start();
+        }
+    }
+
+    /**
+     * stop the publisher thread once the queued requests are published (or timeout expired)
+     * @param timeout the maximum time (millisecond) to wait for the buffer to be drained
+     */
+    public synchronized void stop(long timeout) {
+        if (isRunning) {
+            isRunning = false;
+            try {
+                publisherThread.join(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (publisherThread.isAlive()) {
+                log.warn("Asynchronous FAF pipeline stopped with " + buffer.size() + " requests still queued");
+                isAborted = true;
+                publisherThread.interrupt();
+            }
+            publisherThread = null;
+        }
+    }
+
+    /**
+     * @return true if the publisher thread is running
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    @Override
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
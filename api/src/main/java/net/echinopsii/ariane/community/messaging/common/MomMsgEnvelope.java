@@ -0,0 +1,109 @@
+/**
+ * Messaging - Common Implementation
+ * Message envelope
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import java.util.Map;
+
+/**
+ * MomMsgEnvelope class is the internal envelope sent by the MoM provider consumers to the request and subscription
+ * actors : it carries the MoM provider raw message along with its decoded map so that a message is decoded only once.
+ * <p/>
+ * The raw message is kept for the MoM provider specific treatments (acknowledgement, reply to, split chunks...).
+ * <br/> If the consumer is bounded by a {@link MomServiceBackpressure} the envelope holds its in-flight slot until
+ * the request actor releases it.
+ * <br/> An envelope which will never be treated (dead letter of a stopped router or routee) is dropped : its
+ * in-flight slot is released and its drop handler (if any) gives the raw message back to the MoM provider.
+ * @param <R> type of the MoM provider raw message
+ */
+public class MomMsgEnvelope<R> {
+
+    private R raw;
+    private Map<String, Object> message;
+    private MomServiceBackpressure backpressure;
+    private Runnable dropHandler;
+
+    /**
+     * @param raw the MoM provider raw message
+     * @param message the decoded message
+     */
+    public MomMsgEnvelope(R raw, Map<String, Object> message) {
+        this(raw, message, null);
+    }
+
+    /**
+     * @param raw the MoM provider raw message
+     * @param message the decoded message
+     * @param backpressure the consumer backpressure the envelope in-flight slot has been acquired from (can be null)
+     */
+    public MomMsgEnvelope(R raw, Map<String, Object> message, MomServiceBackpressure backpressure) {
+        this(raw, message, backpressure, null);
+    }
+
+    /**
+     * @param raw the MoM provider raw message
+     * @param message the decoded message
+     * @param backpressure the consumer backpressure the envelope in-flight slot has been acquired from (can be null)
+     * @param dropHandler the treatment to run if the envelope is dropped (can be null)
+     */
+    public MomMsgEnvelope(R raw, Map<String, Object> message, MomServiceBackpressure backpressure, Runnable dropHandler) {
+        this.raw = raw;
+        this.message = message;
+        this.backpressure = backpressure;
+        this.dropHandler = dropHandler;
+    }
+
+    /**
+     * release the envelope in-flight slot (once the message is treated). Only the first call releases the slot.
+     */
+    public void release() {
+        if (backpressure!=null) {
+            MomServiceBackpressure acquired = backpressure;
+            backpressure = null;
+            acquired.release();
+        }
+    }
+
+    /**
+     * drop the envelope (it will never be treated) : release its in-flight slot and run its drop handler.
+     * Only the first call runs the drop handler.
+     */
+    public synchronized void drop() {
+        release();
+        if (dropHandler!=null) {
+            Runnable handler = dropHandler;
+            dropHandler = null;
+            handler.run();
+        }
+    }
+
+    /**
+     * @return the MoM provider raw message
+     */
+    public R getRaw() {
+        return raw;
+    }
+
+    /**
+     * @return the decoded message
+     */
+    public Map<String, Object> getMessage() {
+        return message;
+    }
+}
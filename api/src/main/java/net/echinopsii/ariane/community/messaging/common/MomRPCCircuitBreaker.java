@@ -0,0 +1,191 @@
+/**
+ * Messaging - Common Implementation
+ * RPC circuit breaker
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomCircuitBreakerListener;
+import net.echinopsii.ariane.community.messaging.api.MomCircuitBreakerListener.State;
+import org.slf4j.Logger;
+
+/**
+ * MomRPCCircuitBreaker class protects the RPC callers from a destination which doesn't answer anymore.
+ * <p/>
+ * The circuit is tripped open :
+ * <br/> - after N consecutive timeouts
+ * <br/> - or if the failures (timeouts and publication errors) rate on the last W calls reaches the error rate threshold.
+ * <p/>
+ * While open any RPC request to the destination fails fast. Once the open time elapsed, the circuit is half-open :
+ * one probe request is let through. Any answer closes the circuit, a probe failure opens it again. If the probe
+ * outcome is lost (cancelled call) a new probe is let through after the open time.
+ */
+public class MomRPCCircuitBreaker {
+    private static final Logger log = MomLoggerFactory.getLogger(MomRPCCircuitBreaker.class);
+
+    private final String destination;
+    private final int consecutiveTimeoutsThreshold;
+    private final double errorRateThreshold;
+    private final long openTime;
+
+    private final boolean[] outcomes;
+    private int outcomesIdx = 0;
+    private int outcomesCount = 0;
+    private int failuresCount = 0;
+    private int consecutiveTimeouts = 0;
+
+    private State state = State.CLOSED;
+    private long openedAt = 0;
+    private long probeSentAt = 0;
+    private volatile MomCircuitBreakerListener listener;
+
+    /**
+     * @param destination the RPC destination
+     * @param consecutiveTimeoutsThreshold the consecutive timeouts count opening the circuit (0 to disable)
+     * @param errorRateThreshold the failures rate opening the circuit (0 to disable)
+     * @param window the calls count on which the failures rate is computed
+     * @param openTime the time (millisecond) the circuit stays open before letting a probe request through
+     * @param listener the state transitions listener (can be null)
+     */
+    public MomRPCCircuitBreaker(String destination, int consecutiveTimeoutsThreshold, double errorRateThreshold,
+                                int window, long openTime, MomCircuitBreakerListener listener) {
+        this.destination = destination;
+        this.consecutiveTimeoutsThreshold = consecutiveTimeoutsThreshold;
+        this.errorRateThreshold = errorRateThreshold;
+        this.outcomes = new boolean[Math.max(1, window)];
+        this.openTime = openTime * 1000000;
+        this.listener = listener;
+    }
+
+    /**
+     * @param listener the state transitions listener (can be null)
+     */
+    public void setListener(MomCircuitBreakerListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the circuit state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * To be called before sending a new RPC request (not on retry)
+     * @return true if the request can be sent else false (fail fast)
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (now - probeSentAt < openTime) return false;
+                    probeSentAt = now;
+                    return true;
+                default:
+                    if (now - openedAt < openTime) return false;
+                    state = State.HALF_OPEN;
+                    probeSentAt = now;
+            }
+        }
+        fireStateChange(State.OPEN, State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * To be called on RPC answer
+     */
+    public void onSuccess() {
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                consecutiveTimeouts = 0;
+                record(false);
+                return;
+            } else if (state == State.OPEN) return;
+            reset();
+            state = State.CLOSED;
+        }
+        fireStateChange(State.HALF_OPEN, State.CLOSED);
+    }
+
+    /**
+     * To be called on RPC timeout (retries included)
+     */
+    public void onTimeout() {
+        onFailure(true);
+    }
+
+    /**
+     * To be called on RPC request publication error
+     */
+    public void onError() {
+        onFailure(false);
+    }
+
+    private void onFailure(boolean isTimeout) {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.OPEN) return;
+            if (state == State.CLOSED) {
+                if (isTimeout) consecutiveTimeouts++;
+                record(true);
+                boolean tooManyTimeouts = consecutiveTimeoutsThreshold > 0 && consecutiveTimeouts >= consecutiveTimeoutsThreshold;
+                boolean tooManyErrors = errorRateThreshold > 0 && outcomesCount == outcomes.length &&
+                        failuresCount >= errorRateThreshold * outcomesCount;
+                if (!tooManyTimeouts && !tooManyErrors) return;
+            }
+            reset();
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+        fireStateChange(from, State.OPEN);
+    }
+
+    private void record(boolean failure) {
+        if (outcomesCount == outcomes.length) {
+            if (outcomes[outcomesIdx]) failuresCount--;
+        } else outcomesCount++;
+        outcomes[outcomesIdx] = failure;
+        if (failure) failuresCount++;
+        outcomesIdx = (outcomesIdx + 1) % outcomes.length;
+    }
+
+    private void reset() {
+        outcomesIdx = 0;
+        outcomesCount = 0;
+        failuresCount = 0;
+        consecutiveTimeouts = 0;
+    }
+
+    private void fireStateChange(State from, State to) {
+        if (to == State.OPEN) log.warn("RPC circuit breaker on " + destination + " : " + from + " -> " + to);
+        else log.info("RPC circuit breaker on " + destination + " : " + from + " -> " + to);
+        MomCircuitBreakerListener current = listener;
+        if (current!=null) {
+            try {
+                current.onStateChange(destination, from, to);
+            } catch (Exception e) {
+                log.error("Error while notifying RPC circuit breaker state change on " + destination + " : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
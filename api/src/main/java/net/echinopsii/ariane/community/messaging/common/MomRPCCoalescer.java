@@ -0,0 +1,103 @@
+/**
+ * Messaging - Common Implementation
+ * RPC single-flight coalescer
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import scala.concurrent.Promise;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomRPCCoalescer class registers the coalesced remote procedure calls in flight of a MomClient. It is shared by all
+ * the client request executors so that identical calls issued by different threads share one MoM round trip.
+ * <p/>
+ * The first caller of a key leads the flight : it sends the request and lands the flight with the answer (or the
+ * failure). The other callers of the same key follow the flight and wait for its answer. A flight is unregistered
+ * before being completed : any call issued after the answer is received starts a new flight.
+ */
+public class MomRPCCoalescer {
+
+    private ConcurrentHashMap<Object, Promise<Map<String, Object>>> flights = new ConcurrentHashMap<>();
+    private AtomicLong flightsCount = new AtomicLong(0);
+    private AtomicLong followersCount = new AtomicLong(0);
+
+    /**
+     * join the flight of key or lead a new one with provided promise
+     * @param key the coalescing key
+     * @param flight the promise completed by the caller if it leads the flight
+     * @return the flight to follow or null if the caller leads the flight
+     */
+    public Promise<Map<String, Object>> join(Object key, Promise<Map<String, Object>> flight) {
+        Promise<Map<String, Object>> leaderFlight = flights.putIfAbsent(key, flight);
+        if (leaderFlight==null) flightsCount.incrementAndGet();
+        else followersCount.incrementAndGet();
+        return leaderFlight;
+    }
+
+    /**
+     * unregister the flight of key and complete it
+     * @param key the coalescing key
+     * @param flight the flight lead by the caller
+     * @param answer the flight answer (not treated by any answer worker)
+     * @param failure the flight failure (null if answered)
+     */
+    public void land(Object key, Promise<Map<String, Object>> flight, Map<String, Object> answer, Throwable failure) {
+        flights.remove(key, flight);
+        if (failure!=null) flight.tryFailure(failure);
+        else flight.trySuccess(answer);
+    }
+
+    /**
+     * @param answer a flight answer
+     * @return a caller own copy of the flight answer (byte array and map values - as properties - are copied too)
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> copyAnswer(Map<String, Object> answer) {
+        Map<String, Object> copy = new HashMap<>(answer);
+        for (Map.Entry<String, Object> field : copy.entrySet()) {
+            if (field.getValue() instanceof byte[]) field.setValue(((byte[]) field.getValue()).clone());
+            else if (field.getValue() instanceof Map) field.setValue(copyAnswer((Map<String, Object>) field.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * @return the coalesced calls currently in flight
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * @return the flights count (MoM round trips) since coalescer creation
+     */
+    public long getFlightsCount() {
+        return flightsCount.get();
+    }
+
+    /**
+     * @return the calls which followed a flight (MoM round trips saved) since coalescer creation
+     */
+    public long getFollowersCount() {
+        return followersCount.get();
+    }
+}
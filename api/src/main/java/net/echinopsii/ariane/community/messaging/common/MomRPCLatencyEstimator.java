@@ -0,0 +1,104 @@
+/**
+ * Messaging - Common Implementation
+ * RPC latency estimator
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+/**
+ * MomRPCLatencyEstimator class estimates the RPC latency of one destination from the observed RPC times.
+ * <p/>
+ * It keeps exponentially weighted moving averages of the RPC time (smoothed mean) and of its deviation
+ * (as TCP retransmission timer does) :
+ * <br/> - mean = (1 - 1/8) * mean + 1/8 * sample
+ * <br/> - deviation = (1 - 1/4) * deviation + 1/4 * |sample - mean|
+ * <p/>
+ * The RPC timeout is then derived as mean + factor * deviation, clamped to configured min / max.
+ */
+public class MomRPCLatencyEstimator {
+
+    private static final double MEAN_GAIN      = 0.125;
+    private static final double DEVIATION_GAIN = 0.25;
+
+    private double mean      = 0;
+    private double deviation = 0;
+    private long   samplesCount = 0;
+
+    /**
+     * add a new RPC time sample
+     * @param rpcTime the RPC time (nanoseconds)
+     */
+    public synchronized void addSample(long rpcTime) {
+        if (samplesCount == 0) {
+            mean = rpcTime;
+            deviation = rpcTime / 2.0;
+        } else {
+            deviation = (1 - DEVIATION_GAIN) * deviation + DEVIATION_GAIN * Math.abs(rpcTime - mean);
+            mean = (1 - MEAN_GAIN) * mean + MEAN_GAIN * rpcTime;
+        }
+        samplesCount++;
+    }
+
+    /**
+     * @return the samples count added to this estimator
+     */
+    public synchronized long getSamplesCount() {
+        return samplesCount;
+    }
+
+    /**
+     * @return the smoothed mean RPC time (nanoseconds)
+     */
+    public synchronized long getMean() {
+        return (long) mean;
+    }
+
+    /**
+     * @return the smoothed RPC time deviation (nanoseconds)
+     */
+    public synchronized long getDeviation() {
+        return (long) deviation;
+    }
+
+    /**
+     * @param factor the deviation factor
+     * @return the estimated RPC time mean + factor * deviation (nanoseconds)
+     */
+    public synchronized long getEstimate(double factor) {
+        return (long) (mean + factor * deviation);
+    }
+
+    /**
+     * @return the estimated 95th percentile RPC time (mean + 2 * deviation as mean deviation is about 0.8 standard
+     * deviation) in nanoseconds or -1 if no sample has been added yet
+     */
+    public synchronized long getP95() {
+        return (samplesCount > 0) ? (long) (mean + 2 * deviation) : -1;
+    }
+
+    /**
+     * @param factor the deviation factor
+     * @param min the minimum timeout (milliseconds)
+     * @param max the maximum timeout (milliseconds)
+     * @return the RPC timeout derived from estimation (milliseconds) or max if no sample has been added yet
+     */
+    public long getTimeout(double factor, long min, long max) {
+        if (getSamplesCount() == 0) return max;
+        long timeout = (long) Math.ceil(getEstimate(factor) / 1000000.0);
+        return Math.max(min, Math.min(max, timeout));
+    }
+}
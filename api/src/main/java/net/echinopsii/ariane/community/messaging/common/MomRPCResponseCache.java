@@ -0,0 +1,286 @@
+/**
+ * Messaging - Common Implementation
+ * RPC response cache
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomCoalescingPolicy;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomService;
+import net.echinopsii.ariane.community.messaging.api.MomServiceFactory;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomRPCResponseCache class is the remote procedure call response cache of a MomClient, shared by all the client
+ * request executors and used in front of {@link net.echinopsii.ariane.community.messaging.api.MomRequestExecutor#RPC(Map, Object, AppMsgWorker)}.
+ * <p/>
+ * Caching is configured per destination and per operation (the request OPERATION field value) with a time to live.
+ * Requests are keyed by their destination and all their fields but the MoM transport ones. Only successful answers
+ * (no return code or return code 0) are cached and a caller never gets the cached answer itself but a copy.
+ * <p/>
+ * Memory is bounded : entries are evicted when their time to live expires or when the cache is full (least recently
+ * used entry first). Entries can also be invalidated by the answers owner through a subscriber service on a topic
+ * (see {@link #subscribeInvalidations(MomServiceFactory, String, String, String)}). Hits, misses and evictions are counted.
+ */
+public class MomRPCResponseCache {
+    private static final Logger log = MomLoggerFactory.getLogger(MomRPCResponseCache.class);
+
+    public static final String OPERATION = "OPERATION";
+
+    private static final String ANY_OPERATION = "";
+    private static final MomCoalescingPolicy KEY_PROJECTION = MomCoalescingPolicy.onRequest();
+
+    private static class Entry {
+        Map<String, Object> answer;
+        String destination;
+        String operation;
+        long expiration;
+
+        Entry(Map<String, Object> answer, String destination, String operation, long expiration) {
+            this.answer = answer;
+            this.destination = destination;
+            this.operation = operation;
+            this.expiration = expiration;
+        }
+    }
+
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, Long>> timesToLive = new ConcurrentHashMap<>();
+    private volatile int maxEntries;
+    private final LinkedHashMap<List<Object>, Entry> entries = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictionsCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private AtomicLong epoch = new AtomicLong(0);
+    private AtomicLong hitsCount = new AtomicLong(0);
+    private AtomicLong missesCount = new AtomicLong(0);
+    private AtomicLong evictionsCount = new AtomicLong(0);
+
+    /**
+     * @param maxEntries the maximum cached answers count
+     */
+    public MomRPCResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the maximum cached answers count
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * define the maximum cached answers count
+     * @param maxEntries
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * enable caching of destination answers
+     * @param destination the RPC destination
+     * @param operation the request OPERATION field value (null for any operation of destination)
+     * @param timeToLive the cached answers time to live (millisecond)
+     */
+    public void configure(String destination, String operation, long timeToLive) {
+        if (timeToLive <= 0) throw new IllegalArgumentException("Cache time to live must be positive !");
+        timesToLive.putIfAbsent(destination, new ConcurrentHashMap<String, Long>());
+        timesToLive.get(destination).put((operation!=null) ? operation : ANY_OPERATION, timeToLive);
+    }
+
+    /**
+     * disable caching of destination answers and invalidate the cached ones
+     * @param destination the RPC destination
+     * @param operation the request OPERATION field value (null for any operation of destination)
+     */
+    public void unconfigure(String destination, String operation) {
+        Map<String, Long> operations = timesToLive.get(destination);
+        if (operations!=null) {
+            if (operation!=null) operations.remove(operation);
+            else operations.clear();
+        }
+        invalidate(destination, operation);
+    }
+
+    /**
+     * @param request the request message
+     * @param destination the RPC destination
+     * @return the cache key of request or null if the request answer must not be cached
+     */
+    public List<Object> getKey(Map<String, Object> request, String destination) {
+        Map<String, Long> operations = timesToLive.get(destination);
+        if (operations==null || operations.isEmpty()) return null;
+        String operation = getOperation(request);
+        if (!operations.containsKey(operation) && !operations.containsKey(ANY_OPERATION)) return null;
+        return Arrays.asList(destination, operation, KEY_PROJECTION.getKey(request));
+    }
+
+    /**
+     * @return the cache epoch (incremented on any invalidation) to be provided on {@link #put(List, Map, long)}
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * @param key the cache key
+     * @return the cached answer (shared : to be copied by the caller) or null if not cached or expired
+     */
+    public Map<String, Object> get(List<Object> key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry!=null && entry.expiration > System.currentTimeMillis()) {
+                hitsCount.incrementAndGet();
+                return entry.answer;
+            }
+            if (entry!=null) {
+                entries.remove(key);
+                evictionsCount.incrementAndGet();
+            }
+        }
+        missesCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * cache answer if it is successful and if no invalidation occurred since the request was sent
+     * @param key the cache key
+     * @param answer the answer (not treated by any answer worker)
+     * @param requestEpoch the cache epoch read before sending the request
+     */
+    public void put(List<Object> key, Map<String, Object> answer, long requestEpoch) {
+        Object rc = answer.get(MomMsgTranslator.MSG_RC);
+        if (rc!=null && !(rc instanceof Number && ((Number) rc).intValue() == 0)) return;
+        String destination = (String) key.get(0);
+        String operation = (String) key.get(1);
+        Map<String, Long> operations = timesToLive.get(destination);
+        Long timeToLive = (operations!=null) ? operations.get(operation) : null;
+        if (timeToLive==null && operations!=null) timeToLive = operations.get(ANY_OPERATION);
+        if (timeToLive==null) return;
+        synchronized (entries) {
+            if (requestEpoch != epoch.get()) return;
+            entries.put(key, new Entry(answer, destination, operation, System.currentTimeMillis() + timeToLive));
+        }
+    }
+
+    /**
+     * evict the cached answers of destination
+     * @param destination the RPC destination
+     * @param operation the request OPERATION field value (null for any operation of destination)
+     */
+    public void invalidate(String destination, String operation) {
+        int evicted = 0;
+        synchronized (entries) {
+            epoch.incrementAndGet();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.destination.equals(destination) && (operation==null || entry.operation.equals(operation))) {
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+        }
+        evictionsCount.addAndGet(evicted);
+        log.debug("RPC response cache invalidation on " + destination + ((operation!=null) ? " (" + operation + ")" : "") +
+                " : " + evicted + " answers evicted");
+    }
+
+    /**
+     * evict all cached answers
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            epoch.incrementAndGet();
+            evictionsCount.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Subscribe the invalidation messages of destination published by the answers owner on topic : any message
+     * received evicts the destination cached answers (only the cached answers of its OPERATION field value if defined).
+     * @param serviceFactory the MomClient service factory
+     * @param topic the invalidation messages topic
+     * @param selector the invalidation messages selector (can be null)
+     * @param destination the RPC destination
+     * @return the invalidation subscriber service
+     */
+    @SuppressWarnings("unchecked")
+    public MomService subscribeInvalidations(MomServiceFactory serviceFactory, String topic, String selector, final String destination) {
+        return serviceFactory.subscriberService(topic, selector, new AppMsgWorker() {
+            @Override
+            public Map<String, Object> apply(Map<String, Object> message) {
+                invalidate(destination, (message.get(OPERATION)!=null) ? getOperation(message) : null);
+                return message;
+            }
+        });
+    }
+
+    /**
+     * @return the cached answers count (expired ones included until they are accessed)
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the cache hits count
+     */
+    public long getHitsCount() {
+        return hitsCount.get();
+    }
+
+    /**
+     * @return the cache misses count
+     */
+    public long getMissesCount() {
+        return missesCount.get();
+    }
+
+    /**
+     * @return the evicted answers count (expired, least recently used or invalidated)
+     */
+    public long getEvictionsCount() {
+        return evictionsCount.get();
+    }
+
+    private static String getOperation(Map<String, Object> message) {
+        Object operation = message.get(OPERATION);
+        if (operation==null) return ANY_OPERATION;
+        return (operation instanceof byte[]) ? new String((byte[]) operation) : operation.toString();
+    }
+}
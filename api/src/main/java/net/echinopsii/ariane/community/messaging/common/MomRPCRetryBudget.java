@@ -0,0 +1,79 @@
+/**
+ * Messaging - Common Implementation
+ * RPC retry budget
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomRPCRetryBudget class limits the RPC retries a MomClient can send to a ratio of its RPC requests.
+ * <p/>
+ * It is a token bucket : each new RPC request deposits ratio token and each retry withdraws one token.
+ * The bucket is full at creation and its capacity is the reserve so that a short burst of failures can always
+ * be retried while a broken destination can't multiply the client traffic by the retry count.
+ */
+public class MomRPCRetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio the retries / requests ratio allowed (0.2 means one retry for five requests)
+     * @param reserve the retries count allowed whatever the ratio (bucket capacity)
+     */
+    public MomRPCRetryBudget(double ratio, int reserve) {
+        this.deposit = (long) (ratio * TOKEN);
+        this.capacity = reserve * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * deposit ratio token for a new RPC request
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) return;
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * withdraw one token for a retry
+     * @return true if the retry is allowed else false
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) return false;
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * @return the retries count currently allowed
+     */
+    public long getAvailableRetries() {
+        return balance.get() / TOKEN;
+    }
+}
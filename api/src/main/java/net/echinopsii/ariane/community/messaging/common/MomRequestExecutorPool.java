@@ -0,0 +1,118 @@
+/**
+ * Messaging - Common Implementation
+ * Request executor pool
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MomRequestExecutorPool class provides request executors to multi-threaded callers with lease / return semantics.
+ * <p/>
+ * A leased request executor (and its MoM provider specific resources like a RabbitMQ channel) is owned by the caller
+ * until it is returned :
+ * <br/> - lease pops the last returned idle request executor (warm resources) or creates a new one from the client
+ * <br/> - return pushes the request executor back to the idle stack or stops it if maxIdle request executors are already idle
+ * <br/> - the request executor hedging policy and circuit breaker listener are reset on return.
+ * <p/>
+ * The pool is lock free so that leases scale with the caller threads count. The request executors count is bounded
+ * by the callers concurrency peak instead of growing with the threads count.
+ */
+public class MomRequestExecutorPool {
+    private static final Logger log = MomLoggerFactory.getLogger(MomRequestExecutorPool.class);
+
+    private final MomAkkaAbsClient client;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<MomRequestExecutor> idleExecutors = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger(0);
+    private final Set<MomRequestExecutor> leasedExecutors = Collections.newSetFromMap(new ConcurrentHashMap<MomRequestExecutor, Boolean>());
+
+    /**
+     * @param client the client creating the pooled request executors
+     * @param maxIdle the maximum idle request executors count kept by the pool
+     */
+    public MomRequestExecutorPool(MomAkkaAbsClient client, int maxIdle) {
+        this.client = client;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return an idle request executor or a new one (null if request executor creation failed)
+     */
+    public MomRequestExecutor lease() {
+        MomRequestExecutor requestExecutor = idleExecutors.pollLast();
+        if (requestExecutor!=null) idleCount.decrementAndGet();
+        else requestExecutor = client.createRequestExecutor();
+        if (requestExecutor!=null) leasedExecutors.add(requestExecutor);
+        return requestExecutor;
+    }
+
+    /**
+     * @param requestExecutor the request executor leased from this pool
+     */
+    public void release(MomRequestExecutor requestExecutor) {
+        if (requestExecutor==null || !leasedExecutors.remove(requestExecutor)) {
+            log.warn("Request executor returned to pool has not been leased from it !");
+            return;
+        }
+        requestExecutor.setHedgingPolicy(null);
+        requestExecutor.setCoalescingPolicy(null);
+        requestExecutor.setCircuitBreakerListener(null);
+        if (idleCount.incrementAndGet() <= maxIdle) idleExecutors.offerLast(requestExecutor);
+        else {
+            idleCount.decrementAndGet();
+            client.getRequestExecutors().remove(requestExecutor);
+            try {
+                ((MomAkkaAbsRequestExecutor) requestExecutor).stop();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return the idle request executors count
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * @return the leased request executors count
+     */
+    public int getLeasedCount() {
+        return leasedExecutors.size();
+    }
+
+    /**
+     * forget idle and leased request executors (to be called when closing client : the client stops its request executors)
+     */
+    public void clear() {
+        idleExecutors.clear();
+        idleCount.set(0);
+        leasedExecutors.clear();
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Messaging - Common Implementation
+ * Request service backpressure
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomBackpressureListener;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomServiceBackpressure class bounds the requests a service consumer hands to its routees.
+ * <p/>
+ * The consumer acquires one slot for each request sent to the router and the routee releases it once the request
+ * is treated (see {@link MomMsgEnvelope#release()}) or dropped by a stopped routee (see {@link MomMsgEnvelope#drop()}).
+ * The in-flight requests are then the requests waiting in the
+ * routees mailboxes or in treatment :
+ * <br/> - when they reach the pause watermark the consumer pauses (it stops pulling requests from the MoM provider)
+ * <br/> - when they fall back to the resume watermark the consumer resumes
+ * <p/>
+ * Pause and resume are logged, counted and notified to the {@link MomBackpressureListener} if any.
+ */
+public class MomServiceBackpressure {
+    private static final Logger log = MomLoggerFactory.getLogger(MomServiceBackpressure.class);
+
+    private final String service;
+    private final int pauseWatermark;
+    private final int resumeWatermark;
+    private final MomBackpressureListener listener;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicLong pausesCount = new AtomicLong(0);
+    private final Object lock = new Object();
+    private volatile boolean paused = false;
+
+    /**
+     * @param service the service source
+     * @param pauseWatermark the in-flight requests count pausing the consumer (min 1)
+     * @param resumeWatermark the in-flight requests count resuming the consumer (lower than pauseWatermark)
+     * @param listener the pause / resume listener (can be null)
+     */
+    public MomServiceBackpressure(String service, int pauseWatermark, int resumeWatermark, MomBackpressureListener listener) {
+        this.service = service;
+        this.pauseWatermark = Math.max(1, pauseWatermark);
+        this.resumeWatermark = Math.max(0, Math.min(resumeWatermark, this.pauseWatermark - 1));
+        this.listener = listener;
+    }
+
+    /**
+     * acquire one in-flight slot for a request sent to the routees. Pause the consumer if pause watermark is reached.
+     */
+    public void acquire() {
+        if (inFlight.incrementAndGet() >= pauseWatermark && !paused) {
+            synchronized (lock) {
+                if (!paused && inFlight.get() >= pauseWatermark) {
+                    paused = true;
+                    pausesCount.incrementAndGet();
+                    log.warn("[service: " + service + "] consumer paused (" + inFlight.get() + " requests in flight)");
+                    notifyListener(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * release one in-flight slot once a request is treated. Resume the consumer if resume watermark is reached.
+     */
+    public void release() {
+        if (inFlight.decrementAndGet() <= resumeWatermark && paused) {
+            synchronized (lock) {
+                if (paused && inFlight.get() <= resumeWatermark) {
+                    paused = false;
+                    lock.notifyAll();
+                    log.info("[service: " + service + "] consumer resumed (" + inFlight.get() + " requests in flight)");
+                    notifyListener(false);
+                }
+            }
+        }
+    }
+
+    private void notifyListener(boolean pause) {
+        if (listener!=null) {
+            try {
+                if (pause) listener.onPause(service, inFlight.get());
+                else listener.onResume(service, inFlight.get());
+            } catch (Exception e) {
+                log.error("[service: " + service + "] backpressure listener error : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * wait until the consumer is resumed
+     * @param timeout the maximum time to wait (ms)
+     * @return true if the consumer is not paused anymore else false
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitResume(long timeout) throws InterruptedException {
+        if (!paused) return true;
+        synchronized (lock) {
+            if (paused) lock.wait(timeout);
+            return !paused;
+        }
+    }
+
+    /**
+     * @return true if the consumer is paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return the requests received and not treated yet
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the number of times the consumer has been paused
+     */
+    public long getPausesCount() {
+        return pausesCount.get();
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * Messaging - Common Implementation
+ * Services reply cache
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import org.slf4j.Logger;
+import scala.concurrent.duration.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MomServiceReplyCache class is the reply cache of the MomClient request services, shared by all the routees of
+ * all the services : a request retry routed to another routee than the first attempt gets the reply computed by the
+ * first attempt instead of running the worker again.
+ * <p/>
+ * Replies are keyed by their service and the request correlation ID and are kept retention ms. Expiry is driven by a
+ * hashed wheel ticked by the actor system scheduler (no dedicated thread) : each reply is queued in the wheel bucket of
+ * its expiration tick and a tick only visits its own bucket.
+ * <p/>
+ * Memory is bounded by the cached replies count (maxEntries) and their estimated size (maxBytes) : when a bound is
+ * reached the replies closest to expiration are evicted first. Hits, misses, evictions and expirations are counted.
+ * <p/>
+ * A cached reply is a copy of the put reply and each get returns a new copy : the replies can be updated by the request
+ * actors (correlation ID, application ID...) without altering the cache.
+ * <p/>
+ * Default values : maxEntries = 10000, maxBytes = 32 MB, retention = 20000 (ms)
+ */
+public class MomServiceReplyCache {
+    private static final Logger log = MomLoggerFactory.getLogger(MomServiceReplyCache.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    private static class Entry {
+        String key;
+        Map<String, Object> reply;
+        long bytes;
+        long expirationTick;
+
+        Entry(String key, Map<String, Object> reply, long bytes, long expirationTick) {
+            this.key = key;
+            this.reply = reply;
+            this.bytes = bytes;
+            this.expirationTick = expirationTick;
+        }
+    }
+
+    private volatile int maxEntries;
+    private volatile long maxBytes;
+    private volatile long retention;
+
+    private ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private ConcurrentLinkedQueue<Entry>[] wheel;
+    private AtomicLong tick = new AtomicLong(0);
+    private long tickDuration = 1000;
+    private Cancellable ticker = null;
+
+    private AtomicLong bytesCount = new AtomicLong(0);
+    private AtomicLong hitsCount = new AtomicLong(0);
+    private AtomicLong missesCount = new AtomicLong(0);
+    private AtomicLong evictionsCount = new AtomicLong(0);
+    private AtomicLong expirationsCount = new AtomicLong(0);
+
+    /**
+     * @param maxEntries the maximum cached replies count
+     * @param maxBytes the maximum cached replies estimated size (bytes)
+     * @param retention the cached replies retention (ms - 0 disables the cache)
+     */
+    @SuppressWarnings("unchecked")
+    public MomServiceReplyCache(int maxEntries, long maxBytes, long retention) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.retention = retention;
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) wheel[i] = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * start the wheel ticks on the actor system scheduler if not started already.
+     * Replies cached before the start expire on the first ticks.
+     * @param system the actor system providing the scheduler
+     */
+    public synchronized void start(ActorSystem system) {
+        if (ticker!=null || system==null) return;
+        tickDuration = Math.max(10, Math.min(1000, retention / 16));
+        ticker = system.scheduler().schedule(
+                Duration.create(tickDuration, TimeUnit.MILLISECONDS),
+                Duration.create(tickDuration, TimeUnit.MILLISECONDS),
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        expire(tick.incrementAndGet());
+                    }
+                },
+                system.dispatcher()
+        );
+    }
+
+    /**
+     * stop the wheel ticks and evict all cached replies
+     */
+    public synchronized void stop() {
+        if (ticker!=null) ticker.cancel();
+        ticker = null;
+        invalidateAll();
+    }
+
+    /**
+     * @param service the service name
+     * @param corrID the request correlation ID
+     * @return a copy of the cached reply or null if not cached
+     */
+    public Map<String, Object> get(String service, String corrID) {
+        Entry entry = (corrID!=null) ? entries.get(service + ":" + corrID) : null;
+        if (entry!=null) {
+            hitsCount.incrementAndGet();
+            return new HashMap<>(entry.reply);
+        }
+        missesCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * cache a reply and evict the replies closest to expiration if a bound is reached
+     * @param service the service name
+     * @param corrID the request correlation ID
+     * @param reply the reply
+     */
+    public void put(String service, String corrID, Map<String, Object> reply) {
+        long currentRetention = retention;
+        if (corrID==null || reply==null || currentRetention <= 0) return;
+        long bytes = estimateBytes(reply);
+        if (bytes > maxBytes) {
+            log.debug("Reply " + corrID + " of " + service + " is too big to be cached (" + bytes + " bytes)");
+            return;
+        }
+        long ticks = (currentRetention + tickDuration - 1) / tickDuration;
+        Entry entry = new Entry(service + ":" + corrID, new HashMap<>(reply), bytes, tick.get() + ticks + 1);
+        Entry previous = entries.put(entry.key, entry);
+        if (previous!=null) bytesCount.addAndGet(-previous.bytes);
+        bytesCount.addAndGet(bytes);
+        wheel[(int) (entry.expirationTick % WHEEL_SIZE)].offer(entry);
+        while (entries.size() > maxEntries || bytesCount.get() > maxBytes)
+            if (!evictNext()) break;
+    }
+
+    /**
+     * evict all cached replies
+     */
+    public void invalidateAll() {
+        for (ConcurrentLinkedQueue<Entry> bucket : wheel) {
+            Entry entry;
+            while ((entry = bucket.poll())!=null)
+                if (entries.remove(entry.key, entry)) bytesCount.addAndGet(-entry.bytes);
+        }
+    }
+
+    private boolean evictNext() {
+        long current = tick.get();
+        for (int i = 1; i <= WHEEL_SIZE; i++) {
+            ConcurrentLinkedQueue<Entry> bucket = wheel[(int) ((current + i) % WHEEL_SIZE)];
+            Entry entry;
+            while ((entry = bucket.poll())!=null) {
+                if (entries.remove(entry.key, entry)) {
+                    bytesCount.addAndGet(-entry.bytes);
+                    evictionsCount.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void expire(long currentTick) {
+        ConcurrentLinkedQueue<Entry> bucket = wheel[(int) (currentTick % WHEEL_SIZE)];
+        int count = bucket.size();
+        for (int i = 0; i < count; i++) {
+            Entry entry = bucket.poll();
+            if (entry==null) break;
+            if (entry.expirationTick > currentTick) bucket.offer(entry);
+            else if (entries.remove(entry.key, entry)) {
+                bytesCount.addAndGet(-entry.bytes);
+                expirationsCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param reply a reply
+     * @return the reply estimated size (bytes)
+     */
+    public static long estimateBytes(Map<String, Object> reply) {
+        long bytes = 64;
+        for (Map.Entry<String, Object> field : reply.entrySet()) {
+            bytes += 32 + 2 * field.getKey().length();
+            Object value = field.getValue();
+            if (value instanceof byte[]) bytes += ((byte[]) value).length;
+            else if (value instanceof String) bytes += 2 * ((String) value).length();
+            else bytes += 16;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the maximum cached replies count
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @param maxEntries the maximum cached replies count
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the maximum cached replies estimated size (bytes)
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @param maxBytes the maximum cached replies estimated size (bytes)
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached replies retention (ms)
+     */
+    public long getRetention() {
+        return retention;
+    }
+
+    /**
+     * @param retention the cached replies retention (ms - 0 disables the cache). Set it before the cache is started to
+     *                  adapt the wheel tick duration.
+     */
+    public void setRetention(long retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * @return the cached replies count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the cached replies estimated size (bytes)
+     */
+    public long getBytes() {
+        return bytesCount.get();
+    }
+
+    /**
+     * @return the cache hits count
+     */
+    public long getHitsCount() {
+        return hitsCount.get();
+    }
+
+    /**
+     * @return the cache misses count
+     */
+    public long getMissesCount() {
+        return missesCount.get();
+    }
+
+    /**
+     * @return the replies evicted because a bound was reached
+     */
+    public long getEvictionsCount() {
+        return evictionsCount.get();
+    }
+
+    /**
+     * @return the replies expired after retention
+     */
+    public long getExpirationsCount() {
+        return expirationsCount.get();
+    }
+}
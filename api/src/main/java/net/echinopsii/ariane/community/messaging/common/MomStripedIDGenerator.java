@@ -0,0 +1,71 @@
+/**
+ * Messaging - Common Implementation
+ * Striped ID generator
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.common;
+
+import net.echinopsii.ariane.community.messaging.api.MomIDGenerator;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * MomStripedIDGenerator class is the default lock free MomIDGenerator implementation.
+ * <p/>
+ * An ID is made of :
+ * <br/> - a 64 bits random prefix drawn once per generator (SecureRandom is not called on the hot path)
+ * <br/> - the counter stripe index of the calling thread
+ * <br/> - the stripe counter value
+ * <br/> all encoded in base 36 and separated by '-'.
+ * <p/>
+ * The calling threads are spread on the counter stripes by thread ID so that they don't contend on the same atomic
+ * counter. Stripes are padded on distinct cache lines to avoid false sharing.
+ */
+public class MomStripedIDGenerator implements MomIDGenerator {
+
+    private static final int PADDING = 8;
+
+    private final String prefix;
+    private final int stripesMask;
+    private final AtomicLongArray counters;
+
+    public MomStripedIDGenerator() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param concurrency the expected calling threads concurrency (the stripes count is the next power of two)
+     */
+    public MomStripedIDGenerator(int concurrency) {
+        int stripes = 1;
+        while (stripes < concurrency) stripes <<= 1;
+        this.stripesMask = stripes - 1;
+        this.counters = new AtomicLongArray(stripes * PADDING);
+        this.prefix = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36) + "-";
+    }
+
+    /**
+     * @return a new unique ID
+     */
+    @Override
+    public String nextID() {
+        int stripe = (int) (Thread.currentThread().getId() & stripesMask);
+        long count = counters.incrementAndGet(stripe * PADDING);
+        return prefix + Integer.toString(stripe, 36) + "-" + Long.toString(count, 36);
+    }
+}
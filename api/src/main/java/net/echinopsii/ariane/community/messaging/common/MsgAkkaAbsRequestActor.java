@@ -19,19 +19,47 @@
 
 package net.echinopsii.ariane.community.messaging.common;
 
+import akka.actor.ActorRef;
 import akka.actor.UntypedActor;
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
+import net.echinopsii.ariane.community.messaging.api.AppMsgAsyncWorker;
+import net.echinopsii.ariane.community.messaging.api.AppMsgBatchWorker;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import org.slf4j.Logger;
+import scala.concurrent.Future;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
 
 /**
  * MsgAkkaAbsRequestActor provides MoM provider agnostic method implementations for akka request actor implementation.
- * It also provide a simple reply cache (20 sec retention - optional) to speed up retry treatment in case reply has
- * been lost in the reply process.
+ * It also provide an optional access to the client reply cache (see {@link MomServiceReplyCache}) shared by all the
+ * routees of the service to speed up retry treatment in case reply has been lost in the reply process.
+ * <p/>
+ * If the client has a routees resizer (see {@link MomAkkaRouterResizer}) the request actor reports each treatment
+ * time to its router.
+ * <p/>
+ * If the message worker is an {@link AppMsgBatchWorker} the requests which are not answered from the reply cache are
+ * accumulated (see {@link MomAkkaMsgBatch}) and treated by batch : implementations hand them to {@link #batch(Object, Map, long)},
+ * forward the batch flush ticks to {@link #onBatchFlush(Object)} and provide the {@link #reply(Object, Map, Map)} and
+ * {@link #completed(Object)} methods used to answer and release each request of a treated batch.
+ * <p/>
+ * If the message worker is an {@link AppMsgAsyncWorker} the requests which are not answered from the reply cache are
+ * handed to {@link #applyAsync(Object, Map, long)} : the request future completion is sent back to the actor which
+ * replies, caches and completes the request on its own thread (implementations forward these completions to
+ * {@link #onAsyncCompletion(Object)}). Once {@link MomAkkaAbsClient#getServiceAsyncMaxPerRoutee()} requests are
+ * outstanding the next ones wait in the actor.
+ * The actor never blocks on stop (or restart) : the outstanding requests already completed are replied with their
+ * result and the other outstanding or waiting requests are replied with a server error.
  */
 public abstract class MsgAkkaAbsRequestActor extends UntypedActor {
 
@@ -41,30 +69,38 @@ public abstract class MsgAkkaAbsRequestActor extends UntypedActor {
     private AppMsgWorker msgWorker   = null;
     private MomAkkaAbsClient client      = null;
 
-    private boolean isRunning;
+    private boolean reportTreatment;
 
-    private long replyCacheRetentionTime = 20*1000; // default 20 sec.
-    private Map<String, CachedReply> lastReplyCache;
+    private MomServiceReplyCache replyCache = null;
+    private String replyCacheService = null;
 
-    public class CachedReply {
-        long replyTime;
+    private MomAkkaMsgBatch batch = null;
+
+    private static class AsyncCompletion {
+        MomAkkaMsgBatch.Pending pending;
         Map<String, Object> reply;
+        Throwable failure;
 
-        public CachedReply(long time, Map<String, Object> reply_) {
-            replyTime = time;
-            reply = reply_;
+        AsyncCompletion(MomAkkaMsgBatch.Pending pending, Map<String, Object> reply, Throwable failure) {
+            this.pending = pending;
+            this.reply = reply;
+            this.failure = failure;
         }
     }
 
+    private int asyncMaxPerRoutee = 0;
+    private Map<MomAkkaMsgBatch.Pending, Future<Map<String, Object>>> asyncOutstanding = null;
+    private Queue<MomAkkaMsgBatch.Pending> asyncWaiting = null;
+    private volatile boolean stopped = false;
+
+    private static final String STOPPED_ERROR = "Service stopped before asynchronous treatment completion";
+
     /**
      * @param corrID reply correlation ID identifying request/reply origin
      * @param reply the reply to cache
      */
     public void putReplyToCache(String corrID, Map<String, Object> reply) {
-        if (this.lastReplyCache!=null) {
-            CachedReply cachedReply = new CachedReply(System.nanoTime(), reply);
-            lastReplyCache.put(corrID, cachedReply);
-        }
+        if (this.replyCache!=null) replyCache.put(getReplyCacheService(), corrID, reply);
     }
 
     /**
@@ -72,12 +108,20 @@ public abstract class MsgAkkaAbsRequestActor extends UntypedActor {
      * @return the reply in cache if exists else null
      */
     public Map<String, Object> getReplyFromCache(String corrID) {
-        if (lastReplyCache!=null && lastReplyCache.get(corrID)!=null) return lastReplyCache.get(corrID).reply;
-        else {
-            if (lastReplyCache!=null) log.debug("No cached reply " + corrID + " on cache !");
-            else log.debug("No cache !");
-            return null;
-        }
+        Map<String, Object> reply = null;
+        if (replyCache!=null) {
+            reply = replyCache.get(getReplyCacheService(), corrID);
+            if (reply==null) log.debug("No cached reply " + corrID + " on cache !");
+        } else log.debug("No cache !");
+        return reply;
+    }
+
+    /**
+     * @return the service name keying the replies of this request actor : its router name (shared by the routees)
+     */
+    private String getReplyCacheService() {
+        if (replyCacheService==null) replyCacheService = getContext().parent().path().name();
+        return replyCacheService;
     }
 
     /**
@@ -85,44 +129,214 @@ public abstract class MsgAkkaAbsRequestActor extends UntypedActor {
      * @param mclient the MomAkkaAbsClient to use with this request actor
      * @param worker the message worker to be used with this request actor
      * @param translator_ the message translator to be used with this request actor
-     * @param cache if true setup reply cache with this request actor
+     * @param cache if true use the client reply cache with this request actor
      */
     public MsgAkkaAbsRequestActor(MomAkkaAbsClient mclient, AppMsgWorker worker, MomMsgTranslator translator_, boolean cache) {
         client = mclient;
         msgWorker = worker;
         translator = translator_;
-        isRunning = true;
-        if (cache) {
-            lastReplyCache = new ConcurrentHashMap<>();
-            Thread cacheCleaner = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    while (isRunning) {
-                        try {
-                            Thread.sleep(replyCacheRetentionTime);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-                        long cleanTime = System.nanoTime();
-                        for (String corrID : lastReplyCache.keySet()) {
-                            CachedReply cachedReply = lastReplyCache.get(corrID);
-                            if ((cleanTime - cachedReply.replyTime) > replyCacheRetentionTime * 1000000)
-                                lastReplyCache.remove(corrID);
-                        }
-                    }
-                }
-            });
-            cacheCleaner.start();
+        reportTreatment = (mclient!=null && mclient.getRouterResizer()!=null);
+        if (cache && mclient!=null) replyCache = mclient.getServiceReplyCache();
+        if (mclient!=null && MomAkkaMsgBatch.isBatching(worker, mclient.getServiceBatchSize()))
+            batch = new MomAkkaMsgBatch(mclient.getServiceBatchSize(), mclient.getServiceBatchDelay());
+        if (mclient!=null && worker instanceof AppMsgAsyncWorker) {
+            asyncMaxPerRoutee = Math.max(1, mclient.getServiceAsyncMaxPerRoutee());
+            asyncOutstanding = new LinkedHashMap<>();
+            asyncWaiting = new ArrayDeque<>();
         }
     }
 
     /**
-     * if needed clean the reply cache and stop its cleaning thread.
+     * treat the requests of the current batch if any and complete the outstanding and waiting asynchronous requests
+     * if any without waiting for them : the requests not completed yet are replied with a server error
      */
     @Override
     public void postStop() {
-        if (lastReplyCache!=null) lastReplyCache.clear();
-        isRunning = false;
+        stopped = true;
+        if (batch!=null) {
+            List<MomAkkaMsgBatch.Pending> pendings = batch.drain();
+            if (!pendings.isEmpty()) treatBatch(pendings);
+        }
+        if (asyncOutstanding!=null) {
+            if (!asyncOutstanding.isEmpty() || !asyncWaiting.isEmpty())
+                log.debug("Complete " + asyncOutstanding.size() + " outstanding and " + asyncWaiting.size() +
+                        " waiting asynchronous requests on stop");
+            for (Map.Entry<MomAkkaMsgBatch.Pending, Future<Map<String, Object>>> outstanding : new ArrayList<>(asyncOutstanding.entrySet())) {
+                Future<Map<String, Object>> future = outstanding.getValue();
+                asyncOutstanding.remove(outstanding.getKey());
+                if (!future.isCompleted()) complete(outstanding.getKey(), null, STOPPED_ERROR);
+                else if (future.value().get().isSuccess()) complete(outstanding.getKey(), future.value().get().get(), null);
+                else complete(outstanding.getKey(), null, "Asynchronous treatment error : " + future.value().get().failed().get().getMessage());
+            }
+            while (!asyncWaiting.isEmpty()) complete(asyncWaiting.poll(), null, STOPPED_ERROR);
+        }
+    }
+
+    /**
+     * send the reply of a request if the requester waits for it
+     * @param message the akka message received by actor
+     * @param request the decoded request
+     * @param reply the request reply (can be null)
+     * @throws IOException if problem encountered while publishing reply
+     */
+    protected abstract void reply(Object message, Map<String, Object> request, Map<String, Object> reply) throws IOException;
+
+    /**
+     * called once a request has been treated and replied (acknowledgement...)
+     * @param message the akka message received by actor
+     */
+    protected void completed(Object message) {
+    }
+
+    /**
+     * @return true if requests are treated by batch
+     */
+    protected boolean isBatching() {
+        return batch!=null;
+    }
+
+    /**
+     * add a request to the current batch and treat the batch if full.
+     * The request will be replied, completed and treated by the batch treatment.
+     * @param message the akka message received by actor
+     * @param request the decoded request
+     * @param beginTreatment the treatment start time (System.nanoTime())
+     */
+    protected void batch(Object message, Map<String, Object> request, long beginTreatment) {
+        List<MomAkkaMsgBatch.Pending> pendings = batch.add(getContext(), message, request, beginTreatment);
+        if (pendings!=null) treatBatch(pendings);
+    }
+
+    /**
+     * treat the current batch if message is its flush tick
+     * @param message the akka message received by actor
+     * @return true if message was a batch flush tick
+     */
+    protected boolean onBatchFlush(Object message) {
+        if (batch==null) return false;
+        List<MomAkkaMsgBatch.Pending> pendings = batch.onFlush(message);
+        if (pendings==null) return false;
+        if (!pendings.isEmpty()) treatBatch(pendings);
+        return true;
+    }
+
+    private void treatBatch(List<MomAkkaMsgBatch.Pending> pendings) {
+        Map<String, Map<String, Object>> replies = null;
+        String error = null;
+        try {
+            replies = ((AppMsgBatchWorker) msgWorker).applyBatch(MomAkkaMsgBatch.requests(pendings));
+        } catch (RuntimeException e) {
+            error = "Batch treatment error : " + e.getMessage();
+            log.error(error + " (" + pendings.size() + " requests)");
+        }
+        for (MomAkkaMsgBatch.Pending pending : pendings) {
+            String corrID = (String) pending.getRequest().get(MomMsgTranslator.MSG_CORRELATION_ID);
+            complete(pending, (replies!=null && corrID!=null) ? replies.get(corrID) : null, error);
+        }
+    }
+
+    /**
+     * @return true if requests are treated asynchronously
+     */
+    protected boolean isAsync() {
+        return asyncOutstanding!=null;
+    }
+
+    /**
+     * request the asynchronous treatment of a request (or let it wait if asyncMaxPerRoutee requests are outstanding).
+     * The request will be replied, completed and treated on its future completion.
+     * @param message the akka message received by actor
+     * @param request the decoded request
+     * @param beginTreatment the treatment start time (System.nanoTime())
+     */
+    protected void applyAsync(Object message, Map<String, Object> request, long beginTreatment) {
+        MomAkkaMsgBatch.Pending pending = new MomAkkaMsgBatch.Pending(message, request, beginTreatment);
+        if (asyncOutstanding.size() < asyncMaxPerRoutee) startAsync(pending);
+        else asyncWaiting.add(pending);
+    }
+
+    /**
+     * complete an asynchronous request if message is its future completion and start the next waiting request
+     * @param message the akka message received by actor
+     * @return true if message was an asynchronous request completion
+     */
+    protected boolean onAsyncCompletion(Object message) {
+        if (!(message instanceof AsyncCompletion)) return false;
+        AsyncCompletion completion = (AsyncCompletion) message;
+        if (asyncOutstanding.remove(completion.pending)!=null) {
+            String error = null;
+            if (completion.failure!=null) {
+                error = "Asynchronous treatment error : " + completion.failure.getMessage();
+                log.error(error);
+            }
+            complete(completion.pending, completion.reply, error);
+        }
+        while (asyncOutstanding.size() < asyncMaxPerRoutee && !asyncWaiting.isEmpty())
+            startAsync(asyncWaiting.poll());
+        return true;
+    }
+
+    private void startAsync(final MomAkkaMsgBatch.Pending pending) {
+        Future<Map<String, Object>> future;
+        try {
+            future = ((AppMsgAsyncWorker) msgWorker).applyAsync(pending.getRequest());
+            if (future==null) future = Futures.successful(null);
+        } catch (RuntimeException e) {
+            future = Futures.failed(e);
+        }
+        asyncOutstanding.put(pending, future);
+        final ActorRef self = getSelf();
+        future.onComplete(new OnComplete<Map<String, Object>>() {
+            @Override
+            public void onComplete(Throwable failure, Map<String, Object> reply) {
+                // the requests outstanding on stop are already completed : don't send their late completion to dead letters
+                if (!stopped) self.tell(new AsyncCompletion(pending, reply, failure), ActorRef.noSender());
+            }
+        }, getContext().dispatcher());
+    }
+
+    /**
+     * reply (server error reply if error is not null), cache the reply then complete and release a deferred request
+     * @param pending the deferred request
+     * @param reply the request reply (can be null)
+     * @param error the treatment error (null if none)
+     */
+    private void complete(MomAkkaMsgBatch.Pending pending, Map<String, Object> reply, String error) {
+        String corrID = (String) pending.getRequest().get(MomMsgTranslator.MSG_CORRELATION_ID);
+        if (error!=null) reply = serverErrorReply(error);
+        else if (corrID!=null) putReplyToCache(corrID, reply);
+        try {
+            reply(pending.getMessage(), pending.getRequest(), reply);
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to reply to request " + corrID + " : " + e.getMessage());
+        } finally {
+            completed(pending.getMessage());
+            treated(pending.getMessage(), pending.getBeginTreatment());
+        }
+    }
+
+    /**
+     * @param error the treatment error
+     * @return the server error reply of a failed request (never cached)
+     */
+    protected static Map<String, Object> serverErrorReply(String error) {
+        Map<String, Object> reply = new HashMap<>();
+        reply.put(MomMsgTranslator.MSG_RC, MomMsgTranslator.MSG_RET_SERVER_ERR);
+        reply.put(MomMsgTranslator.MSG_ERR, error);
+        return reply;
+    }
+
+    /**
+     * release the message envelope in-flight slot (consumer backpressure) and report the treatment time of the
+     * routed message to the parent router when the client routees are resized.
+     * Must be called once per received message (in a finally block) by implementations.
+     * @param message the akka message received by actor
+     * @param beginTreatment the treatment start time (System.nanoTime())
+     */
+    protected void treated(Object message, long beginTreatment) {
+        if (message instanceof MomMsgEnvelope) ((MomMsgEnvelope) message).release();
+        if (reportTreatment)
+            getContext().parent().tell(new MomAkkaRequestRouter.Treated(System.nanoTime() - beginTreatment), getSelf());
     }
 
     /**
@@ -20,16 +20,27 @@
 package net.echinopsii.ariane.community.messaging.common;
 
 import akka.actor.UntypedActor;
+import net.echinopsii.ariane.community.messaging.api.AppMsgBatchWorker;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * MsgAkkaAbsSubActor provides MoM provider agnostic method implementations for akka subscription actor implementation.
+ * <p/>
+ * If the message worker is an {@link AppMsgBatchWorker} the subscription messages are accumulated (see {@link MomAkkaMsgBatch})
+ * and treated by batch : implementations hand them to {@link #batch(Object, Map)} and forward the batch flush ticks
+ * to {@link #onBatchFlush(Object)}.
  */
 public abstract class MsgAkkaAbsSubsActor extends UntypedActor {
+    private static final Logger log = MomLoggerFactory.getLogger(MsgAkkaAbsSubsActor.class);
 
     private MomMsgTranslator translator = null;
     private AppMsgWorker msgWorker   = null;
+    private MomAkkaMsgBatch batch = null;
 
     /**
      * Constructor
@@ -41,6 +52,67 @@ public abstract class MsgAkkaAbsSubsActor extends UntypedActor {
         translator = translator_;
     }
 
+    /**
+     * Constructor
+     * @param mclient the MomAkkaAbsClient defining the batches size and delay
+     * @param worker the message worker in charge of message treatment coming from the subscription
+     * @param translator_ the message translator to be used with this subscription actor
+     */
+    public MsgAkkaAbsSubsActor(MomAkkaAbsClient mclient, AppMsgWorker worker, MomMsgTranslator translator_) {
+        this(worker, translator_);
+        if (mclient!=null && MomAkkaMsgBatch.isBatching(worker, mclient.getServiceBatchSize()))
+            batch = new MomAkkaMsgBatch(mclient.getServiceBatchSize(), mclient.getServiceBatchDelay());
+    }
+
+    /**
+     * treat the messages of the current batch if any
+     */
+    @Override
+    public void postStop() {
+        if (batch!=null) {
+            List<MomAkkaMsgBatch.Pending> pendings = batch.drain();
+            if (!pendings.isEmpty()) treatBatch(pendings);
+        }
+    }
+
+    /**
+     * @return true if messages are treated by batch
+     */
+    protected boolean isBatching() {
+        return batch!=null;
+    }
+
+    /**
+     * add a message to the current batch and treat the batch if full
+     * @param message the akka message received by actor
+     * @param feed the decoded message
+     */
+    protected void batch(Object message, Map<String, Object> feed) {
+        List<MomAkkaMsgBatch.Pending> pendings = batch.add(getContext(), message, feed, System.nanoTime());
+        if (pendings!=null) treatBatch(pendings);
+    }
+
+    /**
+     * treat the current batch if message is its flush tick
+     * @param message the akka message received by actor
+     * @return true if message was a batch flush tick
+     */
+    protected boolean onBatchFlush(Object message) {
+        if (batch==null) return false;
+        List<MomAkkaMsgBatch.Pending> pendings = batch.onFlush(message);
+        if (pendings==null) return false;
+        if (!pendings.isEmpty()) treatBatch(pendings);
+        return true;
+    }
+
+    private void treatBatch(List<MomAkkaMsgBatch.Pending> pendings) {
+        try {
+            ((AppMsgBatchWorker) msgWorker).applyBatch(MomAkkaMsgBatch.requests(pendings));
+        } catch (RuntimeException e) {
+            log.error("Batch treatment error on " + pendings.size() + " messages : " + e.getMessage());
+        }
+    }
+
     /**
      * @return the message translator attached to this subscription actor
      */
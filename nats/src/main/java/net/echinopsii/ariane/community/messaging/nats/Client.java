@@ -26,8 +26,10 @@ import net.echinopsii.ariane.community.messaging.api.MomClient;
 import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
 import net.echinopsii.ariane.community.messaging.api.MomService;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsClient;
+import net.echinopsii.ariane.community.messaging.common.MomAkkaDispatcher;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
 import org.slf4j.Logger;
+import scala.concurrent.ExecutionContext;
 
 import java.io.IOException;
 import java.util.Dictionary;
@@ -40,8 +42,12 @@ public class Client extends MomAkkaAbsClient implements MomClient {
 
     private static final Logger log = MomLoggerFactory.getLogger(Client.class);
 
+    private static final int SPLIT_RPC_DISPATCHER_SIZE = 4;
+
     private Connection connection = null;
     private ConnectionFactory factory = null;
+    private ReplyInbox replyInbox = null;
+    private MomAkkaDispatcher splitRPCDispatcher = new MomAkkaDispatcher("nats-split-rpc", MomAkkaDispatcher.Type.THREAD_POOL, SPLIT_RPC_DISPATCHER_SIZE);
 
     /**
      * Initialize NATS connection with provided properties and this client ServiceFactory.
@@ -55,8 +61,33 @@ public class Client extends MomAkkaAbsClient implements MomClient {
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_PSWD}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_MSG_DEBUG_ON_TIMEOUT}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_NB_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZER}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MIN_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MAX_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZE_INTERVAL}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_LOGIC}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_HASH_FIELD}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHERS}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHER_PREFIX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_DISPATCHER_PREFIX}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_ADAPTIVE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MIN}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_FACTOR}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BUDGET}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_BUFFER_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_OVERFLOW}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#NATS_CONNECTION_NAME}
      * @param properties configuration properties
      * @throws IOException or TimeoutException if problems to join NATS server
@@ -70,10 +101,9 @@ public class Client extends MomAkkaAbsClient implements MomClient {
             super.setMsgDebugOnTimeout(true);
         if (properties.get(MOM_CLI_ROUTEES_NB_PER_SERVICE)!=null)
             super.setRouteesCountPerService(new Integer((String) properties.get(MOM_CLI_ROUTEES_NB_PER_SERVICE)));
-        if (properties.get(MOM_CLI_RPC_TIMEOUT)!=null)
-            super.setRPCTimout(new Long((String) properties.get(MOM_CLI_RPC_TIMEOUT)));
-        if (properties.get(MOM_CLI_RPC_RETRY)!=null)
-            super.setRPCRetry(new Integer((String) properties.get(MOM_CLI_RPC_RETRY)));
+        super.initRPCConfiguration(properties);
+        super.initFAFConfiguration(properties);
+        super.initServiceConfiguration(properties);
         try {
             if (Class.forName("akka.osgi.ActorSystemActivator")!=null && MessagingAkkaSystemActivator.getSystem()!=null)
                 super.setActorSystem(MessagingAkkaSystemActivator.getSystem());
@@ -94,6 +124,8 @@ public class Client extends MomAkkaAbsClient implements MomClient {
             factory.setConnectionName((String) properties.get(NATS_CONNECTION_NAME));
         connection = factory.createConnection();
         MsgTranslator.setMsgMaxSize(connection.getMaxPayload());
+        replyInbox = new ReplyInbox(this);
+        replyInbox.start();
 
         super.setServiceFactory(new ServiceFactory(this));
     }
@@ -105,8 +137,10 @@ public class Client extends MomAkkaAbsClient implements MomClient {
      */
     @Override
     public void close() throws Exception {
+        super.closeAsyncPublisher();
         for (MomRequestExecutor rexec : super.getRequestExecutors())
             ((RequestExecutor)rexec).stop();
+        super.getRequestExecutorPool().clear();
         super.preCloseMsgGroupSupervisors();
         super.preCloseMainSupervisor();
         if (super.getServiceFactory()!=null)
@@ -114,6 +148,9 @@ public class Client extends MomAkkaAbsClient implements MomClient {
                 service.stop();
         super.closeMsgGroupSupervisors();
         super.closeMainSupervisor();
+        super.closeServiceReplyCache();
+        if (replyInbox!=null)
+            replyInbox.stop();
         if (!connection.isClosed())
             connection.close();
     }
@@ -157,6 +194,23 @@ public class Client extends MomAkkaAbsClient implements MomClient {
         super.closeMsgGroupRequest(groupID);
     }
 
+    /**
+     * (internal usage)
+     * @return the client RPC reply inbox
+     */
+    public ReplyInbox getReplyInbox() {
+        return replyInbox;
+    }
+
+    /**
+     * (internal usage)
+     * @return the dedicated dispatcher running the blocking RPC of the splitted non blocking RPC requests (so that they
+     * never block the actor system default dispatcher nor the reply inbox delivery thread)
+     */
+    public ExecutionContext getSplitRPCDispatcher() {
+        return super.getActorSystem().dispatchers().lookup(splitRPCDispatcher.register(super.getActorSystem()));
+    }
+
     /**
      * (internal usage)
      * @return the NATS connection factory
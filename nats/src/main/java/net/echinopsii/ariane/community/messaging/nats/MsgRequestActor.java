@@ -26,6 +26,7 @@ import io.nats.client.Message;
 import net.echinopsii.ariane.community.messaging.api.*;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsAppHPMsgSrvWorker;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope;
 import net.echinopsii.ariane.community.messaging.common.MsgAkkaAbsRequestActor;
 import org.slf4j.Logger;
 
@@ -73,105 +74,155 @@ public class MsgRequestActor extends MsgAkkaAbsRequestActor {
         super(mclient, worker, new MsgTranslator(), cache);
     }
 
+    /**
+     * publish the reply on the request reply subject if any
+     * @param message the akka message received by actor
+     * @param request the decoded request
+     * @param reply the request reply (can be null)
+     * @throws IOException if problem encountered while publishing reply
+     */
+    @Override
+    protected void reply(Object message, Map<String, Object> request, Map<String, Object> reply) throws IOException {
+        Message natsMessage = (message instanceof MomMsgEnvelope) ? (Message) ((MomMsgEnvelope) message).getRaw() : (Message) message;
+        if (natsMessage.getReplyTo() != null && reply != null) {
+            if (request.get(MsgTranslator.MSG_CORRELATION_ID) != null) reply.put(
+                    MsgTranslator.MSG_CORRELATION_ID, request.get(MsgTranslator.MSG_CORRELATION_ID)
+            );
+            if (super.getClient().getClientID() != null)
+                reply.put(MsgTranslator.MSG_APPLICATION_ID, super.getClient().getClientID());
+            Message[] replyMessage = ((MsgTranslator) super.getTranslator()).encode(reply);
+            for (Message msg : replyMessage) {
+                msg.setSubject(natsMessage.getReplyTo());
+                ((Connection) super.getClient().getConnection()).publish(msg);
+            }
+        }
+    }
+
     /**
      * {@link akka.actor.UntypedActor#onReceive(Object)} implementation.
-     * if message instance of {@link io.nats.client.Message} :
-     * <br/> decode the message
+     * if message instance of {@link net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope} (decoded by consumer)
+     * or {@link io.nats.client.Message} :
+     * <br/> decode the message (raw message only)
      * <br/> if splitted message cache the current message. if all splitted message has been received rebuild the final message and clear the cache.
      * <br/> else the message is the final message
-     * <br/> if final message is not null then request treatment from attached worker and send reply if needed.
+     * <br/> if final message is not null then request treatment from attached worker (or add the request to the current
+     * batch or request its asynchronous treatment) and send reply if needed.
+     * if message is the current batch flush tick treat the batch.
+     * if message is an asynchronous treatment completion send its reply.
      * else unhandled
      * @param message the akka message received by actor
      * @throws IOException if problem encountered while publishing reply
      */
     @Override
     public void onReceive(Object message) throws IOException {
-        if (message instanceof Message) {
-            Map<String, Object> finalMessage = null;
-            Map<String, Object> tasteMessage = ((MsgTranslator)super.getTranslator()).decode(new Message[]{(Message) message});
-            if (((HashMap)tasteMessage).containsKey(MomMsgTranslator.MSG_TRACE)) {
-                if (super.getClient().isMsgDebugOnTimeout()) ((MomLogger)log).setMsgTraceLevel(true);
-                else tasteMessage.remove(MomMsgTranslator.MSG_TRACE);
-            }
+        if (super.onBatchFlush(message) || super.onAsyncCompletion(message)) return;
+        Message natsMessage = null;
+        Map<String, Object> tasteMessage = null;
+        if (message instanceof MomMsgEnvelope && ((MomMsgEnvelope) message).getRaw() instanceof Message) {
+            natsMessage = (Message) ((MomMsgEnvelope) message).getRaw();
+            tasteMessage = ((MomMsgEnvelope) message).getMessage();
+        } else if (message instanceof Message) {
+            natsMessage = (Message) message;
+            tasteMessage = ((MsgTranslator)super.getTranslator()).decode(new Message[]{natsMessage});
+        }
 
-            boolean errorOnSplit = false;
-            int splitCount = -1 ;
-            int splitOID = -1;
-            if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Integer)
-                splitCount = (int)tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT);
-            else if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Long)
-                splitCount = MsgTranslator.safeLongToInt((Long) tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT));
-            if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Integer)
-                splitOID = (int)tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID);
-            else if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Long)
-                splitOID = MsgTranslator.safeLongToInt((Long) tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID));
-
-            if (splitCount > 1) {
-                if (super.getMsgWorker() instanceof MomAkkaAbsAppHPMsgSrvWorker) {
-                    String msgSplitID = (String) ((HashMap) tasteMessage).get(MomMsgTranslator.MSG_SPLIT_MID);
-                    Message[] wipMsgChunks;
-                    if (!((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.containsKey(msgSplitID)) {
-                        wipMsgChunks = new Message[splitCount];
-                        ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.put(msgSplitID, wipMsgChunks);
-                        ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, 0);
-                    } else wipMsgChunks = (Message[]) ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.get(msgSplitID);
-
-                    wipMsgChunks[splitOID] = (Message) message;
-                    int count = ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.get(msgSplitID) + 1;
-                    ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, count);
-
-                    if (((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.get(msgSplitID).equals(splitCount)) {
-                        finalMessage = ((MsgTranslator) super.getTranslator()).decode(wipMsgChunks);
-                        ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.remove(msgSplitID);
-                        ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.remove(msgSplitID);
-                    }
-                } else {
-                    log.error("High payload splitted messages are not supported by underlying message worker...");
-                    log.error(super.getMsgWorker().getClass().getName() + " should extends MomAkkaAbsAppHPMsgSrvWorker !");
-                    finalMessage = tasteMessage;
-                    errorOnSplit = true;
+        if (natsMessage!=null) {
+            long beginTreatment = System.nanoTime();
+            boolean deferred = false;
+            try {
+                Map<String, Object> finalMessage = null;
+                if (((HashMap)tasteMessage).containsKey(MomMsgTranslator.MSG_TRACE)) {
+                    if (super.getClient().isMsgDebugOnTimeout()) ((MomLogger)log).setMsgTraceLevel(true);
+                    else tasteMessage.remove(MomMsgTranslator.MSG_TRACE);
                 }
-            } else finalMessage = tasteMessage;
-
-            if (finalMessage!=null) {
-                ((MomLogger) log).traceMessage("MsgRequestActor.onReceive - in", finalMessage);
-                if (!errorOnSplit) {
-                    Map<String, Object> reply = null;
-                    if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID) != null &&
-                            super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)) != null)
-                        reply = super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID));
-                    if (reply == null) reply = super.getMsgWorker().apply(finalMessage);
-                    else log.debug("reply from cache !");
-
-                    if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID) != null)
-                        super.putReplyToCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID), reply);
-
-                    if (((Message) message).getReplyTo() != null && reply != null) {
-                        if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID) != null) reply.put(
-                                MsgTranslator.MSG_CORRELATION_ID, finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)
-                        );
-                        if (super.getClient().getClientID() != null)
-                            reply.put(MsgTranslator.MSG_APPLICATION_ID, super.getClient().getClientID());
+
+                boolean errorOnSplit = false;
+                int splitCount = -1 ;
+                int splitOID = -1;
+                if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Integer)
+                    splitCount = (int)tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT);
+                else if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Long)
+                    splitCount = MsgTranslator.safeLongToInt((Long) tasteMessage.get(MomMsgTranslator.MSG_SPLIT_COUNT));
+                if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Integer)
+                    splitOID = (int)tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID);
+                else if (tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Long)
+                    splitOID = MsgTranslator.safeLongToInt((Long) tasteMessage.get(MomMsgTranslator.MSG_SPLIT_OID));
+
+                if (splitCount > 1) {
+                    if (super.getMsgWorker() instanceof MomAkkaAbsAppHPMsgSrvWorker) {
+                        String msgSplitID = (String) ((HashMap) tasteMessage).get(MomMsgTranslator.MSG_SPLIT_MID);
+                        Message[] wipMsgChunks;
+                        if (!((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.containsKey(msgSplitID)) {
+                            wipMsgChunks = new Message[splitCount];
+                            ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.put(msgSplitID, wipMsgChunks);
+                            ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, 0);
+                        } else wipMsgChunks = (Message[]) ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.get(msgSplitID);
+
+                        wipMsgChunks[splitOID] = natsMessage;
+                        int count = ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.get(msgSplitID) + 1;
+                        ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, count);
+
+                        if (((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.get(msgSplitID).equals(splitCount)) {
+                            finalMessage = ((MsgTranslator) super.getTranslator()).decode(wipMsgChunks);
+                            ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.remove(msgSplitID);
+                            ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.remove(msgSplitID);
+                        }
+                    } else {
+                        log.error("High payload splitted messages are not supported by underlying message worker...");
+                        log.error(super.getMsgWorker().getClass().getName() + " should extends MomAkkaAbsAppHPMsgSrvWorker !");
+                        finalMessage = tasteMessage;
+                        errorOnSplit = true;
+                    }
+                } else finalMessage = tasteMessage;
+
+                if (finalMessage!=null) {
+                    ((MomLogger) log).traceMessage("MsgRequestActor.onReceive - in", finalMessage);
+                    if (!errorOnSplit) {
+                        Map<String, Object> reply = null;
+                        if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID) != null &&
+                                super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)) != null)
+                            reply = super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID));
+                        if (reply == null && super.isBatching()) {
+                            deferred = true;
+                            super.batch(message, finalMessage, beginTreatment);
+                        } else if (reply == null && super.isAsync()) {
+                            deferred = true;
+                            super.applyAsync(message, finalMessage, beginTreatment);
+                        } else {
+                            String error = null;
+                            if (reply == null) {
+                                try {
+                                    reply = super.getMsgWorker().apply(finalMessage);
+                                } catch (RuntimeException e) {
+                                    // answer the worker failure instead of restarting the routee
+                                    error = "Treatment error : " + e.getMessage();
+                                    log.error(error);
+                                    reply = serverErrorReply(error);
+                                }
+                            } else log.debug("reply from cache !");
+
+                            if (error == null && finalMessage.get(MsgTranslator.MSG_CORRELATION_ID) != null)
+                                super.putReplyToCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID), reply);
+
+                            this.reply(message, finalMessage, reply);
+                        }
+
+                        ((MomLogger) log).traceMessage("MsgRequestActor.onReceive - out", finalMessage);
+                        if (((HashMap) finalMessage).containsKey(MomMsgTranslator.MSG_TRACE))
+                            ((MomLogger) log).setMsgTraceLevel(false);
+                    } else if (natsMessage.getReplyTo() != null) {
+                        Map<String, Object> reply = new HashMap<>();
+                        reply.put(MomMsgTranslator.MSG_RC, MomMsgTranslator.MSG_RET_SERVER_ERR);
+                        reply.put(MomMsgTranslator.MSG_ERR, "High payload splitted messages are not supported by underlying message worker");
                         Message[] replyMessage = ((MsgTranslator) super.getTranslator()).encode(reply);
                         for (Message msg : replyMessage) {
-                            msg.setSubject(((Message) message).getReplyTo());
+                            msg.setSubject(natsMessage.getReplyTo());
                             ((Connection) super.getClient().getConnection()).publish(msg);
                         }
                     }
-
-                    ((MomLogger) log).traceMessage("MsgRequestActor.onReceive - out", finalMessage);
-                    if (((HashMap) finalMessage).containsKey(MomMsgTranslator.MSG_TRACE))
-                        ((MomLogger) log).setMsgTraceLevel(false);
-                } else if (((Message) message).getReplyTo() != null) {
-                    Map<String, Object> reply = new HashMap<>();
-                    reply.put(MomMsgTranslator.MSG_RC, MomMsgTranslator.MSG_RET_SERVER_ERR);
-                    reply.put(MomMsgTranslator.MSG_ERR, "High payload splitted messages are not supported by underlying message worker");
-                    Message[] replyMessage = ((MsgTranslator) super.getTranslator()).encode(reply);
-                    for (Message msg : replyMessage) {
-                        msg.setSubject(((Message) message).getReplyTo());
-                        ((Connection) super.getClient().getConnection()).publish(msg);
-                    }
                 }
+            } finally {
+                if (!deferred) super.treated(message, beginTreatment);
             }
         } else
             unhandled(message);
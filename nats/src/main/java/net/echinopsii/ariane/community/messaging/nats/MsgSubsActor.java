@@ -25,6 +25,7 @@ import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsAppHPMsgSrvWorker;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope;
 import net.echinopsii.ariane.community.messaging.common.MsgAkkaAbsSubsActor;
 import org.slf4j.Logger;
 
@@ -42,16 +43,17 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
      * Return Akka actor Props to spawn a new MsgRequestActor through Akka.
      * Should not be called outside {@link net.echinopsii.ariane.community.messaging.nats.ServiceFactory#subscriberService(String, String, AppMsgWorker)}
      *
+     * @param mclient the initialized client
      * @param worker the AppMsgWorker in charge of subscription message feed treatment
      * @return Akka actor Props
      */
-    public static Props props(final AppMsgWorker worker) {
+    public static Props props(final Client mclient, final AppMsgWorker worker) {
         return Props.create(new Creator<MsgSubsActor>() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public MsgSubsActor create() throws Exception {
-                return new MsgSubsActor(worker);
+                return new MsgSubsActor(mclient, worker);
             }
         });
     }
@@ -60,27 +62,40 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
      * (internal usage only)
      * MsgSubsActor constructor. Should not be called outside {@link this#props}
      *
+     * @param mclient the initialized client
      * @param worker the AppMsgWorker in charge of subscription message feed treatment
      */
-    public MsgSubsActor(AppMsgWorker worker) {
-        super(worker, new MsgTranslator());
+    public MsgSubsActor(Client mclient, AppMsgWorker worker) {
+        super(mclient, worker, new MsgTranslator());
     }
 
     /**
      * {@link akka.actor.UntypedActor#onReceive(Object)} implementation.
-     * if message instance of {@link io.nats.client.Message} :
-     * <br/> decode the message
+     * if message instance of {@link net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope} (decoded by consumer)
+     * or {@link io.nats.client.Message} :
+     * <br/> decode the message (raw message only)
      * <br/> if splitted message cache the current message. if all splitted message has been received rebuild the final message and clear the cache.
      * <br/> else the message is the final message
-     * <br/> if final message is not null then request treatment from attached worker.
+     * <br/> if final message is not null then request treatment from attached worker (or add the message to the current batch).
+     * if message is the current batch flush tick treat the batch.
      * else unhandled
      * @param message the akka message received by actor
      */
     @Override
     public void onReceive(Object message) {
-        if (message instanceof Message) {
+        if (super.onBatchFlush(message)) return;
+        Message natsMessage = null;
+        Map<String, Object> tasteMessage = null;
+        if (message instanceof MomMsgEnvelope && ((MomMsgEnvelope) message).getRaw() instanceof Message) {
+            natsMessage = (Message) ((MomMsgEnvelope) message).getRaw();
+            tasteMessage = ((MomMsgEnvelope) message).getMessage();
+        } else if (message instanceof Message) {
+            natsMessage = (Message) message;
+            tasteMessage = ((MsgTranslator) super.getTranslator()).decode(new Message[]{natsMessage});
+        }
+
+        if (natsMessage!=null) {
             Map<String, Object> finalMessage = null;
-            Map<String, Object> tasteMessage = ((MsgTranslator) super.getTranslator()).decode(new Message[]{(Message) message});
 
             if (((HashMap)tasteMessage).containsKey(MomMsgTranslator.MSG_SPLIT_COUNT) &&
                     (int)((HashMap)tasteMessage).get(MomMsgTranslator.MSG_SPLIT_COUNT) > 1) {
@@ -93,7 +108,7 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
                         ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, 0);
                     } else wipMsgChunks = (Message[]) ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsg.get(msgSplitID);
 
-                    wipMsgChunks[(int) ((HashMap) tasteMessage).get(MomMsgTranslator.MSG_SPLIT_OID)] = (Message) message;
+                    wipMsgChunks[(int) ((HashMap) tasteMessage).get(MomMsgTranslator.MSG_SPLIT_OID)] = natsMessage;
                     int count = ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.get(msgSplitID) + 1;
                     ((MomAkkaAbsAppHPMsgSrvWorker)super.getMsgWorker()).wipMsgCount.put(msgSplitID, count);
 
@@ -108,7 +123,10 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
                 }
             } else finalMessage = tasteMessage;
 
-            if (finalMessage!=null) super.getMsgWorker().apply(finalMessage);
+            if (finalMessage!=null) {
+                if (super.isBatching()) super.batch(message, finalMessage);
+                else super.getMsgWorker().apply(finalMessage);
+            }
         } else
             unhandled(message);
     }
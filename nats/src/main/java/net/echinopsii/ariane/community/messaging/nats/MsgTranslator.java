@@ -24,8 +24,10 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.nats.client.Message;
+import net.echinopsii.ariane.community.messaging.api.MomIDGenerator;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import net.echinopsii.ariane.community.messaging.common.MomStripedIDGenerator;
 import net.echinopsii.ariane.community.messaging.nats.tools.PropertiesException;
 import net.echinopsii.ariane.community.messaging.nats.tools.PropertiesJSON;
 import net.echinopsii.ariane.community.messaging.nats.tools.ToolBox;
@@ -40,6 +42,7 @@ import java.util.*;
  */
 public class MsgTranslator implements MomMsgTranslator<Message[]> {
     private static final Logger log = MomLoggerFactory.getLogger(MsgTranslator.class);
+    private static final MomIDGenerator splitMIDGenerator = new MomStripedIDGenerator();
 
     public final static String MSG_NATS_SUBJECT = "MSG_NATS_SUBJECT";
     public static long MSG_MAX_SIZE = 0;
@@ -106,6 +109,18 @@ public class MsgTranslator implements MomMsgTranslator<Message[]> {
         return ret;
     }
 
+    /**
+     * evaluate if message will be splitted in several NATS messages by {@link #encode(Map)}
+     * @param message the message to evaluate
+     * @return true if message payload is bigger than NATS max payload size
+     */
+    public static boolean isSplitNeeded(Map<String, Object> message) {
+        int bsonMsgPayloadSize =  ((message.get(MSG_REPLY_TO)!=null) ? MSG_REPLY_TO.getBytes().length + message.get(MSG_REPLY_TO).toString().getBytes().length : 0) +
+                                  ((message.get(MSG_NATS_SUBJECT)!=null) ? MSG_NATS_SUBJECT.getBytes().length + message.get(MSG_NATS_SUBJECT).toString().getBytes().length : 0);
+        int natsPropsSize = getBSONMsgPayloadSize(message);
+        return bsonMsgPayloadSize >= (MSG_MAX_SIZE - natsPropsSize);
+    }
+
     /**
      * Nested class helper to serialize BSon NATS message with properties and body.
      */
@@ -201,11 +216,7 @@ public class MsgTranslator implements MomMsgTranslator<Message[]> {
     public Message[] encode(Map<String, Object> message) {
         Message[] ret ;
 
-        int bsonMsgPayloadSize =  ((message.get(MSG_REPLY_TO)!=null) ? MSG_REPLY_TO.getBytes().length + message.get(MSG_REPLY_TO).toString().getBytes().length : 0) +
-                                  ((message.get(MSG_NATS_SUBJECT)!=null) ? MSG_NATS_SUBJECT.getBytes().length + message.get(MSG_NATS_SUBJECT).toString().getBytes().length : 0);
-        int natsPropsSize = getBSONMsgPayloadSize(message);
-
-        if (bsonMsgPayloadSize < (MSG_MAX_SIZE - natsPropsSize)) {
+        if (!isSplitNeeded(message)) {
             Message finalMessage = new Message();
             ExtendedNATSMessage extendedNATSMessage = new ExtendedNATSMessage();
             for (String key : message.keySet()) {
@@ -233,10 +244,7 @@ public class MsgTranslator implements MomMsgTranslator<Message[]> {
             finalMessage.setData(data);
             ret = new Message[]{finalMessage};
         } else {
-            String splitMID;
-            synchronized (UUID.class) {
-                splitMID = UUID.randomUUID().toString();
-            }
+            String splitMID = splitMIDGenerator.nextID();
 
             HashMap<String, Object> wipMsgField = new HashMap<>(message);
             wipMsgField.remove(MSG_BODY);
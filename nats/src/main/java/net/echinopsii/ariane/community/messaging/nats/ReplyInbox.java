@@ -0,0 +1,191 @@
+/**
+ * Messaging - NATS Implementation
+ * RPC reply inbox
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.nats;
+
+import io.nats.client.AsyncSubscription;
+import io.nats.client.Connection;
+import io.nats.client.Message;
+import io.nats.client.MessageHandler;
+import net.echinopsii.ariane.community.messaging.api.MomConsumer;
+import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import org.slf4j.Logger;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplyInbox class is the NATS client unique RPC reply source.
+ * <p/>
+ * It holds one wildcard push subscription on _INBOX.&lt;clientId&gt;.* routing any reply (split chunks included)
+ * to the handler registered for its reply subject, from the subscription delivery thread (as the request services
+ * consumers do). RPC reply subjects are then simple suffixes of the inbox and no subscription is created or closed
+ * on the RPC hot path.
+ * <p/>
+ * The clientId is the client ID (or "ariane" if not defined) made subject safe and suffixed with a connection
+ * unique ID so that two clients sharing the same ID never receive each other replies.
+ */
+public class ReplyInbox implements MomConsumer {
+    private static final Logger log = MomLoggerFactory.getLogger(ReplyInbox.class);
+
+    private static final String INBOX_PREFIX = "_INBOX.";
+
+    private Connection connection;
+    private String inboxSubject;
+    private AsyncSubscription subs = null;
+    private AtomicLong replySubjectsCount = new AtomicLong(0);
+    private ConcurrentHashMap<String, MessageHandler> replyHandlers = new ConcurrentHashMap<>();
+    private volatile boolean isRunning = false;
+
+    /**
+     * @param client an initialized NATS Client
+     */
+    public ReplyInbox(Client client) {
+        connection = client.getConnection();
+        String clientId = (client.getClientID()!=null) ? client.getClientID().replaceAll("[^A-Za-z0-9_-]", "_") : "ariane";
+        clientId += "-" + client.getIDGenerator().nextID();
+        inboxSubject = INBOX_PREFIX + clientId;
+    }
+
+    /**
+     * @return a new reply subject (suffix of this inbox)
+     */
+    public String newReplySubject() {
+        return inboxSubject + "." + replySubjectsCount.incrementAndGet();
+    }
+
+    /**
+     * @param subject the subject to check
+     * @return true if subject is a reply subject of this inbox
+     */
+    public boolean isReplySubject(String subject) {
+        return subject!=null && subject.startsWith(inboxSubject + ".");
+    }
+
+    /**
+     * register the handler which will treat any reply received on replySubject. The handler is called from
+     * the inbox subscription delivery thread and must not block.
+     * @param replySubject the reply subject
+     * @param handler the reply handler
+     */
+    public void register(String replySubject, MessageHandler handler) {
+        replyHandlers.put(replySubject, handler);
+    }
+
+    /**
+     * register a queue collecting replies received on replySubject (for blocking RPC)
+     * @param replySubject the reply subject
+     * @return the replies queue
+     */
+    public BlockingQueue<Message> openReplyQueue(String replySubject) {
+        final BlockingQueue<Message> replyQueue = new LinkedBlockingQueue<>();
+        register(replySubject, new MessageHandler() {
+            @Override
+            public void onMessage(Message msg) {
+                replyQueue.offer(msg);
+            }
+        });
+        return replyQueue;
+    }
+
+    /**
+     * unregister replySubject handler. Any later reply on this subject will be discarded.
+     * @param replySubject the reply subject
+     */
+    public void release(String replySubject) {
+        replyHandlers.remove(replySubject);
+    }
+
+    /**
+     * route a message received on inbox to its reply subject handler
+     * @param msg the message received on inbox
+     */
+    private void dispatch(Message msg) {
+        MessageHandler handler = replyHandlers.get(msg.getSubject());
+        if (handler==null) {
+            log.warn("Reply discarded on " + msg.getSubject() + " ...");
+            return;
+        }
+        try {
+            handler.onMessage(msg);
+        } catch (Exception e) {
+            log.error("[inbox: " + inboxSubject + "] error while dispatching reply : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * subscribe the inbox wildcard subject
+     */
+    @Override
+    public synchronized void run() {
+        if (!isRunning) {
+            try {
+                subs = connection.subscribe(inboxSubject + ".*", new MessageHandler() {
+                    @Override
+                    public void onMessage(Message msg) {
+                        if (isRunning) dispatch(msg);
+                    }
+                });
+                isRunning = true;
+            } catch (Exception e) {
+                log.error("[inbox: " + inboxSubject + "] unable to subscribe : " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return true if inbox subscription is active else false
+     */
+    @Override
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * subscribe the inbox wildcard subject
+     */
+    @Override
+    public void start() {
+        this.run();
+    }
+
+    /**
+     * close the inbox subscription
+     */
+    @Override
+    public synchronized void stop() {
+        if (isRunning) {
+            isRunning = false;
+            if (!connection.isClosed() && subs!=null) {
+                try {
+                    subs.unsubscribe();
+                    subs.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            subs = null;
+            replyHandlers.clear();
+        }
+    }
+}
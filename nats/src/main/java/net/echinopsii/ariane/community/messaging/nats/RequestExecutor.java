@@ -19,8 +19,10 @@
 
 package net.echinopsii.ariane.community.messaging.nats;
 
+import akka.dispatch.Futures;
 import io.nats.client.Connection;
 import io.nats.client.Message;
+import io.nats.client.MessageHandler;
 import io.nats.client.SyncSubscription;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
 import net.echinopsii.ariane.community.messaging.api.MomException;
@@ -29,11 +31,16 @@ import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsRequestExecutor;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
 import org.slf4j.Logger;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -44,8 +51,14 @@ import java.util.concurrent.TimeoutException;
 public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomRequestExecutor<String, AppMsgWorker> {
     private static final Logger log = MomLoggerFactory.getLogger(RequestExecutor.class);
 
-    private HashMap<String, HashMap<String, SyncSubscription>> sessionsRPCSubs = new HashMap<>();
-    private HashMap<String, Boolean> destinationTrace = new HashMap<>();
+    private static final long NO_RPC_TIMEOUT_POLL = 1000000000;
+
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, SyncSubscription>> sessionsRPCSubs = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Boolean> destinationTrace = new ConcurrentHashMap<>();
+
+    private String asyncReplySubject = null;
+    private ConcurrentHashMap<String, Message[]> asyncReplyChunks = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Promise<Map<String, Object>>> splitRPCs = new ConcurrentHashMap<>();
 
     /**
      * @param client an initialized NATS Client
@@ -116,9 +129,57 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         return request;
     }
 
+    /**
+     * Fire And Forget batch : publish the requests back to back then flush the connection once so that the whole batch
+     * is acknowledged by the NATS server (up to the client RPC timeout max). Requests needing split are sent through
+     * {@link #FAF(Map, String)} (split group handshake) before the flush.
+     * @param requests the request messages
+     * @param destination the target destination queue
+     * @return the requests which could not be published, or the whole batch if the flush failed
+     */
+    @Override
+    public List<Map<String, Object>> FAFBatch(List<Map<String, Object>> requests, String destination) {
+        List<Map<String, Object>> failedRequests = new ArrayList<>();
+        String groupID = super.getMomClient().getCurrentMsgGroup();
+        String subject = (groupID!=null) ? groupID + "-" + destination : destination;
+        Connection connection = (Connection) super.getMomClient().getConnection();
+
+        for (Map<String, Object> request : requests) {
+            request.put(MsgTranslator.MSG_NATS_SUBJECT, destination);
+            if (groupID==null && MsgTranslator.isSplitNeeded(request)) {
+                this.FAF(request, destination);
+                continue;
+            }
+            try {
+                for (Message message : new MsgTranslator().encode(request)) {
+                    message.setSubject(subject);
+                    connection.publish(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.warn("FAF batch request on " + subject + " not published : " + e.getMessage());
+                failedRequests.add(request);
+            }
+        }
+
+        try {
+            long timeout = super.getMomClient().getRPCTimeoutMax();
+            if (timeout > 0) connection.flush((int) timeout);
+            else connection.flush();
+        } catch (Exception e) {
+            log.warn("FAF batch on " + subject + " not flushed : " + e.getMessage());
+            return new ArrayList<>(requests);
+        }
+        return failedRequests;
+    }
+
     /**
      * Remote procedure call : send request to target destination (manage message split if needed) and wait answer to be treated
      * by the answer worker.
+     * <p/>
+     * If answerSource is not defined (and out of message group) the answer is received on a reply subject of the client
+     * reply inbox : no subscription is created for this call.
+     * If hedged requests are enabled the call is then executed as a non blocking RPC (except for requests which
+     * must be splitted).
      * @param request the request message
      * @param destination the target destination queue
      * @param answerSource the source to get the answer from
@@ -126,7 +187,7 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
      * @return the answer (treated or not by answer worker)
      * @throws TimeoutException if no answers has been received after timeout * retry as configured in NATS Client provided to this RequestExecutor,
      *         IOException while publishing request or receiving answer,
-     *         MomException if response is null when apply to answerWorker
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
      *
      */
     @Override
@@ -139,11 +200,15 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
             if (answerSource == null) answerSource = destination + "-RET";
         }
 
+        if (groupID==null && answerSource==null && super.getHedgingPolicy()!=null && !MsgTranslator.isSplitNeeded(request))
+            return super.awaitAsyncRPC(this.RPCAsync(request, destination, answerWorker, true));
+
+        String rpcDestination = destination;
+        super.onRPCRequest(rpcDestination);
+
         String corrId;
         if (request.get(MsgTranslator.MSG_CORRELATION_ID)==null) {
-            synchronized (UUID.class) {
-                corrId = UUID.randomUUID().toString();
-            }
+            corrId = super.getMomClient().getIDGenerator().nextID();
             request.put(MsgTranslator.MSG_CORRELATION_ID, corrId);
         } else corrId = (String) request.get(MsgTranslator.MSG_CORRELATION_ID);
 
@@ -156,20 +221,17 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
             try {
                 initMsgSplitGroup(destination, splitMID, destination + "_" + splitMID);
                 destination += "_" + splitMID;
-                if (answerSource == null) answerSource = destination + "-RET";
             } catch (TimeoutException e) {
                 e.printStackTrace();
             }
         }
 
-        if (destinationTrace.get(destination)==null) destinationTrace.put(destination, false);
+        destinationTrace.putIfAbsent(destination, false);
         if (destinationTrace.get(destination)) request.put(MomMsgTranslator.MSG_TRACE, true);
         else request.remove(MomMsgTranslator.MSG_TRACE);
 
-        if (answerSource==null)
-            synchronized (UUID.class) {
-                answerSource = destination + "-" + UUID.randomUUID().toString() + "-RET";
-            }
+        ReplyInbox replyInbox = ((Client) super.getMomClient()).getReplyInbox();
+        if (answerSource==null) answerSource = replyInbox.newReplySubject();
 
         for (Message message : messages) {
             message.setSubject(destination);
@@ -178,9 +240,9 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
 
         Message[] msgResponse = null;
         Message wipMsgResponse = null;
-        long beginWaitingAnswer;
 
-        SyncSubscription subs;
+        SyncSubscription subs = null;
+        BlockingQueue<Message> replyQueue = null;
         if (groupID!=null) {
             if (sessionsRPCSubs.get(groupID) != null) {
                 if (sessionsRPCSubs.get(groupID).get(answerSource) != null) subs = sessionsRPCSubs.get(groupID).get(answerSource);
@@ -189,80 +251,104 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
                     sessionsRPCSubs.get(groupID).put(answerSource, subs);
                 }
             } else {
-                HashMap<String, SyncSubscription> groupSubs = new HashMap<>();
+                ConcurrentHashMap<String, SyncSubscription> groupSubs = new ConcurrentHashMap<>();
                 subs = ((Connection)super.getMomClient().getConnection()).subscribeSync(answerSource);
                 groupSubs.put(answerSource, subs);
                 sessionsRPCSubs.put(groupID, groupSubs);
             }
-        } else subs = ((Connection)super.getMomClient().getConnection()).subscribeSync(answerSource);
-
-        if (destinationTrace.get(destination)) log.info("send request " + corrId);
-        for (Message message:messages)
-            ((Connection) super.getMomClient().getConnection()).publish(message);
+        } else if (replyInbox.isReplySubject(answerSource)) replyQueue = replyInbox.openReplyQueue(answerSource);
+        else subs = ((Connection)super.getMomClient().getConnection()).subscribeSync(answerSource);
 
-        long rpcTimeout = super.getMomClient().getRPCTimout() * 1000000000;
-        beginWaitingAnswer = System.nanoTime();
-        int responseSplitCount = 1;
-        int responseMsgCount = 0;
-        while(wipMsgResponse==null && responseMsgCount < responseSplitCount && rpcTimeout >= 0) {
+        int retryCount = (request.get(MomMsgTranslator.MSG_RETRY_COUNT)!=null) ? (int) request.get(MomMsgTranslator.MSG_RETRY_COUNT) : 0;
+        long beginWaitingAnswer = 0;
+        while (msgResponse==null) {
+            if (destinationTrace.get(destination)) log.info("send request " + corrId);
             try {
-                wipMsgResponse = subs.nextMessage(rpcTimeout, TimeUnit.NANOSECONDS);
-                if (wipMsgResponse!=null) {
-                    Map<String, Object> tmpDecodedMsg = new MsgTranslator().decode(new Message[]{wipMsgResponse});
-                    String responseCorrID = (String) tmpDecodedMsg.get(MsgTranslator.MSG_CORRELATION_ID);
-                    if (responseCorrID != null && !responseCorrID.equals(corrId)) {
-                        log.warn("Response discarded ( " + responseCorrID + " ) ...");
-                        wipMsgResponse = null;
-                    } else {
-                        if (msgResponse==null) {
-                            responseSplitCount = (int) ((tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_COUNT)!=null) ? tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_COUNT) : 1);
-                            msgResponse = new Message[responseSplitCount];
+                for (Message message:messages)
+                    ((Connection) super.getMomClient().getConnection()).publish(message);
+            } catch (IOException | IllegalStateException e) {
+                super.onRPCError(rpcDestination);
+                throw e;
+            }
+
+            long rpcTimeout = super.getRPCTimeout(rpcDestination, retryCount) * 1000000;
+            long rpcTimeoutLeft = rpcTimeout;
+            beginWaitingAnswer = System.nanoTime();
+            int responseSplitCount = 1;
+            int responseMsgCount = 0;
+            while(responseMsgCount < responseSplitCount && rpcTimeoutLeft != 0) {
+                try {
+                    long waitTime = (rpcTimeoutLeft > 0) ? rpcTimeoutLeft : NO_RPC_TIMEOUT_POLL;
+                    if (replyQueue!=null) wipMsgResponse = replyQueue.poll(waitTime, TimeUnit.NANOSECONDS);
+                    else wipMsgResponse = subs.nextMessage(waitTime, TimeUnit.NANOSECONDS);
+                    if (wipMsgResponse!=null) {
+                        Map<String, Object> tmpDecodedMsg = new MsgTranslator().decode(new Message[]{wipMsgResponse});
+                        String responseCorrID = (String) tmpDecodedMsg.get(MsgTranslator.MSG_CORRELATION_ID);
+                        if (responseCorrID != null && !responseCorrID.equals(corrId)) {
+                            log.warn("Response discarded ( " + responseCorrID + " ) ...");
+                            wipMsgResponse = null;
+                        } else {
+                            if (msgResponse==null) {
+                                responseSplitCount = (int) ((tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_COUNT)!=null) ? tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_COUNT) : 1);
+                                msgResponse = new Message[responseSplitCount];
+                            }
+                            int splitOID = (int) ((tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_OID)!=null) ? tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_OID) : 0);
+                            msgResponse[splitOID] = wipMsgResponse;
+                            wipMsgResponse = null;
+                            responseMsgCount++;
                         }
-                        int splitOID = (int) ((tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_OID)!=null) ? tmpDecodedMsg.get(MsgTranslator.MSG_SPLIT_OID) : 0);
-                        msgResponse[splitOID] = wipMsgResponse;
-                        wipMsgResponse = null;
-                        responseMsgCount++;
                     }
+                } catch (InterruptedException | TimeoutException ex) {
+                    log.debug("Thread interrupted while waiting for RPC answer...");
+                } finally {
+                    if (rpcTimeout > 0)
+                        rpcTimeoutLeft = Math.max(0, rpcTimeout - (System.nanoTime()-beginWaitingAnswer));
+                    if (destinationTrace.get(destination)) log.info("rpcTimeout left: " + rpcTimeoutLeft);
                 }
-            } catch (InterruptedException | TimeoutException ex) {
-                log.debug("Thread interrupted while waiting for RPC answer...");
-            } finally {
-                if (super.getMomClient().getRPCTimout()>0)
-                    rpcTimeout = super.getMomClient().getRPCTimout()*1000000000 - (System.nanoTime()-beginWaitingAnswer);
-                else rpcTimeout = 0;
-                if (destinationTrace.get(destination)) log.info("rpcTimeout left: " + rpcTimeout);
             }
-        }
-        if (groupID==null) subs.close();
-
-        if (msgResponse!=null) {
-            long endWaitingAnswer = System.nanoTime();
-            long rpcTime = endWaitingAnswer - beginWaitingAnswer;
-            log.debug("RPC time : " + rpcTime);
-            if (super.getMomClient().getRPCTimout()>0 && beginWaitingAnswer>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000*3/5) {
-                log.debug("Slow RPC time (" + rpcTime/1000000000 + ") on request to queue " + destination);
-            } else destinationTrace.put(destination, false);
-            response = new MsgTranslator().decode(msgResponse);
-        } else {
-            if (request.containsKey(MomMsgTranslator.MSG_RETRY_COUNT)) {
-                int retryCount = (int)request.get(MomMsgTranslator.MSG_RETRY_COUNT);
-                log.warn("No response returned from request on " + destination + " queue after (" +
-                        super.getMomClient().getRPCTimout() + "*" + retryCount + 1 + ") sec...");
-                if ((super.getMomClient().getRPCRetry()-retryCount+1) > 0) {
-                    request.put(MomMsgTranslator.MSG_RETRY_COUNT, retryCount+1);
-                    destinationTrace.put(destination, true);
-                    log.warn("Retry (" + request.get(MomMsgTranslator.MSG_RETRY_COUNT) + ")");
-                    return this.RPC(request, destination, answerSource, answerWorker);
-                } else
+
+            if (responseMsgCount < responseSplitCount) {
+                msgResponse = null;
+                log.warn("No response returned from request on " + destination + " queue after " + rpcTimeout/1000000 +
+                        " ms (retry " + retryCount + ")...");
+                super.onRPCTimeout(rpcDestination, rpcTimeout/1000000);
+                long backoff = super.getRPCRetryBackoff(rpcDestination, retryCount);
+                if (backoff < 0) {
+                    if (replyQueue!=null) replyInbox.release(answerSource);
+                    else if (groupID==null) subs.close();
                     throw new TimeoutException(
                             "No response returned from request on " + destination + " queue after " +
-                                    super.getMomClient().getRPCTimout() + "*" + super.getMomClient().getRPCRetry() + " sec..."
+                                    (retryCount + 1) + " tries (last timeout : " + rpcTimeout/1000000 + " ms)..."
                     );
-            } else {
-                request.put(MomMsgTranslator.MSG_RETRY_COUNT, 1);
-                return this.RPC(request, destination, answerSource, answerWorker);
+                }
+                retryCount++;
+                request.put(MomMsgTranslator.MSG_RETRY_COUNT, retryCount);
+                destinationTrace.put(destination, true);
+                log.warn("Retry (" + retryCount + ") in " + backoff + " ms");
+                if (messages.length == 1) {
+                    request.put(MomMsgTranslator.MSG_TRACE, true);
+                    messages = new MsgTranslator().encode(request);
+                    messages[0].setSubject(destination);
+                    messages[0].setReplyTo(answerSource);
+                }
+                try {
+                    if (backoff > 0) Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    log.debug("Thread interrupted while waiting for RPC retry backoff...");
+                }
             }
         }
+        if (replyQueue!=null) replyInbox.release(answerSource);
+        else if (groupID==null) subs.close();
+
+        long endWaitingAnswer = System.nanoTime();
+        long rpcTime = endWaitingAnswer - beginWaitingAnswer;
+        log.debug("RPC time : " + rpcTime);
+        super.onRPCAnswer(rpcDestination, rpcTime, retryCount);
+        if (super.getMomClient().getRPCTimout()>0 && beginWaitingAnswer>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000*3/5) {
+            log.debug("Slow RPC time (" + rpcTime/1000000000 + ") on request to queue " + destination);
+        } else destinationTrace.put(destination, false);
+        response = new MsgTranslator().decode(msgResponse);
 
         if (groupID==null && messages.length>1) {
             destination = destination.split("_" + splitMID)[0];
@@ -280,6 +366,186 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         return response;
     }
 
+    /**
+     * (internal usage)
+     * Non blocking remote procedure call : send request to target destination and return the future raw answer.
+     * High payload requests which must be splitted are delegated to the blocking
+     * {@link #RPC(Map, String, String, AppMsgWorker)} on the client split RPC dispatcher (see
+     * {@link Client#getSplitRPCDispatcher()}) as the split protocol needs a synchronous split group initialization.
+     * <p/>
+     * Split calls are registered by correlation ID so that batch and scatter-gather calls can cancel them at their
+     * deadline (see {@link #cancelAsyncRPC(String, Throwable)}) : the cancelled call future fails immediately and the
+     * blocking call answer is ignored. As the blocking call manages its own timeout and retries, split calls are
+     * never hedged.
+     * @param request the request message
+     * @param destination the target destination queue
+     * @param scheduleTimeout if true timeout and retries are managed by the shared scheduler
+     * @return the future raw answer
+     */
+    @Override
+    protected Future<Map<String, Object>> RPCAsyncResponse(final Map<String, Object> request, final String destination,
+                                                           boolean scheduleTimeout) {
+        if (super.getMomClient().getCurrentMsgGroup()==null) {
+            request.put(MsgTranslator.MSG_NATS_SUBJECT, destination);
+            request.put(MsgTranslator.MSG_REPLY_TO, getAsyncReplySubject());
+            if (MsgTranslator.isSplitNeeded(request)) {
+                if (request.get(MsgTranslator.MSG_CORRELATION_ID)==null)
+                    request.put(MsgTranslator.MSG_CORRELATION_ID, super.getMomClient().getIDGenerator().nextID());
+                final String corrId = (String) request.get(MsgTranslator.MSG_CORRELATION_ID);
+                final Promise<Map<String, Object>> promise = Futures.promise();
+                if (splitRPCs.putIfAbsent(corrId, promise)!=null)
+                    return Futures.failed(new MomException("RPC " + corrId + " is already pending !"));
+                ((Client) super.getMomClient()).getSplitRPCDispatcher().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            request.remove(MsgTranslator.MSG_REPLY_TO);
+                            if (!promise.isCompleted()) promise.trySuccess(RPC(request, destination, null, null));
+                        } catch (Exception e) {
+                            promise.tryFailure(e);
+                        } finally {
+                            splitRPCs.remove(corrId, promise);
+                        }
+                    }
+                });
+                return promise.future();
+            }
+        }
+        return super.RPCAsyncResponse(request, destination, scheduleTimeout);
+    }
+
+    /**
+     * (internal usage)
+     * cancel the pending call or the split call identified by corrId and fail its future
+     * @param corrId the call correlation ID
+     * @param cause the failure cause
+     * @return true if a call has been cancelled else false
+     */
+    @Override
+    protected boolean cancelAsyncRPC(String corrId, Throwable cause) {
+        if (super.cancelAsyncRPC(corrId, cause)) return true;
+        Promise<Map<String, Object>> promise = (corrId!=null) ? splitRPCs.remove(corrId) : null;
+        return promise!=null && promise.tryFailure(cause);
+    }
+
+    /**
+     * (internal usage)
+     * register the long-lived reply subject of this RequestExecutor on the client reply inbox. Any answer received
+     * on this subject is pushed to the pending non blocking RPCs (demultiplexed by correlation ID).
+     * @return the reply subject
+     */
+    private synchronized String getAsyncReplySubject() {
+        if (asyncReplySubject==null) {
+            ReplyInbox replyInbox = ((Client) super.getMomClient()).getReplyInbox();
+            String replySubject = replyInbox.newReplySubject();
+            replyInbox.register(replySubject, new MessageHandler() {
+                @Override
+                public void onMessage(Message msg) {
+                    onAsyncReply(msg);
+                }
+            });
+            asyncReplySubject = replySubject;
+        }
+        return asyncReplySubject;
+    }
+
+    /**
+     * (internal usage)
+     * rebuild splitted answers if needed and complete the pending call
+     * @param msg the NATS message received on the reply subject
+     */
+    private void onAsyncReply(Message msg) {
+        MsgTranslator translator = new MsgTranslator();
+        Map<String, Object> response = translator.decode(new Message[]{msg});
+        String corrId = (String) response.get(MsgTranslator.MSG_CORRELATION_ID);
+
+        int splitCount = 1;
+        int splitOID = 0;
+        if (response.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Integer)
+            splitCount = (int) response.get(MomMsgTranslator.MSG_SPLIT_COUNT);
+        else if (response.get(MomMsgTranslator.MSG_SPLIT_COUNT) instanceof Long)
+            splitCount = MsgTranslator.safeLongToInt((Long) response.get(MomMsgTranslator.MSG_SPLIT_COUNT));
+        if (response.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Integer)
+            splitOID = (int) response.get(MomMsgTranslator.MSG_SPLIT_OID);
+        else if (response.get(MomMsgTranslator.MSG_SPLIT_OID) instanceof Long)
+            splitOID = MsgTranslator.safeLongToInt((Long) response.get(MomMsgTranslator.MSG_SPLIT_OID));
+
+        if (splitCount > 1 && corrId!=null) {
+            Message[] chunks = asyncReplyChunks.get(corrId);
+            if (chunks==null) {
+                asyncReplyChunks.putIfAbsent(corrId, new Message[splitCount]);
+                chunks = asyncReplyChunks.get(corrId);
+            }
+            synchronized (chunks) {
+                chunks[splitOID] = msg;
+                for (Message chunk : chunks) if (chunk==null) return;
+            }
+            asyncReplyChunks.remove(corrId);
+            response = translator.decode(chunks);
+        }
+        super.completeAsyncRPC(corrId, response);
+    }
+
+    /**
+     * (internal usage)
+     * clean splitted answer chunks of a terminated pending call
+     * @param corrId the call correlation ID
+     */
+    @Override
+    protected void asyncRPCTerminated(String corrId) {
+        asyncReplyChunks.remove(corrId);
+    }
+
+    /**
+     * (internal usage)
+     * Publish the request of a non blocking RPC. The answer will be received on this RequestExecutor long-lived
+     * reply subject. As for the blocking RPC, the request is traced ({@link MomMsgTranslator#MSG_TRACE}) if the
+     * destination did not answer in time lately.
+     * @param request the request message (correlation ID already defined)
+     * @param destination the target destination subject
+     * @throws IOException while publishing request
+     */
+    @Override
+    protected void publishAsyncRPCRequest(Map<String, Object> request, String destination) throws IOException {
+        request.put(MsgTranslator.MSG_NATS_SUBJECT, destination);
+        request.put(MsgTranslator.MSG_REPLY_TO, getAsyncReplySubject());
+        destinationTrace.putIfAbsent(destination, false);
+        if (destinationTrace.get(destination)) {
+            request.put(MomMsgTranslator.MSG_TRACE, true);
+            log.info("send request " + request.get(MsgTranslator.MSG_CORRELATION_ID));
+        } else request.remove(MomMsgTranslator.MSG_TRACE);
+        Message[] messages = new MsgTranslator().encode(request);
+        for (Message message : messages)
+            ((Connection) super.getMomClient().getConnection()).publish(message);
+    }
+
+    /**
+     * (internal usage)
+     * Trace the next requests to destination (as the blocking RPC does on retry) once a non blocking RPC timed out
+     * @param destination the RPC destination
+     * @param timeout the timeout which expired (millisecond)
+     */
+    @Override
+    protected void onRPCTimeout(String destination, long timeout) {
+        super.onRPCTimeout(destination, timeout);
+        destinationTrace.put(destination, true);
+    }
+
+    /**
+     * (internal usage)
+     * Stop tracing the requests to destination once a non blocking RPC is answered in time
+     * @param destination the RPC destination
+     * @param rpcTime the RPC time (nanosecond) since last request publication
+     * @param retryCount the retry count of the call
+     */
+    @Override
+    protected void onRPCAnswer(String destination, long rpcTime, int retryCount) {
+        super.onRPCAnswer(destination, rpcTime, retryCount);
+        if (super.getMomClient().getRPCTimout()>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000*3/5) {
+            log.debug("Slow RPC time (" + rpcTime/1000000000 + ") on request to queue " + destination);
+        } else destinationTrace.put(destination, false);
+    }
+
     /**
      * close groupID message group answer subscriptions and clean registry
      * @param groupID message group ID
@@ -297,5 +563,15 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
      * clear and close this resources
      */
     public void stop() {
+        super.failPendingRPCs("Request executor stopped !");
+        for (String corrId : splitRPCs.keySet())
+            cancelAsyncRPC(corrId, new MomException("Request executor stopped !"));
+        synchronized (this) {
+            if (asyncReplySubject!=null) {
+                ((Client) super.getMomClient()).getReplyInbox().release(asyncReplySubject);
+                asyncReplySubject = null;
+            }
+        }
+        asyncReplyChunks.clear();
     }
 }
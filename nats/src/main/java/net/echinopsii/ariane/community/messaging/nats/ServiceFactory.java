@@ -21,18 +21,17 @@ package net.echinopsii.ariane.community.messaging.nats;
 import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
+import io.nats.client.AsyncSubscription;
 import io.nats.client.Connection;
 import io.nats.client.Message;
-import io.nats.client.SyncSubscription;
+import io.nats.client.MessageHandler;
 import net.echinopsii.ariane.community.messaging.api.*;
 import net.echinopsii.ariane.community.messaging.api.MomLogger;
 import net.echinopsii.ariane.community.messaging.common.*;
 import org.slf4j.Logger;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeoutException;
 
 /**
  * ServiceFactory class extending {@link net.echinopsii.ariane.community.messaging.common.MomAkkaAbsServiceFactory} abstract class
@@ -56,17 +55,21 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
      * @param requestCB application message worker to treat request
      * @param supervisor actor supervisor
      * @param nbRoutees number of routees to be managed by the new router
+     * @param resizer the routees resizer (null for a fixed routees count)
+     * @param routingPolicy the routees routing policy (null for round robin)
+     * @param dispatcherID the Akka dispatcher id of the router and its routees (null for the default dispatcher)
      * @param cache tell if reply must be cached in case of retry
      * @return the request router ActorRef
      */
-    private static ActorRef createRequestRouter(String source, MomClient client, AppMsgWorker requestCB, ActorRef supervisor, int nbRoutees, boolean cache) {
-        Props routeeProps = MsgRequestActor.props(((Client) client), requestCB, cache);
+    private static ActorRef createRequestRouter(String source, MomClient client, AppMsgWorker requestCB, ActorRef supervisor, int nbRoutees, MomAkkaRouterResizer resizer,
+                                                MomRoutingPolicy routingPolicy, String dispatcherID, boolean cache) {
+        Props routeeProps = MomAkkaDispatcher.withDispatcher(MsgRequestActor.props(((Client) client), requestCB, cache), dispatcherID);
         String routeeNamePrefix = source + "_msgWorker";
         ActorRef sup = supervisor;
         if (sup == null) sup = ((Client)client).getMainSupervisor();
         return MomAkkaSupervisor.createNewSupervisedService(
                 sup,
-                MomAkkaRequestRouter.props(routeeProps, routeeNamePrefix, nbRoutees),
+                MomAkkaDispatcher.withDispatcher(MomAkkaRequestRouter.props(routeeProps, routeeNamePrefix, nbRoutees, resizer, routingPolicy), dispatcherID),
                 source + "_router"
         );
     }
@@ -74,6 +77,8 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
     /**
      * (internal usage)
      * Create a new request router in charge of spawning request workers. Number of request workers is defined in the client configuration.
+     * The request workers are resized according to the load if the client has a router resizer.
+     * The routing policy and the dispatcher are the ones defined on the client for this source.
      *
      * @param source request source queue
      * @param client initialized NATS Client
@@ -83,68 +88,64 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
      * @return the request router ActorRef
      */
     private static ActorRef createRequestRouter(String source, MomClient client, AppMsgWorker requestCB, ActorRef supervisor, boolean cache) {
-        return createRequestRouter(source, client, requestCB, supervisor, ((Client) client).getRouteesCountPerService(), cache);
+        return createRequestRouter(source, client, requestCB, supervisor, ((Client) client).getRouteesCountPerService(),
+                ((Client) client).getRouterResizer(), ((Client) client).getRoutingPolicy(source),
+                ((Client) client).getServiceDispatcherID(source), cache);
     }
 
     /**
      * (internal usage)
      * Create a new MomConsumer to consume message from NATS source and forward them to the request actor.
+     * <p/>
+     * The consumer is push based : it relies on a NATS asynchronous subscription which hands messages to the request
+     * actor as soon as they are received (no polling). Messages are decoded once here and sent to the request actor
+     * in a {@link MomMsgEnvelope}.
+     * <p/>
+     * If a backpressure is provided the consumer stops pulling messages from its subscription while the backpressure
+     * is paused (the NATS subscription pending limits then bound the messages kept by the client).
      *
      * @param source request source queue
      * @param requestActor request actor ref to treat the message
      * @param client initialized NATS Client
+     * @param backpressure the service backpressure (null if unbounded)
      * @return the new MomConsumer
      */
-    private static MomConsumer createConsumer(final String source, final ActorRef requestActor, final MomClient client) {
+    private static MomConsumer createConsumer(final String source, final ActorRef requestActor, final MomClient client,
+                                              final MomServiceBackpressure backpressure) {
         return new MomConsumer() {
-            private boolean isRunning = false;
+            private volatile boolean isRunning = false;
             private Connection connection = ((Client)client).getConnection();
+            private AsyncSubscription subs = null;
 
             @Override
             public void run() {
-                SyncSubscription subs = null;
                 try {
-                    subs = connection.subscribeSync(source);
                     isRunning = true;
-                    Map<String, Object> finalMessage;
-
-                    while (isRunning) {
-                        finalMessage = null;
-                        try {
-                            Message msg = subs.nextMessage(10);
-                            if (msg!=null && isRunning) {
-                                finalMessage = translator.decode(new Message[]{msg});
-                                if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && client.isMsgDebugOnTimeout())
-                                    ((MomLogger)log).setMsgTraceLevel(true);
-                                ((MomLogger)log).traceMessage("MomConsumer(" + source + ").run", finalMessage);
-                                requestActor.tell(msg, null);
-                            }
-                            if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && client.isMsgDebugOnTimeout())
-                                ((MomLogger)log).setMsgTraceLevel(false);
-                        } catch (TimeoutException e) {
-                            if (finalMessage!=null && client.isMsgDebugOnTimeout() &&
-                                    ((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE)) ((MomLogger)log).setMsgTraceLevel(false);
-                            log.debug("no message found during last 10 ms");
-                        } catch (IllegalStateException | IOException | InterruptedException e) {
-                            if (finalMessage!=null && client.isMsgDebugOnTimeout() &&
-                                    ((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE)) ((MomLogger)log).setMsgTraceLevel(false);
-                            if (isRunning) {
-                                log.error("[source: " + source + "]" + e.getMessage());
-                                if (connection.isClosed()) this.stop();
+                    subs = connection.subscribe(source, new MessageHandler() {
+                        @Override
+                        public void onMessage(Message msg) {
+                            if (!isRunning) return;
+                            if (backpressure!=null) {
+                                try {
+                                    while (!backpressure.awaitResume(100))
+                                        if (!isRunning) return;
+                                } catch (InterruptedException e) {
+                                    return;
+                                }
+                                backpressure.acquire();
                             }
+                            Map<String, Object> finalMessage = translator.decode(new Message[]{msg});
+                            boolean isTraced = ((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && client.isMsgDebugOnTimeout();
+                            if (isTraced) ((MomLogger)log).setMsgTraceLevel(true);
+                            ((MomLogger)log).traceMessage("MomConsumer(" + source + ").onMessage", finalMessage);
+                            requestActor.tell(new MomMsgEnvelope<>(msg, finalMessage, backpressure), null);
+                            if (isTraced) ((MomLogger)log).setMsgTraceLevel(false);
                         }
-                    }
+                    });
                 } catch (Exception e) {
+                    isRunning = false;
+                    log.error("[source: " + source + "] unable to subscribe : " + e.getMessage());
                     e.printStackTrace();
-                } finally {
-                    if (!connection.isClosed() && subs!=null) {
-                        try {
-                            subs.unsubscribe();
-                            subs.close();
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
                 }
             }
 
@@ -155,12 +156,20 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
             @Override
             public void start() {
-                new Thread(this, source + "_consumer").start();
+                this.run();
             }
 
             @Override
             public void stop() {
                 isRunning = false;
+                if (!connection.isClosed() && subs!=null) {
+                    try {
+                        subs.unsubscribe();
+                        subs.close();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
             }
         };
     }
@@ -184,13 +193,14 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
                 final String sessionSource = groupID + "-" + source;
                 ActorRef msgGroupSupervisor = ((Client)client).getMsgGroupSupervisor(groupID);
                 ActorRef runnableReqActor;
-                if (msgGroupSupervisor!=null) runnableReqActor = ServiceFactory.createRequestRouter(source, client, requestCB, msgGroupSupervisor, 2, true);
+                if (msgGroupSupervisor!=null) runnableReqActor = ServiceFactory.createRequestRouter(source, client, requestCB, msgGroupSupervisor, 2, null, null, ((Client)client).getServiceDispatcherID(source), true);
                 else {
                     log.warn("No supervisor found for group " + groupID + ". Use main mom supervisor.");
-                    runnableReqActor = ServiceFactory.createRequestRouter(sessionSource, client, requestCB, ((Client)client).getMainSupervisor(), 2, true);
+                    runnableReqActor = ServiceFactory.createRequestRouter(sessionSource, client, requestCB, ((Client)client).getMainSupervisor(), 2, null, null, ((Client)client).getServiceDispatcherID(source), true);
                 }
                 msgGroupActorRegistry.put(groupID, runnableReqActor);
-                msgGroupConsumersRegistry.put(groupID, ServiceFactory.createConsumer(sessionSource, runnableReqActor, client));
+                msgGroupConsumersRegistry.put(groupID, ServiceFactory.createConsumer(sessionSource, runnableReqActor, client,
+                        ((Client)client).createServiceBackpressure(sessionSource)));
                 msgGroupConsumersRegistry.get(groupID).start();
             }
 
@@ -233,8 +243,9 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
         MomMsgGroupServiceMgr msgGroupServiceMgr;
 
         if (connection != null && !connection.isClosed()) {
+            MomServiceBackpressure backpressure = ((Client)super.getMomClient()).createServiceBackpressure(source);
             requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), requestWorker, null, true);
-            consumer = ServiceFactory.createConsumer(source, requestActor, super.getMomClient());
+            consumer = ServiceFactory.createConsumer(source, requestActor, super.getMomClient(), backpressure);
             consumer.start();
             msgGroupServiceMgr = ServiceFactory.createMsgGroupServiceManager(source, requestWorker, super.getMomClient());
             ret = new MomAkkaService().setMsgWorker(requestActor).setConsumer(consumer).setClient((Client) super.getMomClient()).
@@ -261,7 +272,8 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
         if (connection != null && !connection.isClosed()) {
             requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), requestWorker, null, false);
-            consumer = ServiceFactory.createConsumer(source, requestActor, super.getMomClient());
+            consumer = ServiceFactory.createConsumer(source, requestActor, super.getMomClient(),
+                    ((Client)super.getMomClient()).createServiceBackpressure(source));
             consumer.start();
 
             ret = new MomAkkaService().setMsgWorker(requestActor).setConsumer(consumer).setClient(super.getMomClient());
@@ -285,8 +297,9 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
         MomAkkaService ret = null;
         Connection  connection   = ((Client)super.getMomClient()).getConnection();
         if (connection != null && !connection.isClosed()) {
-            ActorRef feeder = super.getMomClient().getActorSystem().actorOf(MsgFeederActor.props(
-                            ((Client) super.getMomClient()), baseDestination, selector, feederWorker)
+            ActorRef feeder = super.getMomClient().getActorSystem().actorOf(MomAkkaDispatcher.withDispatcher(MsgFeederActor.props(
+                            ((Client) super.getMomClient()), baseDestination, selector, feederWorker),
+                            ((Client) super.getMomClient()).getServiceDispatcherID(baseDestination))
             );
             ret = new MomAkkaService().setClient(super.getMomClient()).setMsgFeeder(feeder, interval);
             super.getServices().add(ret);
@@ -311,8 +324,11 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
         if (connection != null && !connection.isClosed()) {
             final String subject = baseSource + ((selector !=null && !selector.equals("")) ? "." + selector : ".*");
-            subsActor = super.getMomClient().getActorSystem().actorOf(MsgSubsActor.props(feedWorker), subject + "_msgWorker");
-            consumer = ServiceFactory.createConsumer(subject, subsActor, super.getMomClient());
+            subsActor = super.getMomClient().getActorSystem().actorOf(
+                    MomAkkaDispatcher.withDispatcher(MsgSubsActor.props(((Client) super.getMomClient()), feedWorker), ((Client) super.getMomClient()).getServiceDispatcherID(baseSource)),
+                    subject + "_msgWorker"
+            );
+            consumer = ServiceFactory.createConsumer(subject, subsActor, super.getMomClient(), null);
             consumer.start();
             ret = new MomAkkaService().setMsgWorker(subsActor).setConsumer(consumer).setClient(super.getMomClient());
             super.getServices().add(ret);
@@ -19,9 +19,15 @@
 
 package net.echinopsii.community.messaging.nats;
 
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomAsyncPublisher;
+import net.echinopsii.ariane.community.messaging.api.MomBackpressureListener;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomException;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
 import net.echinopsii.ariane.community.messaging.api.MomServiceFactory;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsAppHPMsgSrvWorker;
+import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsClient;
 import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import org.junit.AfterClass;
@@ -31,10 +37,14 @@ import org.junit.Test;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 
 public class FireAndForgetTest {
@@ -125,4 +135,94 @@ public class FireAndForgetTest {
             assertTrue(test.isOK());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFireAndForgetBatch() throws InterruptedException {
+        if (client!=null) {
+            TestMsgWorker test = new TestMsgWorker(client.getServiceFactory(), sendedMsgBody.getBytes());
+            client.getServiceFactory().requestService("FAF_BATCH_SUBJECT", test);
+
+            List<Map<String, Object>> messages = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> message = new HashMap<String, Object>();
+                message.put(MomMsgTranslator.MSG_BODY, sendedMsgBody);
+                messages.add(message);
+            }
+            List<Map<String, Object>> failedMessages = client.createRequestExecutor().FAFBatch(messages, "FAF_BATCH_SUBJECT");
+
+            Thread.sleep(1000);
+            assertTrue(failedMessages.isEmpty());
+            assertTrue(test.isOK());
+        }
+    }
+
+    @Test
+    public void testAsyncFireAndForget() throws InterruptedException, MomException {
+        if (client!=null) {
+            TestMsgWorker test = new TestMsgWorker(client.getServiceFactory(), sendedMsgBody.getBytes());
+            client.getServiceFactory().requestService("FAF_ASYNC_SUBJECT", test);
+
+            MomAsyncPublisher publisher = client.getAsyncPublisher();
+            long publishedCount = publisher.getPublishedCount();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> message = new HashMap<String, Object>();
+                message.put(MomMsgTranslator.MSG_BODY, sendedMsgBody);
+                publisher.publish(message, "FAF_ASYNC_SUBJECT");
+            }
+
+            Thread.sleep(1000);
+            assertTrue(publisher.getQueueDepth() == 0);
+            assertTrue(publisher.getPublishedCount() == publishedCount + 10);
+            assertTrue(test.isOK());
+        }
+    }
+
+    @Test
+    public void testBackpressuredFireAndForget() throws InterruptedException {
+        if (client!=null) {
+            final AtomicInteger pauses = new AtomicInteger(0);
+            final AtomicInteger resumes = new AtomicInteger(0);
+            final AtomicInteger treated = new AtomicInteger(0);
+            ((MomAkkaAbsClient)client).setServiceMaxInFlight(8);
+            ((MomAkkaAbsClient)client).setServiceResumeInFlight(2);
+            ((MomAkkaAbsClient)client).setBackpressureListener(new MomBackpressureListener() {
+                @Override
+                public void onPause(String service, int inFlight) {
+                    pauses.incrementAndGet();
+                }
+
+                @Override
+                public void onResume(String service, int inFlight) {
+                    resumes.incrementAndGet();
+                }
+            });
+            client.getServiceFactory().requestService("FAF_BACKPRESSURE_SUBJECT", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                    treated.incrementAndGet();
+                    return null;
+                }
+            });
+            ((MomAkkaAbsClient)client).setServiceMaxInFlight(1024);
+            ((MomAkkaAbsClient)client).setServiceResumeInFlight(-1);
+            ((MomAkkaAbsClient)client).setBackpressureListener(null);
+
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            for (int i = 0; i < 100; i++) {
+                Map<String, Object> message = new HashMap<String, Object>();
+                message.put(MomMsgTranslator.MSG_BODY, sendedMsgBody);
+                requestExecutor.FAF(message, "FAF_BACKPRESSURE_SUBJECT");
+            }
+
+            for (int i = 0; i < 100 && treated.get() < 100; i++) Thread.sleep(100);
+            assertEquals(100, treated.get());
+            assertTrue(pauses.get() > 0);
+            assertEquals(pauses.get(), resumes.get());
+        }
+    }
+}
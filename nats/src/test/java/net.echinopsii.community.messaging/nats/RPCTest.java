@@ -21,18 +21,31 @@ package net.echinopsii.community.messaging.nats;
 
 import net.echinopsii.ariane.community.messaging.api.*;
 import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsAppHPMsgSrvWorker;
+import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsClient;
 import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
+import net.echinopsii.ariane.community.messaging.common.MomRPCResponseCache;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.assertTrue;
 
@@ -136,6 +149,215 @@ public class RPCTest {
         }
     }
 
+    @Test
+    public void testRPCAsync() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            TestReplyWorker   replyWorker   = new TestReplyWorker(sendedReplyBody.getBytes());
+
+            client.getServiceFactory().requestService("RPC_ASYNC_SUBJECT", requestWorker);
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            Future<Map<String, Object>> futureReply = client.createRequestExecutor().RPCAsync(request, "RPC_ASYNC_SUBJECT", replyWorker);
+            Await.result(futureReply, Duration.create(10, TimeUnit.SECONDS));
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testConcurrentRPCAsync() throws Exception {
+        if (client!=null) {
+            client.getServiceFactory().requestService("RPC_ASYNC_ECHO_SUBJECT", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, message.get(MomMsgTranslator.MSG_BODY));
+                    return reply;
+                }
+            });
+
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            List<Future<Map<String, Object>>> futureReplies = new ArrayList<Future<Map<String, Object>>>();
+            for (int i = 0; i < 50; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, ("request " + i).getBytes());
+                futureReplies.add(requestExecutor.RPCAsync(request, "RPC_ASYNC_ECHO_SUBJECT", null));
+            }
+            for (int i = 0; i < 50; i++) {
+                Map<String, Object> reply = Await.result(futureReplies.get(i), Duration.create(10, TimeUnit.SECONDS));
+                assertTrue(Arrays.equals(("request " + i).getBytes(), (byte[]) reply.get(MomMsgTranslator.MSG_BODY)));
+            }
+        }
+    }
+
+    @Test
+    public void testRPCAsyncLateReply() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            TestReplyWorker   replyWorker   = new TestReplyWorker(sendedReplyBody.getBytes());
+            final AtomicInteger lateRepliesCount = new AtomicInteger(0);
+
+            client.getServiceFactory().requestService("RPC_ASYNC_LATE_SUBJECT", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    lateRepliesCount.incrementAndGet();
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, "late".getBytes());
+                    return reply;
+                }
+            });
+            client.getServiceFactory().requestService("RPC_ASYNC_FAST_SUBJECT", requestWorker);
+
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            int rpcRetry = ((MomAkkaAbsClient)client).getRPCRetry();
+            long rpcTimeoutMax = ((MomAkkaAbsClient)client).getRPCTimeoutMax();
+            ((MomAkkaAbsClient)client).setRPCRetry(0);
+            ((MomAkkaAbsClient)client).setRPCTimeoutMax(100);
+            try {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody.getBytes());
+                boolean timedOut = false;
+                try {
+                    Await.result(requestExecutor.RPCAsync(request, "RPC_ASYNC_LATE_SUBJECT", null), Duration.create(10, TimeUnit.SECONDS));
+                } catch (TimeoutException e) {
+                    timedOut = true;
+                }
+                assertTrue(timedOut);
+            } finally {
+                ((MomAkkaAbsClient)client).setRPCRetry(rpcRetry);
+                ((MomAkkaAbsClient)client).setRPCTimeoutMax(rpcTimeoutMax);
+            }
+
+            while (lateRepliesCount.get() < 1) Thread.sleep(100);
+            Thread.sleep(200);
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody.getBytes());
+            Map<String, Object> reply = Await.result(requestExecutor.RPCAsync(request, "RPC_ASYNC_FAST_SUBJECT", replyWorker), Duration.create(10, TimeUnit.SECONDS));
+            assertTrue(reply!=null);
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testRPCBatch() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            TestReplyWorker   replyWorker   = new TestReplyWorker(sendedReplyBody.getBytes());
+
+            client.getServiceFactory().requestService("RPC_BATCH_SUBJECT", requestWorker);
+
+            List<Map<String, Object>> requests = new ArrayList<Map<String, Object>>();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                requests.add(request);
+            }
+            List<MomRPCResult> results = client.createRequestExecutor().RPCBatch(requests, "RPC_BATCH_SUBJECT", replyWorker);
+
+            assertTrue(results.size() == requests.size());
+            for (MomRPCResult result : results)
+                assertTrue(result.isSuccess());
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testRPCScatterGather() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            TestReplyWorker   replyWorker   = new TestReplyWorker(sendedReplyBody.getBytes());
+
+            List<String> destinations = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                client.getServiceFactory().requestService("RPC_SG_SUBJECT_" + i, requestWorker);
+                destinations.add("RPC_SG_SUBJECT_" + i);
+            }
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            List<MomRPCResult> results = client.createRequestExecutor().RPCScatterGather(request, destinations, MomGatherPolicy.all(), replyWorker);
+            assertTrue(results.size() == destinations.size());
+            for (MomRPCResult result : results)
+                assertTrue(result.isSuccess());
+
+            results = client.createRequestExecutor().RPCScatterGather(request, destinations, MomGatherPolicy.first(), replyWorker);
+            int successCount = 0;
+            for (MomRPCResult result : results)
+                if (result.isSuccess()) successCount++;
+            assertTrue(successCount >= 1);
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testSplitRPCBatchDeadline() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), highPayloadBody, sendedReplyBody.getBytes()) {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    Map<String, Object> reply = super.apply(message);
+                    if (OK) {
+                        try {
+                            Thread.sleep(3000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return reply;
+                }
+            };
+            client.getServiceFactory().requestService("RPC_SPLIT_BATCH_SUBJECT", requestWorker);
+
+            long rpcTimeoutMax = ((MomAkkaAbsClient)client).getRPCTimeoutMax();
+            ((MomAkkaAbsClient)client).setRPCTimeoutMax(1000);
+            try {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, highPayloadBody);
+                long beginBatch = System.nanoTime();
+                List<MomRPCResult> results = client.createRequestExecutor().RPCBatch(Collections.singletonList(request), "RPC_SPLIT_BATCH_SUBJECT", null);
+                // the split call is cancelled at the batch deadline instead of being awaited
+                assertTrue(results.get(0).getStatus() == MomRPCResult.Status.TIMEOUT);
+                assertTrue(System.nanoTime() - beginBatch < TimeUnit.MILLISECONDS.toNanos(2500));
+            } finally {
+                ((MomAkkaAbsClient)client).setRPCTimeoutMax(rpcTimeoutMax);
+            }
+        }
+    }
+
+    @Test
+    public void testHedgedRPC() throws InterruptedException, TimeoutException, IOException, MomException {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            TestReplyWorker   replyWorker   = new TestReplyWorker(sendedReplyBody.getBytes());
+
+            client.getServiceFactory().requestService("RPC_HEDGED_SUBJECT", requestWorker);
+
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            requestExecutor.setHedgingPolicy(MomHedgingPolicy.withDelay(1, 1.0));
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                assertTrue(requestExecutor.RPC(request, "RPC_HEDGED_SUBJECT", replyWorker)!=null);
+            }
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
     @Test
     public void testHighPayloadRPC_1() throws InterruptedException, TimeoutException, IOException, MomException {
         if (client!=null) {
@@ -214,4 +436,267 @@ public class RPCTest {
         }
     }
 
+    @Test
+    public void testConcurrentHighPayloadRPC() throws InterruptedException {
+        if (client!=null) {
+            client.getServiceFactory().requestService("RPC_SUBJECT_SPLIT_ENVELOPE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, message.get(MomMsgTranslator.MSG_BODY));
+                    return reply;
+                }
+            });
+
+            final AtomicInteger successCount = new AtomicInteger(0);
+            final CountDownLatch done = new CountDownLatch(3);
+            for (int t = 0; t < 3; t++) {
+                final byte[] body = new byte[1500000];
+                Arrays.fill(body, (byte) t);
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Map<String, Object> request = new HashMap<String, Object>();
+                            request.put(MomMsgTranslator.MSG_BODY, body);
+                            Map<String, Object> reply = client.createRequestExecutor().RPC(request, "RPC_SUBJECT_SPLIT_ENVELOPE", null);
+                            if (reply!=null && Arrays.equals(body, (byte[]) reply.get(MomMsgTranslator.MSG_BODY)))
+                                successCount.incrementAndGet();
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            assertTrue(done.await(60, TimeUnit.SECONDS));
+            assertTrue(successCount.get() == 3);
+        }
+    }
+
+    @Test
+    public void testServiceConsumerRestart() throws InterruptedException, TimeoutException, IOException, MomException {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            MomService service = client.getServiceFactory().requestService("RPC_RESTART_SUBJECT", requestWorker);
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            assertTrue(requestExecutor.RPC(request, "RPC_RESTART_SUBJECT", null)!=null);
+
+            MomConsumer consumer = service.getConsumer();
+            consumer.stop();
+            assertTrue(!consumer.isRunning());
+            consumer.start();
+            assertTrue(consumer.isRunning());
+
+            request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            assertTrue(requestExecutor.RPC(request, "RPC_RESTART_SUBJECT", null)!=null);
+            assertTrue(requestWorker.isOK());
+
+            service.stop();
+            assertTrue(!consumer.isRunning());
+        }
+    }
+
+    @Test
+    public void testRPCCircuitBreaker() throws InterruptedException, IOException {
+        if (client!=null) {
+            final AtomicInteger openCount = new AtomicInteger(0);
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            requestExecutor.setCircuitBreakerListener(new MomCircuitBreakerListener() {
+                @Override
+                public void onStateChange(String destination, State from, State to) {
+                    if (to == State.OPEN) openCount.incrementAndGet();
+                }
+            });
+
+            ((MomAkkaAbsClient)client).setRPCCircuitBreaker(true);
+            ((MomAkkaAbsClient)client).setRPCTimeoutMax(100);
+            try {
+                boolean failedFast = false;
+                for (int i = 0; i < 10 && !failedFast; i++) {
+                    Map<String, Object> request = new HashMap<String, Object>();
+                    request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                    try {
+                        requestExecutor.RPC(request, "RPC_NO_SERVICE_SUBJECT", null);
+                    } catch (TimeoutException e) {
+                        // no service : the circuit is still closed
+                    } catch (MomException e) {
+                        failedFast = true;
+                    }
+                }
+                assertTrue(failedFast);
+                assertTrue(openCount.get() == 1);
+                assertTrue(requestExecutor.getCircuitBreakerState("RPC_NO_SERVICE_SUBJECT") == MomCircuitBreakerListener.State.OPEN);
+            } finally {
+                ((MomAkkaAbsClient)client).setRPCCircuitBreaker(false);
+                ((MomAkkaAbsClient)client).setRPCTimeoutMax(0);
+            }
+        }
+    }
+
+    @Test
+    public void testPooledRPC() throws InterruptedException {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker(client.getServiceFactory(), sendedRequestBody.getBytes(), sendedReplyBody.getBytes());
+            final TestReplyWorker replyWorker = new TestReplyWorker(sendedReplyBody.getBytes());
+
+            client.getServiceFactory().requestService("RPC_POOLED_SUBJECT", requestWorker);
+
+            final AtomicInteger successCount = new AtomicInteger(0);
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                            try {
+                                Map<String, Object> request = new HashMap<String, Object>();
+                                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                                if (requestExecutor.RPC(request, "RPC_POOLED_SUBJECT", replyWorker)!=null) successCount.incrementAndGet();
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            } finally {
+                                client.returnRequestExecutor(requestExecutor);
+                            }
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) caller.join();
+
+            assertTrue(successCount.get() == 80);
+            assertTrue(((MomAkkaAbsClient)client).getRequestExecutorPool().getLeasedCount() == 0);
+            assertTrue(((MomAkkaAbsClient)client).getRequestExecutorPool().getIdleCount() <= 8);
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testCoalescedRPC() throws InterruptedException {
+        if (client!=null) {
+            final AtomicInteger requestsCount = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_COALESCED_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    requestsCount.incrementAndGet();
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, sendedReplyBody.getBytes());
+                    return reply;
+                }
+            });
+
+            final TestReplyWorker replyWorker = new TestReplyWorker(sendedReplyBody.getBytes());
+            final CountDownLatch start = new CountDownLatch(1);
+            final Set<Map<String, Object>> replies = Collections.synchronizedSet(
+                    Collections.newSetFromMap(new IdentityHashMap<Map<String, Object>, Boolean>())
+            );
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                        requestExecutor.setCoalescingPolicy(MomCoalescingPolicy.onFields("OPERATION"));
+                        try {
+                            Map<String, Object> request = new HashMap<String, Object>();
+                            request.put("OPERATION", "GET_ALL");
+                            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody.getBytes());
+                            start.await();
+                            Map<String, Object> reply = requestExecutor.RPC(request, "RPC_COALESCED_QUEUE", replyWorker);
+                            if (reply!=null) replies.add(reply);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        } finally {
+                            client.returnRequestExecutor(requestExecutor);
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            start.countDown();
+            for (Thread caller : callers) caller.join();
+
+            assertTrue(replies.size() == 8);
+            assertTrue(requestsCount.get() < 8);
+            assertTrue(((MomAkkaAbsClient)client).getRPCCoalescer().getFollowersCount() > 0);
+            assertTrue(((MomAkkaAbsClient)client).getRPCCoalescer().getInFlightCount() == 0);
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testCachedRPC() throws InterruptedException, TimeoutException, IOException, MomException {
+        if (client!=null) {
+            final AtomicInteger requestsCount = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_CACHED_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    requestsCount.incrementAndGet();
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, sendedReplyBody.getBytes());
+                    return reply;
+                }
+            });
+
+            MomRPCResponseCache cache = ((MomAkkaAbsClient)client).getRPCResponseCache();
+            cache.configure("RPC_CACHED_QUEUE", "GET", 60000);
+            MomService invalidationService = cache.subscribeInvalidations(client.getServiceFactory(), "RPC_CACHED_QUEUE_CHANGES", null, "RPC_CACHED_QUEUE");
+
+            TestReplyWorker replyWorker = new TestReplyWorker(sendedReplyBody.getBytes());
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            for (int i = 0; i < 3; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomRPCResponseCache.OPERATION, "GET");
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody.getBytes());
+                assertTrue(requestExecutor.RPC(request, "RPC_CACHED_QUEUE", replyWorker)!=null);
+            }
+            assertTrue(requestsCount.get() == 1);
+            assertTrue(cache.getHitsCount() >= 2);
+            assertTrue(replyWorker.isOK());
+
+            final AtomicInteger changesCount = new AtomicInteger(0);
+            MomService changesFeeder = client.getServiceFactory().feederService("RPC_CACHED_QUEUE_CHANGES", null, 100, new AppMsgFeeder() {
+                @Override
+                public Map<String, Object> apply() {
+                    changesCount.incrementAndGet();
+                    Map<String, Object> change = new HashMap<String, Object>();
+                    change.put(MomRPCResponseCache.OPERATION, "GET");
+                    return change;
+                }
+
+                @Override
+                public int getInterval() {
+                    return 100;
+                }
+            });
+            while (changesCount.get() < 2) Thread.sleep(100);
+            changesFeeder.stop();
+            Thread.sleep(200);
+
+            assertTrue(cache.getEvictionsCount() >= 1);
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomRPCResponseCache.OPERATION, "GET");
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody.getBytes());
+            assertTrue(requestExecutor.RPC(request, "RPC_CACHED_QUEUE", replyWorker)!=null);
+            assertTrue(requestsCount.get() == 2);
+
+            invalidationService.stop();
+            cache.unconfigure("RPC_CACHED_QUEUE", null);
+        }
+    }
 }
\ No newline at end of file
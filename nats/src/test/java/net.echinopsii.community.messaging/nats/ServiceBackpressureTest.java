@@ -0,0 +1,64 @@
+/**
+ * Messaging - NATS Implementation
+ * Service backpressure test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.community.messaging.nats;
+
+import net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope;
+import net.echinopsii.ariane.community.messaging.common.MomServiceBackpressure;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class ServiceBackpressureTest {
+
+    @Test
+    public void testDroppedEnvelopesReleaseSlots() {
+        MomServiceBackpressure backpressure = new MomServiceBackpressure("BACKPRESSURE_SUBJECT", 4, 2, null);
+        final AtomicInteger dropped = new AtomicInteger(0);
+        List<MomMsgEnvelope<String>> envelopes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            backpressure.acquire();
+            envelopes.add(new MomMsgEnvelope<>("raw-" + i, new HashMap<String, Object>(), backpressure, new Runnable() {
+                @Override
+                public void run() {
+                    dropped.incrementAndGet();
+                }
+            }));
+        }
+        assertTrue(backpressure.isPaused());
+
+        envelopes.get(0).release();
+        envelopes.get(0).release();
+        assertEquals(3, backpressure.getInFlight());
+        for (MomMsgEnvelope<String> envelope : envelopes.subList(1, 4)) {
+            envelope.drop();
+            envelope.drop();
+        }
+        assertEquals(0, backpressure.getInFlight());
+        assertFalse(backpressure.isPaused());
+        assertEquals(3, dropped.get());
+    }
+}
@@ -23,6 +23,10 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
 import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
 import net.echinopsii.ariane.community.messaging.api.MomService;
@@ -47,6 +51,10 @@ public class Client extends MomAkkaAbsClient implements MomClient {
     public static final String RBQ_VERSION_KEY     = "version";
 
     private Connection        connection = null;
+    private TopologyRegistry  topologyRegistry = new TopologyRegistry();
+    private boolean           directReplyTo = true;
+    private int               servicePrefetchPerRoutee = 2;
+    private long              serviceAckInterval = 10;
 
     /**
      * Initialize RabbitMQ connection with provided properties and this client ServiceFactory.
@@ -61,13 +69,41 @@ public class Client extends MomAkkaAbsClient implements MomClient {
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_PSWD}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_MSG_DEBUG_ON_TIMEOUT}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_NB_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZER}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MIN_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_MAX_PER_SERVICE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTEES_RESIZE_INTERVAL}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_LOGIC}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_ROUTING_HASH_FIELD}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHERS}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_DISPATCHER_PREFIX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_SERVICE_DISPATCHER_PREFIX}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_ADAPTIVE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MIN}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_TIMEOUT_FACTOR}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BACKOFF_MAX}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_RETRY_BUDGET}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_TIMEOUTS}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_ERROR_RATE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_RPC_CIRCUIT_BREAKER_OPEN_TIME}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_REQUEST_EXECUTOR_POOL_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_BUFFER_SIZE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_WINDOW}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#MOM_CLI_FAF_ASYNC_OVERFLOW}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_INFORMATION_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_PRODUCT_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_PLATFORM_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_COPYRIGHT_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_VERSION_KEY}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_DIRECT_REPLY_TO}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_SERVICE_PREFETCH_PER_ROUTEE}
+     * {@link net.echinopsii.ariane.community.messaging.api.MomClient#RBQ_SERVICE_ACK_INTERVAL}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#ARIANE_APP_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#ARIANE_CMP_KEY}
      * {@link net.echinopsii.ariane.community.messaging.api.MomClient#ARIANE_OSI_KEY}
@@ -86,6 +122,16 @@ public class Client extends MomAkkaAbsClient implements MomClient {
             super.setMsgDebugOnTimeout(true);
         if (properties.get(MOM_CLI_ROUTEES_NB_PER_SERVICE)!=null)
             super.setRouteesCountPerService(new Integer((String) properties.get(MOM_CLI_ROUTEES_NB_PER_SERVICE)));
+        super.initRPCConfiguration(properties);
+        super.initFAFConfiguration(properties);
+        super.initServiceConfiguration(properties);
+        if (properties.get(RBQ_DIRECT_REPLY_TO)!=null &&
+                (((String)properties.get(RBQ_DIRECT_REPLY_TO)).toLowerCase().equals("false")))
+            this.setDirectReplyTo(false);
+        if (properties.get(RBQ_SERVICE_PREFETCH_PER_ROUTEE)!=null)
+            this.setServicePrefetchPerRoutee(new Integer((String) properties.get(RBQ_SERVICE_PREFETCH_PER_ROUTEE)));
+        if (properties.get(RBQ_SERVICE_ACK_INTERVAL)!=null)
+            this.setServiceAckInterval(new Long((String) properties.get(RBQ_SERVICE_ACK_INTERVAL)));
         try {
             if (Class.forName("akka.osgi.ActorSystemActivator")!=null && MessagingAkkaSystemActivator.getSystem() != null)
                 super.setActorSystem(MessagingAkkaSystemActivator.getSystem());
@@ -127,6 +173,19 @@ public class Client extends MomAkkaAbsClient implements MomClient {
         }
 
         connection = factory.newConnection();
+        connection.addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdownCompleted(ShutdownSignalException cause) {
+                topologyRegistry.invalidate();
+            }
+        });
+        if (connection instanceof Recoverable)
+            ((Recoverable) connection).addRecoveryListener(new RecoveryListener() {
+                @Override
+                public void handleRecovery(Recoverable recoverable) {
+                    topologyRegistry.invalidate();
+                }
+            });
 
         super.setServiceFactory(new ServiceFactory(this));
     }
@@ -138,8 +197,10 @@ public class Client extends MomAkkaAbsClient implements MomClient {
      */
     @Override
     public void close() throws IOException {
+        super.closeAsyncPublisher();
         for (MomRequestExecutor rexec : super.getRequestExecutors())
             ((RequestExecutor)rexec).stop();
+        super.getRequestExecutorPool().clear();
         super.preCloseMsgGroupSupervisors();
         super.preCloseMainSupervisor();
         if (super.getServiceFactory()!=null)
@@ -147,6 +208,7 @@ public class Client extends MomAkkaAbsClient implements MomClient {
                 service.stop();
         super.closeMsgGroupSupervisors();
         super.closeMainSupervisor();
+        super.closeServiceReplyCache();
         if (connection.isOpen())
             connection.close();
     }
@@ -167,6 +229,62 @@ public class Client extends MomAkkaAbsClient implements MomClient {
         return connection;
     }
 
+    /**
+     * @return the topology registry recording the RabbitMQ resources declared through this client connection
+     * (invalidated on connection shutdown or recovery)
+     */
+    public TopologyRegistry getTopologyRegistry() {
+        return topologyRegistry;
+    }
+
+    /**
+     * @return true if RPC without answer source are answered through RabbitMQ direct reply-to (amq.rabbitmq.reply-to)
+     * else false (a temporary reply queue is declared for each RPC)
+     */
+    public boolean isDirectReplyTo() {
+        return directReplyTo;
+    }
+
+    /**
+     * Set the RPC reply mode of the RequestExecutor which will be created from now on.
+     * @param directReplyTo true to use RabbitMQ direct reply-to (default) else false
+     */
+    public void setDirectReplyTo(boolean directReplyTo) {
+        this.directReplyTo = directReplyTo;
+    }
+
+    /**
+     * @return the number of unacknowledged requests a request service may hold per routee. The service channel
+     * prefetch is this value multiplied by the service routees count.
+     */
+    public int getServicePrefetchPerRoutee() {
+        return servicePrefetchPerRoutee;
+    }
+
+    /**
+     * Set the prefetch window per routee of the request services which will be created from now on.
+     * @param servicePrefetchPerRoutee number of unacknowledged requests per routee (default 2, min 1)
+     */
+    public void setServicePrefetchPerRoutee(int servicePrefetchPerRoutee) {
+        this.servicePrefetchPerRoutee = (servicePrefetchPerRoutee > 0) ? servicePrefetchPerRoutee : 1;
+    }
+
+    /**
+     * @return the interval (ms) during which request services coalesce their acknowledgements
+     * (0 : each request is acknowledged as soon as treated)
+     */
+    public long getServiceAckInterval() {
+        return serviceAckInterval;
+    }
+
+    /**
+     * Set the acknowledgement coalescing interval of the request services which will be created from now on.
+     * @param serviceAckInterval coalescing interval in ms (default 10, 0 to disable coalescing)
+     */
+    public void setServiceAckInterval(long serviceAckInterval) {
+        this.serviceAckInterval = (serviceAckInterval > 0) ? serviceAckInterval : 0;
+    }
+
     /**
      * Create a new RequestExecutor and add it into the client request executors registry
      * @return the fresh new created MomRequestExecutor
@@ -0,0 +1,183 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Request service deliveries acknowledgements coalescer
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import akka.actor.ActorSystem;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import org.slf4j.Logger;
+import scala.concurrent.duration.Duration;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DeliveryAcker class coalesces the acknowledgements of a request service channel.
+ * <p/>
+ * The service consumer declares each delivery tag as soon as received and the request routees declare it completed
+ * once the request is treated (in any order). A flush is scheduled on the actor system scheduler a short interval
+ * after the first completion : it acknowledges with multiple=true the highest delivery tag below which every delivery
+ * is completed. Concurrent routees then cost one basic.ack per interval instead of one per request. The deliveries
+ * completed out of order (behind a delivery still in treatment) are acknowledged individually so that a slow or lost
+ * delivery never holds the acknowledgements of the next ones (and the channel prefetch window).
+ * <br/> A delivery which will never be treated (dropped by a stopped router or routee) is abandoned : it is rejected
+ * and requeued by the broker.
+ * <p/>
+ * If the interval is 0 each completed delivery is acknowledged immediately (multiple=false).
+ * <br/> Delivery tags are channel scoped : the pending tags are forgotten on channel shutdown or recovery.
+ */
+public class DeliveryAcker {
+    private static final Logger log = MomLoggerFactory.getLogger(DeliveryAcker.class);
+
+    private Channel channel;
+    private ActorSystem system;
+    private long interval;
+
+    private ConcurrentSkipListSet<Long> pendingTags = new ConcurrentSkipListSet<>();
+    private Set<Long> completedTags = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    private AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * @param channel the request service channel (the channel the deliveries are consumed from)
+     * @param system the actor system providing the flush scheduler
+     * @param interval the acknowledgements coalescing interval in ms (0 : no coalescing)
+     */
+    public DeliveryAcker(Channel channel, ActorSystem system, long interval) {
+        this.channel = channel;
+        this.system = system;
+        this.interval = interval;
+        channel.addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdownCompleted(ShutdownSignalException cause) {
+                reset();
+            }
+        });
+        if (channel instanceof Recoverable)
+            ((Recoverable) channel).addRecoveryListener(new RecoveryListener() {
+                @Override
+                public void handleRecovery(Recoverable recoverable) {
+                    reset();
+                }
+            });
+    }
+
+    /**
+     * @return the request service channel
+     */
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * declare a delivery received by the service consumer (must be called before the delivery is forwarded to routees)
+     * @param deliveryTag the delivery tag
+     */
+    public void delivered(long deliveryTag) {
+        if (interval > 0) pendingTags.add(deliveryTag);
+    }
+
+    /**
+     * declare a delivery treated by a routee. The acknowledgement is sent immediately or on next flush.
+     * @param deliveryTag the delivery tag
+     */
+    public void completed(long deliveryTag) {
+        if (interval > 0) {
+            if (!pendingTags.contains(deliveryTag)) return;
+            completedTags.add(deliveryTag);
+            if (flushScheduled.compareAndSet(false, true))
+                system.scheduler().scheduleOnce(
+                        Duration.create(interval, TimeUnit.MILLISECONDS),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                flushScheduled.set(false);
+                                flush();
+                            }
+                        },
+                        system.dispatcher()
+                );
+        } else synchronized (this) {
+            try {
+                if (channel.isOpen()) channel.basicAck(deliveryTag, false);
+            } catch (IOException | ShutdownSignalException e) {
+                log.error("Unable to ack delivery " + deliveryTag + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * declare a delivery which will never be treated : it is rejected and requeued by the broker.
+     * @param deliveryTag the delivery tag
+     */
+    public synchronized void abandon(long deliveryTag) {
+        if (interval > 0 && !pendingTags.remove(deliveryTag)) return;
+        completedTags.remove(deliveryTag);
+        try {
+            if (channel.isOpen()) channel.basicNack(deliveryTag, false, true);
+        } catch (IOException | ShutdownSignalException e) {
+            log.error("Unable to requeue delivery " + deliveryTag + " : " + e.getMessage());
+        }
+        if (interval > 0) flush();
+    }
+
+    /**
+     * acknowledge (multiple=true) the highest delivery tag below which every delivery is completed, then the
+     * deliveries completed out of order one by one
+     */
+    public synchronized void flush() {
+        long ackTag = -1;
+        while (!pendingTags.isEmpty()) {
+            Long first = pendingTags.first();
+            if (!completedTags.remove(first)) break;
+            pendingTags.remove(first);
+            ackTag = first;
+        }
+        try {
+            if (ackTag > 0 && channel.isOpen()) channel.basicAck(ackTag, true);
+            for (Long completedTag : completedTags) {
+                completedTags.remove(completedTag);
+                if (pendingTags.remove(completedTag) && channel.isOpen()) channel.basicAck(completedTag, false);
+            }
+        } catch (IOException | ShutdownSignalException e) {
+            log.error("Unable to ack deliveries up to " + ackTag + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the count of deliveries not acknowledged yet
+     */
+    public int getPendingCount() {
+        return pendingTags.size();
+    }
+
+    private synchronized void reset() {
+        pendingTags.clear();
+        completedTags.clear();
+    }
+}
@@ -73,7 +73,7 @@ public class MsgFeederActor extends MsgAkkaAbsFeederActor {
         connection = (Connection)super.getClient().getConnection();
         try {
             channel = connection.createChannel();
-            channel.exchangeDeclare(super.getBaseDest(), "topic");
+            ((Client)super.getClient()).getTopologyRegistry().declareExchange(channel, super.getBaseDest(), "topic");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -28,6 +28,7 @@ import net.echinopsii.ariane.community.messaging.api.MomClient;
 import net.echinopsii.ariane.community.messaging.api.MomLogger;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope;
 import net.echinopsii.ariane.community.messaging.common.MsgAkkaAbsRequestActor;
 import org.slf4j.Logger;
 
@@ -37,30 +38,36 @@ import java.util.Map;
 
 /**
  * MsgRequestActor class extending {@link net.echinopsii.ariane.community.messaging.common.MsgAkkaAbsRequestActor} abstract class for RabbitMQ MoM
+ * <p/>
+ * Each request actor publishes its replies on its own channel (opened on start, closed on stop) so that the routees
+ * of a request service do not contend on the service consumer channel. Requests acknowledgements are delegated to the
+ * service {@link DeliveryAcker}.
  */
 public class MsgRequestActor extends MsgAkkaAbsRequestActor {
     private static final Logger log = MomLoggerFactory.getLogger(MsgRequestActor.class);
 
-    private Channel      channel     = null;
+    private Client        client       = null;
+    private DeliveryAcker acker        = null;
+    private Channel       replyChannel = null;
 
     /**
      * (internal usage only)
      * Return Akka actor Props to spawn a new MsgRequestActor through Akka.
-     * Should not be called outside {@link net.echinopsii.ariane.community.messaging.rabbitmq.ServiceFactory#createRequestActor(String, MomClient, Channel, AppMsgWorker, ActorRef, boolean)}
-     * or {@link net.echinopsii.ariane.community.messaging.rabbitmq.ServiceFactory#createRequestRouter(String, MomClient, Channel, AppMsgWorker, ActorRef, boolean)}
+     * Should not be called outside {@link net.echinopsii.ariane.community.messaging.rabbitmq.ServiceFactory#createRequestRouter(String, MomClient, DeliveryAcker, AppMsgWorker, ActorRef, boolean)}
      *
      * @param mclient the initialized RabbitMQ client
+     * @param acker the request service acknowledgements coalescer
      * @param worker the AppMsgWorker in charge of request treatment
      * @param cache if true will cache last reply in case of retry
      * @return Akka actor Props
      */
-    public static Props props(final Client mclient, final Channel channel, final AppMsgWorker worker, final boolean cache) {
+    public static Props props(final Client mclient, final DeliveryAcker acker, final AppMsgWorker worker, final boolean cache) {
         return Props.create(new Creator<MsgRequestActor>() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public MsgRequestActor create() throws Exception {
-                return new MsgRequestActor(mclient, channel, worker, cache);
+                return new MsgRequestActor(mclient, acker, worker, cache);
             }
         });
     }
@@ -70,33 +77,103 @@ public class MsgRequestActor extends MsgAkkaAbsRequestActor {
      * MsgRequestActor constructor. Should not be called outside {@link this#props}
      *
      * @param mclient the initialized RabbitMQ client
+     * @param ackr the request service acknowledgements coalescer
      * @param worker the AppMsgWorker in charge of request treatment
      * @param cache if true will cache last reply in case of retry
      */
-    public MsgRequestActor(Client mclient, Channel chan, AppMsgWorker worker, boolean cache) {
+    public MsgRequestActor(Client mclient, DeliveryAcker ackr, AppMsgWorker worker, boolean cache) {
         super(mclient, worker, new MsgTranslator(), cache);
-        channel = chan;
+        client = mclient;
+        acker = ackr;
+    }
+
+    /**
+     * open the reply channel of this request actor
+     * @throws IOException if problem encountered while creating the reply channel
+     */
+    @Override
+    public void preStart() throws IOException {
+        replyChannel = client.getConnection().createChannel();
+    }
+
+    /**
+     * treat the requests of the current batch if any and close the reply channel of this request actor
+     */
+    @Override
+    public void postStop() {
+        super.postStop();
+        try {
+            if (replyChannel!=null && replyChannel.isOpen()) replyChannel.close();
+        } catch (IOException | ShutdownSignalException e) {
+            log.debug("Error while closing reply channel : " + e.getMessage());
+        }
+        replyChannel = null;
+    }
+
+    private static QueueingConsumer.Delivery getDelivery(Object message) {
+        if (message instanceof MomMsgEnvelope) return (QueueingConsumer.Delivery) ((MomMsgEnvelope) message).getRaw();
+        else return (QueueingConsumer.Delivery) message;
+    }
+
+    /**
+     * publish the reply on the request reply to queue if any
+     * @param message the akka message received by actor
+     * @param request the decoded request
+     * @param reply the request reply (can be null)
+     * @throws IOException if problem encountered while publishing reply
+     */
+    @Override
+    protected void reply(Object message, Map<String, Object> request, Map<String, Object> reply) throws IOException {
+        BasicProperties properties = getDelivery(message).getProperties();
+        if (properties.getReplyTo()!=null && properties.getCorrelationId()!=null && reply!=null) {
+            reply.put(MsgTranslator.MSG_CORRELATION_ID, properties.getCorrelationId());
+            if (super.getClient().getClientID()!=null)
+                reply.put(MsgTranslator.MSG_APPLICATION_ID, super.getClient().getClientID());
+            Message replyMessage = ((MsgTranslator)super.getTranslator()).encode(reply);
+            String replyTo = properties.getReplyTo();
+            replyChannel.basicPublish("", replyTo, (AMQP.BasicProperties) replyMessage.getProperties(), replyMessage.getBody());
+        }
+    }
+
+    /**
+     * declare the request delivery completed to the service acknowledgements coalescer
+     * @param message the akka message received by actor
+     */
+    @Override
+    protected void completed(Object message) {
+        acker.completed(getDelivery(message).getEnvelope().getDeliveryTag());
     }
 
     /**
      * {@link akka.actor.UntypedActor#onReceive(Object)} implementation.
-     * if message instance of {@link com.rabbitmq.client.QueueingConsumer.Delivery} :
-     * <br/> decode the message
-     * <br/> then request treatment from attached worker and send reply if needed.
+     * if message instance of {@link net.echinopsii.ariane.community.messaging.common.MomMsgEnvelope} (decoded by consumer)
+     * or {@link com.rabbitmq.client.QueueingConsumer.Delivery} :
+     * <br/> decode the message (raw delivery only)
+     * <br/> then request treatment from attached worker (or add the request to the current batch or request its
+     * asynchronous treatment) and send reply if needed.
+     * if message is the current batch flush tick treat the batch.
+     * if message is an asynchronous treatment completion send its reply.
      * else unhandled
      * @param message the akka message received by actor
      * @throws IOException if problem encountered while publishing reply or ack request
      */
     @Override
     public void onReceive(Object message) throws IOException {
-        if (message instanceof QueueingConsumer.Delivery) {
-            Envelope envelope = ((QueueingConsumer.Delivery) message).getEnvelope();
-            BasicProperties properties = ((QueueingConsumer.Delivery) message).getProperties();
-            byte[] body = ((QueueingConsumer.Delivery)message).getBody();
-
-            Map<String, Object> finalMessage = ((MsgTranslator)super.getTranslator()).decode(new Message().setEnvelope(envelope).
-                    setProperties(properties).
-                    setBody(body));
+        if (super.onBatchFlush(message) || super.onAsyncCompletion(message)) return;
+        QueueingConsumer.Delivery delivery = null;
+        Map<String, Object> finalMessage = null;
+        if (message instanceof MomMsgEnvelope && ((MomMsgEnvelope) message).getRaw() instanceof QueueingConsumer.Delivery) {
+            delivery = (QueueingConsumer.Delivery) ((MomMsgEnvelope) message).getRaw();
+            finalMessage = ((MomMsgEnvelope) message).getMessage();
+        } else if (message instanceof QueueingConsumer.Delivery) {
+            delivery = (QueueingConsumer.Delivery) message;
+            finalMessage = ((MsgTranslator)super.getTranslator()).decode(new Message().setEnvelope(delivery.getEnvelope()).
+                    setProperties(delivery.getProperties()).
+                    setBody(delivery.getBody()));
+        }
+
+        if (delivery!=null) {
+            long beginTreatment = System.nanoTime();
             if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE)) {
                 if (super.getClient().isMsgDebugOnTimeout()) ((MomLogger)log).setMsgTraceLevel(true);
                 else finalMessage.remove(MomMsgTranslator.MSG_TRACE);
@@ -104,24 +181,42 @@ public class MsgRequestActor extends MsgAkkaAbsRequestActor {
             ((MomLogger)log).traceMessage("MsgRequestActor.onReceive - in", finalMessage);
 
             Map<String, Object> reply=null;
-            if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)!=null &&
-                    super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID))!=null)
-                reply = super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID));
-            if (reply==null) reply = super.getMsgWorker().apply(finalMessage);
-            else log.debug("reply from cache !");
-
-            if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)!=null)
-                super.putReplyToCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID),reply);
-
-            if (properties.getReplyTo()!=null && properties.getCorrelationId()!=null && reply!=null) {
-                reply.put(MsgTranslator.MSG_CORRELATION_ID, properties.getCorrelationId());
-                if (super.getClient().getClientID()!=null)
-                    reply.put(MsgTranslator.MSG_APPLICATION_ID, super.getClient().getClientID());
-                Message replyMessage = ((MsgTranslator)super.getTranslator()).encode(reply);
-                String replyTo = properties.getReplyTo();
-                channel.basicPublish("", replyTo, (AMQP.BasicProperties) replyMessage.getProperties(), replyMessage.getBody());
+            boolean deferred = false;
+            try {
+                if (finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)!=null &&
+                        super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID))!=null)
+                    reply = super.getReplyFromCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID));
+                if (reply==null && super.isBatching()) {
+                    deferred = true;
+                    super.batch(message, finalMessage, beginTreatment);
+                } else if (reply==null && super.isAsync()) {
+                    deferred = true;
+                    super.applyAsync(message, finalMessage, beginTreatment);
+                } else {
+                    String error = null;
+                    if (reply==null) {
+                        try {
+                            reply = super.getMsgWorker().apply(finalMessage);
+                        } catch (RuntimeException e) {
+                            // answer the worker failure instead of restarting the routee
+                            error = "Treatment error : " + e.getMessage();
+                            log.error(error);
+                            reply = serverErrorReply(error);
+                        }
+                    } else log.debug("reply from cache !");
+
+                    if (error==null && finalMessage.get(MsgTranslator.MSG_CORRELATION_ID)!=null)
+                        super.putReplyToCache((String) finalMessage.get(MsgTranslator.MSG_CORRELATION_ID),reply);
+
+                    this.reply(message, finalMessage, reply);
+                }
+            } finally {
+                // a failing request is acked too : an unacked delivery would hold the coalesced acks of the next ones
+                if (!deferred) {
+                    this.completed(message);
+                    super.treated(message, beginTreatment);
+                }
             }
-            channel.basicAck(((QueueingConsumer.Delivery)message).getEnvelope().getDeliveryTag(), false);
 
             ((MomLogger)log).traceMessage("MsgRequestActor.onReceive - out", finalMessage);
             if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE)) ((MomLogger)log).setMsgTraceLevel(false);
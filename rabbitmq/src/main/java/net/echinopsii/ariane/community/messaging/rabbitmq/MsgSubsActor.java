@@ -37,16 +37,17 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
      * Return Akka actor Props to spawn a new MsgRequestActor through Akka.
      * Should not be called outside {@link net.echinopsii.ariane.community.messaging.rabbitmq.ServiceFactory#subscriberService(String, String, AppMsgWorker)}
      *
+     * @param mclient the initialized client
      * @param worker the AppMsgWorker in charge of subscription message feed treatment
      * @return Akka actor Props
      */
-    public static Props props(final AppMsgWorker worker) {
+    public static Props props(final Client mclient, final AppMsgWorker worker) {
         return Props.create(new Creator<MsgSubsActor>() {
             private static final long serialVersionUID = 1L;
 
             @Override
             public MsgSubsActor create() throws Exception {
-                return new MsgSubsActor(worker);
+                return new MsgSubsActor(mclient, worker);
             }
         });
     }
@@ -55,20 +56,24 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
      * (internal usage only)
      * MsgSubsActor constructor. Should not be called outside {@link this#props}
      *
+     * @param mclient the initialized client
      * @param worker the AppMsgWorker in charge of subscription message feed treatment
      */
-    public MsgSubsActor(AppMsgWorker worker) {
-        super(worker, new MsgTranslator());
+    public MsgSubsActor(Client mclient, AppMsgWorker worker) {
+        super(mclient, worker, new MsgTranslator());
     }
 
     /**
      * {@link akka.actor.UntypedActor#onReceive(Object)} implementation.
-     * if message instance of {@link com.rabbitmq.client.QueueingConsumer.Delivery} decode the message then request treatment from attached worker.
+     * if message instance of {@link com.rabbitmq.client.QueueingConsumer.Delivery} decode the message then request treatment
+     * from attached worker (or add the message to the current batch).
+     * if message is the current batch flush tick treat the batch.
      * else unhandled
      * @param message the akka message received by actor
      */
     @Override
     public void onReceive(Object message) {
+        if (super.onBatchFlush(message)) return;
         if (message instanceof QueueingConsumer.Delivery) {
             Envelope envelope = ((QueueingConsumer.Delivery) message).getEnvelope();
             BasicProperties properties = ((QueueingConsumer.Delivery) message).getProperties();
@@ -79,7 +84,8 @@ public class MsgSubsActor extends MsgAkkaAbsSubsActor {
                                                                  setProperties(((QueueingConsumer.Delivery) message).getProperties()).
                                                                  setBody(((QueueingConsumer.Delivery) message).getBody()));
 
-            super.getMsgWorker().apply(finalMessage);
+            if (super.isBatching()) super.batch(message, finalMessage);
+            else super.getMsgWorker().apply(finalMessage);
         } else
             unhandled(message);
     }
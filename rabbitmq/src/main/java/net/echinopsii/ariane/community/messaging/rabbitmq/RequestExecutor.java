@@ -19,8 +19,13 @@
 
 package net.echinopsii.ariane.community.messaging.rabbitmq;
 
+import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
 import com.rabbitmq.client.QueueingConsumer;
+import com.rabbitmq.client.ShutdownSignalException;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
 import net.echinopsii.ariane.community.messaging.api.MomException;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
@@ -31,11 +36,19 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeoutException;
 
 /**
  * RequestExecutor class extending {@link net.echinopsii.ariane.community.messaging.common.MomAkkaAbsRequestExecutor} abstract class
  * and implements {@link net.echinopsii.ariane.community.messaging.api.MomRequestExecutor} for RabbitMQ MoM.
+ * <p/>
+ * A RequestExecutor publishes through its own RabbitMQ channel which must not be shared between threads :
+ * multi-threaded callers should lease their RequestExecutor from the client pool
+ * (see {@link net.echinopsii.ariane.community.messaging.api.MomClient#leaseRequestExecutor()}).
+ * As the non blocking RPC retries and hedges are republished from the scheduler threads, every publication
+ * on a RequestExecutor channel is serialized on this channel.
  */
 public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomRequestExecutor<String, AppMsgWorker> {
     private static final Logger log = MomLoggerFactory.getLogger(RequestExecutor.class);
@@ -44,16 +57,32 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
 
     private static final String FAF_EXCHANGE = "FAF";
     private static final String RPC_EXCHANGE = "RPC";
-
-    private static boolean is_rpc_exchange_declared = false;
-    private static boolean is_faf_exchange_declared = false;
+    private static final String DIRECT_REPLY_TO = "amq.rabbitmq.reply-to";
 
     private Channel channel;
-    private List<String> rpcEchangeBindedDestinations = new ArrayList<>();
-    private List<String> fafEchangeBindedDestinations = new ArrayList<>();
-    private Map<String, List<String>> sessionsRPCReplyQueues = new HashMap<>();
-    private Map<String, Object> replyConsumers = new HashMap<>();
-    private HashMap<String, Boolean> destinationTrace = new HashMap<>();
+    private Channel confirmChannel = null;
+    private TopologyRegistry topology;
+    private ConcurrentSkipListMap<Long, UnconfirmedRequest> unconfirmedRequests = new ConcurrentSkipListMap<>();
+    private ConcurrentHashMap<String, Set<String>> sessionsRPCReplyQueues = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Object> replyConsumers = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Boolean> destinationTrace = new ConcurrentHashMap<>();
+
+    private String asyncReplyQueue = null;
+    private boolean directReplyTo;
+
+    /**
+     * FAF batch request waiting for its publisher confirm. The nacked requests list is the one of its batch
+     * (and its monitor guards the confirm bookkeeping of the batch).
+     */
+    private static class UnconfirmedRequest {
+        Map<String, Object>       request;
+        List<Map<String, Object>> batchNackedRequests;
+
+        UnconfirmedRequest(Map<String, Object> request, List<Map<String, Object>> batchNackedRequests) {
+            this.request = request;
+            this.batchNackedRequests = batchNackedRequests;
+        }
+    }
 
     /**
      * @param client an initialized RabbitMQ Client
@@ -62,6 +91,8 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
     public RequestExecutor(Client client) throws IOException {
         super(client);
         channel = client.getConnection().createChannel();
+        topology = client.getTopologyRegistry();
+        directReplyTo = client.isDirectReplyTo();
     }
 
     /**
@@ -76,28 +107,144 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
             String groupID = super.getMomClient().getCurrentMsgGroup();
             if (groupID!=null) destination = groupID + "-" + destination;
 
-            if (!is_faf_exchange_declared) {
-                channel.exchangeDeclare(FAF_EXCHANGE, EXCHANGE_TYPE_DIRECT);
-                is_faf_exchange_declared = true;
-            }
-            if (!fafEchangeBindedDestinations.contains(destination)) {
-                channel.queueDeclare(destination, false, false, true, null);
-                channel.queueBind(destination, FAF_EXCHANGE, destination);
-                fafEchangeBindedDestinations.add(destination);
-            }
-
             Message message = new MsgTranslator().encode(request);
             if (super.getMomClient().getClientID()!=null)
                 request.put(MomMsgTranslator.MSG_APPLICATION_ID, super.getMomClient().getClientID());
-            channel.basicPublish(FAF_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
+            synchronized (channel) {
+                topology.declareExchange(channel, FAF_EXCHANGE, EXCHANGE_TYPE_DIRECT);
+                topology.declareQueue(channel, destination, false, false, true);
+                topology.bindQueue(channel, destination, FAF_EXCHANGE, destination);
+                channel.basicPublish(FAF_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
         return request;
     }
 
+    /**
+     * Fire And Forget batch : publish the requests back to back on this RequestExecutor confirm channel (RabbitMQ
+     * publisher confirms) then wait once for the confirmation of the whole batch (up to the client RPC timeout max).
+     * The confirms bookkeeping is kept per batch (keyed by the batch publish sequence numbers range) : a late confirm
+     * of a previous batch never updates the current one.
+     * @param requests the request messages
+     * @param destination the target destination queue
+     * @return the requests not published, nacked by the broker or not confirmed in time (in the requests order)
+     */
+    @Override
+    public List<Map<String, Object>> FAFBatch(List<Map<String, Object>> requests, String destination) {
+        String groupID = super.getMomClient().getCurrentMsgGroup();
+        if (groupID!=null) destination = groupID + "-" + destination;
+
+        int sentCount = 0;
+        long firstSeqNo = -1;
+        long lastSeqNo = -1;
+        List<Map<String, Object>> nackedRequests = new ArrayList<>();
+        try {
+            Channel confirms = getConfirmChannel();
+            topology.declareExchange(confirms, FAF_EXCHANGE, EXCHANGE_TYPE_DIRECT);
+            topology.declareQueue(confirms, destination, false, false, true);
+            topology.bindQueue(confirms, destination, FAF_EXCHANGE, destination);
+
+            for (Map<String, Object> request : requests) {
+                if (super.getMomClient().getClientID()!=null)
+                    request.put(MomMsgTranslator.MSG_APPLICATION_ID, super.getMomClient().getClientID());
+                Message message = new MsgTranslator().encode(request);
+                synchronized (confirms) {
+                    long seqNo = confirms.getNextPublishSeqNo();
+                    unconfirmedRequests.put(seqNo, new UnconfirmedRequest(request, nackedRequests));
+                    try {
+                        confirms.basicPublish(FAF_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
+                    } catch (IOException e) {
+                        unconfirmedRequests.remove(seqNo);
+                        throw e;
+                    }
+                    if (firstSeqNo < 0) firstSeqNo = seqNo;
+                    lastSeqNo = seqNo;
+                }
+                sentCount++;
+            }
+
+            long timeout = super.getMomClient().getRPCTimeoutMax();
+            if (timeout > 0) confirms.waitForConfirms(timeout);
+            else confirms.waitForConfirms();
+        } catch (IOException | InterruptedException | TimeoutException | ShutdownSignalException e) {
+            log.warn("FAF batch on " + destination + " not fully confirmed (" + sentCount + "/" + requests.size() +
+                    " published) : " + e.getMessage());
+        }
+
+        Set<Map<String, Object>> failed = Collections.newSetFromMap(new IdentityHashMap<Map<String, Object>, Boolean>());
+        synchronized (nackedRequests) {
+            failed.addAll(nackedRequests);
+            if (firstSeqNo >= 0) {
+                NavigableMap<Long, UnconfirmedRequest> unconfirmed = unconfirmedRequests.subMap(firstSeqNo, true, lastSeqNo, true);
+                for (UnconfirmedRequest unconfirmedRequest : unconfirmed.values()) failed.add(unconfirmedRequest.request);
+                unconfirmed.clear();
+            }
+        }
+        failed.addAll(requests.subList(sentCount, requests.size()));
+
+        List<Map<String, Object>> failedRequests = new ArrayList<>();
+        for (Map<String, Object> request : requests)
+            if (failed.contains(request)) failedRequests.add(request);
+        return failedRequests;
+    }
+
+    /**
+     * (internal usage)
+     * get (or open) the channel in publisher confirms mode used by FAF batches
+     * @return the confirm channel
+     * @throws IOException while opening RabbitMQ channel
+     */
+    private synchronized Channel getConfirmChannel() throws IOException {
+        if (confirmChannel==null || !confirmChannel.isOpen()) {
+            Channel newChannel = channel.getConnection().createChannel();
+            newChannel.confirmSelect();
+            newChannel.addConfirmListener(new ConfirmListener() {
+                @Override
+                public void handleAck(long deliveryTag, boolean multiple) {
+                    onConfirm(deliveryTag, multiple, false);
+                }
+
+                @Override
+                public void handleNack(long deliveryTag, boolean multiple) {
+                    onConfirm(deliveryTag, multiple, true);
+                }
+            });
+            confirmChannel = newChannel;
+        }
+        return confirmChannel;
+    }
+
+    /**
+     * (internal usage)
+     * remove the confirmed requests from the unconfirmed requests and keep the nacked ones in their batch nacked
+     * requests. Confirms of requests already given up by their batch (not confirmed in time) are ignored.
+     * @param deliveryTag the publish sequence number confirmed
+     * @param multiple true if all sequence numbers up to deliveryTag are confirmed
+     * @param nack true if the broker could not handle the requests
+     */
+    private void onConfirm(long deliveryTag, boolean multiple, boolean nack) {
+        Collection<Map.Entry<Long, UnconfirmedRequest>> confirmed = (multiple) ?
+                unconfirmedRequests.headMap(deliveryTag, true).entrySet() :
+                Collections.singletonMap(deliveryTag, unconfirmedRequests.get(deliveryTag)).entrySet();
+        for (Map.Entry<Long, UnconfirmedRequest> entry : confirmed) {
+            UnconfirmedRequest unconfirmedRequest = entry.getValue();
+            if (unconfirmedRequest==null) continue;
+            synchronized (unconfirmedRequest.batchNackedRequests) {
+                if (unconfirmedRequests.remove(entry.getKey(), unconfirmedRequest) && nack)
+                    unconfirmedRequest.batchNackedRequests.add(unconfirmedRequest.request);
+            }
+        }
+    }
+
     /**
      * Remote procedure call : send request to target destination and wait answer to be treated by the answer worker.
+     * <p/>
+     * If answerSource is not defined and RabbitMQ direct reply-to is enabled on client (default) the answer is consumed
+     * from the amq.rabbitmq.reply-to pseudo queue through the unique consumer of this RequestExecutor channel
+     * (answers being dispatched by correlation ID). Otherwise a temporary reply queue is declared for this call (except
+     * if hedged requests are enabled : the answer is then consumed from this RequestExecutor long-lived reply queue).
      * @param request the request message
      * @param destination the target destination queue
      * @param answerSource the source to get the answer from
@@ -105,7 +252,7 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
      * @return the answer (treated or not by answer worker)
      * @throws TimeoutException if no answers has been receiver after timeout * retry as configured in RabbitMQ Client to this RequestExecutor
      *         IOException while publishing request or receiving answer,
-     *         MomException if response is null when apply to answerWorker
+     *         MomException if response is null when apply to answerWorker or if destination circuit breaker is open
      */
     @Override
     public Map<String, Object> RPC(Map<String, Object> request, String destination, String answerSource, AppMsgWorker answerWorker) throws TimeoutException, IOException, MomException {
@@ -116,21 +263,16 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         if (groupID!=null && !destination.contains(groupID)) {
             destination = groupID + "-" + destination;
             if (answerSource ==null) answerSource = destination + "-RET";
-            if (this.sessionsRPCReplyQueues.get(groupID)==null)
-                this.sessionsRPCReplyQueues.put(groupID, new ArrayList<String>());
+            this.sessionsRPCReplyQueues.putIfAbsent(groupID, Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>()));
             this.sessionsRPCReplyQueues.get(groupID).add(answerSource);
         }
 
-        if (!is_rpc_exchange_declared) {
-            channel.exchangeDeclare(RPC_EXCHANGE, EXCHANGE_TYPE_DIRECT);
-            is_rpc_exchange_declared = true;
-        }
-        if (!rpcEchangeBindedDestinations.contains(destination)) {
-            channel.queueDeclare(destination, false, false, true, null);
-            channel.queueBind(destination, RPC_EXCHANGE, destination);
-            rpcEchangeBindedDestinations.add(destination);
-        }
-        if (destinationTrace.get(destination)==null) destinationTrace.put(destination, false);
+        if (answerSource==null && (directReplyTo || super.getHedgingPolicy()!=null))
+            return super.awaitAsyncRPC(super.RPCAsync(request, destination, answerWorker, true));
+
+        super.onRPCRequest(destination);
+        bindRPCDestination(destination);
+        destinationTrace.putIfAbsent(destination, false);
 
         String replyQueueName;
         if (answerSource ==null) replyQueueName = channel.queueDeclare().getQueue();
@@ -139,7 +281,7 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         QueueingConsumer consumer;
         if (replyConsumers.get(replyQueueName)!=null) consumer = (QueueingConsumer) replyConsumers.get(replyQueueName);
         else {
-            if (answerSource !=null) channel.queueDeclare(replyQueueName, false, true, true, null);
+            if (answerSource !=null) topology.declareQueue(channel, replyQueueName, false, true, true);
             consumer = new QueueingConsumer(channel);
             channel.basicConsume(replyQueueName, true, consumer);
             replyConsumers.put(replyQueueName, consumer);
@@ -147,9 +289,7 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
 
         String corrId;
         if (request.get(MsgTranslator.MSG_CORRELATION_ID)==null) {
-            synchronized (UUID.class) {
-                corrId = UUID.randomUUID().toString();
-            }
+            corrId = super.getMomClient().getIDGenerator().nextID();
             request.put(MsgTranslator.MSG_CORRELATION_ID, corrId);
         } else corrId = (String) request.get(MsgTranslator.MSG_CORRELATION_ID);
         request.put(MsgTranslator.MSG_REPLY_TO, replyQueueName);
@@ -157,29 +297,65 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         if (super.getMomClient().getClientID()!=null)
             request.put(MomMsgTranslator.MSG_APPLICATION_ID, super.getMomClient().getClientID());
 
-        if (destinationTrace.get(destination)) request.put(MomMsgTranslator.MSG_TRACE, true);
-        else request.remove(MomMsgTranslator.MSG_TRACE);
+        int retryCount = (request.get(MomMsgTranslator.MSG_RETRY_COUNT)!=null) ? (int) request.get(MomMsgTranslator.MSG_RETRY_COUNT) : 0;
+        while (delivery==null) {
+            if (destinationTrace.get(destination)) request.put(MomMsgTranslator.MSG_TRACE, true);
+            else request.remove(MomMsgTranslator.MSG_TRACE);
 
-        if (destinationTrace.get(destination)) log.info("send request " + corrId);
-        Message message = new MsgTranslator().encode(request);
-        channel.basicPublish(RPC_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
-
-        long rpcTimeout = super.getMomClient().getRPCTimout() * 1000;
-        beginWaitingAnswer = System.nanoTime();
-        while (delivery==null && rpcTimeout>=0) {
+            if (destinationTrace.get(destination)) log.info("send request " + corrId);
+            Message message = new MsgTranslator().encode(request);
             try {
-                delivery = consumer.nextDelivery(rpcTimeout);
-                if (delivery!=null) {
-                    if (!delivery.getProperties().getCorrelationId().equals(corrId))
+                synchronized (channel) {
+                    channel.basicPublish(RPC_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
+                }
+            } catch (IOException e) {
+                super.onRPCError(destination);
+                throw e;
+            }
+
+            long rpcTimeout = super.getRPCTimeout(destination, retryCount);
+            long rpcTimeoutLeft = rpcTimeout;
+            beginWaitingAnswer = System.nanoTime();
+            while (delivery==null && rpcTimeoutLeft!=0) {
+                try {
+                    delivery = (rpcTimeoutLeft>0) ? consumer.nextDelivery(rpcTimeoutLeft) : consumer.nextDelivery();
+                    if (delivery!=null && !corrId.equals(delivery.getProperties().getCorrelationId())) {
                         log.warn("Response discarded ( " + delivery.getProperties().getCorrelationId() + " ) ...");
+                        delivery = null;
+                    }
+                } catch (InterruptedException e) {
+                    log.debug("Thread interrupted while waiting for RPC answer...");
+                } finally {
+                    if (rpcTimeout>0)
+                        rpcTimeoutLeft = Math.max(0, rpcTimeout - (System.nanoTime()-beginWaitingAnswer)/1000000);
+                    if (destinationTrace.get(destination)) log.info("rpcTimeout left: " + rpcTimeoutLeft);
+                }
+            }
+
+            if (delivery==null) {
+                log.warn("No response returned from request on " + destination + " queue after " + rpcTimeout +
+                        " ms (retry " + retryCount + ")...");
+                super.onRPCTimeout(destination, rpcTimeout);
+                long backoff = super.getRPCRetryBackoff(destination, retryCount);
+                if (backoff < 0) {
+                    if (answerSource == null) {
+                        channel.queueDelete(replyQueueName);
+                        replyConsumers.remove(replyQueueName);
+                    }
+                    throw new TimeoutException(
+                            "No response returned from request on " + destination + " queue after " +
+                                    (retryCount + 1) + " tries (last timeout : " + rpcTimeout + " ms)..."
+                    );
+                }
+                retryCount++;
+                request.put(MomMsgTranslator.MSG_RETRY_COUNT, retryCount);
+                destinationTrace.put(destination, true);
+                log.warn("Retry (" + retryCount + ") in " + backoff + " ms");
+                try {
+                    if (backoff > 0) Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    log.debug("Thread interrupted while waiting for RPC retry backoff...");
                 }
-            } catch (InterruptedException e) {
-                log.debug("Thread interrupted while waiting for RPC answer...");
-            } finally {
-                if (super.getMomClient().getRPCTimout()>0)
-                    rpcTimeout = (super.getMomClient().getRPCTimout()*1000000000 - (System.nanoTime()-beginWaitingAnswer))/1000000;
-                else rpcTimeout = 0;
-                if (destinationTrace.get(destination)) log.info("rpcTimeout left: " + rpcTimeout);
             }
         }
 
@@ -188,36 +364,16 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
             replyConsumers.remove(replyQueueName);
         }
 
-        if (delivery!=null) {
-            long endWaitingAnswer = System.nanoTime();
-            long rpcTime = endWaitingAnswer - beginWaitingAnswer;
-            log.debug("RPC time : " + rpcTime);
-            if (super.getMomClient().getRPCTimout()>0 && beginWaitingAnswer>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000 * 3 / 5) {
-                log.debug("Slow RPC time (" + rpcTime / 1000000000 + ") on request to queue " + destination);
-            } else  destinationTrace.put(destination, false);
-            response = new MsgTranslator().decode(new Message().setEnvelope(delivery.getEnvelope()).
-                    setProperties(delivery.getProperties()).
-                    setBody(delivery.getBody()));
-        } else {
-            if (request.containsKey(MomMsgTranslator.MSG_RETRY_COUNT)) {
-                int retryCount = (int)request.get(MomMsgTranslator.MSG_RETRY_COUNT);
-                log.warn("No response returned from request on " + destination + " queue after (" +
-                        super.getMomClient().getRPCTimout() + "*" + retryCount + 1 + ") sec...");
-                if ((super.getMomClient().getRPCRetry() - retryCount+1) > 0) {
-                    request.put(MomMsgTranslator.MSG_RETRY_COUNT, retryCount+1);
-                    destinationTrace.put(destination, true);
-                    log.warn("Retry (" + request.get(MomMsgTranslator.MSG_RETRY_COUNT) + ")");
-                    return this.RPC(request, destination, answerSource, answerWorker);
-                } else
-                    throw new TimeoutException(
-                            "No response returned from request on " + destination + " queue after " +
-                                    super.getMomClient().getRPCTimout() + "*" + super.getMomClient().getRPCRetry() + " sec..."
-                    );
-            } else {
-                request.put(MomMsgTranslator.MSG_RETRY_COUNT, 1);
-                return this.RPC(request, destination, answerSource, answerWorker);
-            }
-        }
+        long endWaitingAnswer = System.nanoTime();
+        long rpcTime = endWaitingAnswer - beginWaitingAnswer;
+        log.debug("RPC time : " + rpcTime);
+        super.onRPCAnswer(destination, rpcTime, retryCount);
+        if (super.getMomClient().getRPCTimout()>0 && beginWaitingAnswer>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000 * 3 / 5) {
+            log.debug("Slow RPC time (" + rpcTime / 1000000000 + ") on request to queue " + destination);
+        } else  destinationTrace.put(destination, false);
+        response = new MsgTranslator().decode(new Message().setEnvelope(delivery.getEnvelope()).
+                setProperties(delivery.getProperties()).
+                setBody(delivery.getBody()));
 
         if (answerWorker!=null)
             if (response!=null) response = answerWorker.apply(response);
@@ -226,6 +382,102 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         return response;
     }
 
+    /**
+     * (internal usage)
+     * declare the RPC exchange and bind destination queue on it if not already done (through the client topology registry)
+     * @param destination the target destination queue
+     * @throws IOException while declaring RabbitMQ resources
+     */
+    private void bindRPCDestination(String destination) throws IOException {
+        synchronized (channel) {
+            topology.declareExchange(channel, RPC_EXCHANGE, EXCHANGE_TYPE_DIRECT);
+            topology.declareQueue(channel, destination, false, false, true);
+            topology.bindQueue(channel, destination, RPC_EXCHANGE, destination);
+        }
+    }
+
+    /**
+     * (internal usage)
+     * define the long-lived reply queue of this RequestExecutor and attach the consumer pushing answers
+     * to the pending non blocking RPCs (demultiplexed by correlation ID).
+     * <p/>
+     * With RabbitMQ direct reply-to the reply queue is the amq.rabbitmq.reply-to pseudo queue which must be consumed
+     * in auto ack mode from the channel publishing the requests. Otherwise a server named queue is declared.
+     * @return the reply queue name
+     * @throws IOException while declaring RabbitMQ resources
+     */
+    private synchronized String getAsyncReplyQueue() throws IOException {
+        if (asyncReplyQueue==null) {
+            synchronized (channel) {
+                String replyQueue = (directReplyTo) ? DIRECT_REPLY_TO : channel.queueDeclare().getQueue();
+                channel.basicConsume(replyQueue, true, new DefaultConsumer(channel) {
+                    @Override
+                    public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+                        Map<String, Object> response = new MsgTranslator().decode(
+                                new Message().setEnvelope(envelope).setProperties(properties).setBody(body)
+                        );
+                        completeAsyncRPC(properties.getCorrelationId(), response);
+                    }
+                });
+                asyncReplyQueue = replyQueue;
+            }
+        }
+        return asyncReplyQueue;
+    }
+
+    /**
+     * (internal usage)
+     * Publish the request of a non blocking RPC. The answer will be consumed from this RequestExecutor long-lived
+     * reply queue. As for the blocking RPC, the request is traced ({@link MomMsgTranslator#MSG_TRACE}) if the
+     * destination did not answer in time lately.
+     * @param request the request message (correlation ID already defined)
+     * @param destination the target destination queue
+     * @throws IOException while publishing request
+     */
+    @Override
+    protected void publishAsyncRPCRequest(Map<String, Object> request, String destination) throws IOException {
+        bindRPCDestination(destination);
+        request.put(MsgTranslator.MSG_REPLY_TO, getAsyncReplyQueue());
+        if (super.getMomClient().getClientID()!=null)
+            request.put(MomMsgTranslator.MSG_APPLICATION_ID, super.getMomClient().getClientID());
+        destinationTrace.putIfAbsent(destination, false);
+        if (destinationTrace.get(destination)) {
+            request.put(MomMsgTranslator.MSG_TRACE, true);
+            log.info("send request " + request.get(MsgTranslator.MSG_CORRELATION_ID));
+        } else request.remove(MomMsgTranslator.MSG_TRACE);
+        Message message = new MsgTranslator().encode(request);
+        synchronized (channel) {
+            channel.basicPublish(RPC_EXCHANGE, destination, (com.rabbitmq.client.AMQP.BasicProperties) message.getProperties(), message.getBody());
+        }
+    }
+
+    /**
+     * (internal usage)
+     * Trace the next requests to destination (as the blocking RPC does on retry) once a non blocking RPC timed out
+     * @param destination the RPC destination
+     * @param timeout the timeout which expired (millisecond)
+     */
+    @Override
+    protected void onRPCTimeout(String destination, long timeout) {
+        super.onRPCTimeout(destination, timeout);
+        destinationTrace.put(destination, true);
+    }
+
+    /**
+     * (internal usage)
+     * Stop tracing the requests to destination once a non blocking RPC is answered in time
+     * @param destination the RPC destination
+     * @param rpcTime the RPC time (nanosecond) since last request publication
+     * @param retryCount the retry count of the call
+     */
+    @Override
+    protected void onRPCAnswer(String destination, long rpcTime, int retryCount) {
+        super.onRPCAnswer(destination, rpcTime, retryCount);
+        if (super.getMomClient().getRPCTimout()>0 && rpcTime > super.getMomClient().getRPCTimout()*1000000000*3/5) {
+            log.debug("Slow RPC time (" + rpcTime/1000000000 + ") on request to queue " + destination);
+        } else destinationTrace.put(destination, false);
+    }
+
     /**
      * close groupID message group answer subscriptions and clean registry
      * @param groupID message group ID
@@ -234,7 +486,7 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
         if (this.sessionsRPCReplyQueues.get(groupID)!=null) {
             for (String queue : this.sessionsRPCReplyQueues.get(groupID)) {
                 try {
-                    channel.queueDelete(queue);
+                    topology.deleteQueue(channel, queue);
                     replyConsumers.remove(queue);
                 } catch (IOException e) {
                     e.printStackTrace();
@@ -248,9 +500,12 @@ public class RequestExecutor extends MomAkkaAbsRequestExecutor implements MomReq
      * @throws IOException if error occurs when closing RabbitMQ channel
      */
     public void stop() throws IOException {
+        super.failPendingRPCs("Request executor stopped !");
         replyConsumers.clear();
-        rpcEchangeBindedDestinations.clear();
-        fafEchangeBindedDestinations.clear();
+        synchronized (this) {
+            if (confirmChannel!=null && confirmChannel.isOpen()) confirmChannel.close();
+            confirmChannel = null;
+        }
         channel.close();
     }
 }
\ No newline at end of file
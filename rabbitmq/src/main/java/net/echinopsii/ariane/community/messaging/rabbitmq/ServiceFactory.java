@@ -51,20 +51,25 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
      *
      * @param source request source queue
      * @param client initialized RabbitMQ Client
+     * @param acker the service channel acknowledgements coalescer
      * @param requestCB application message worker to treat request
      * @param supervisor actor supervisor
      * @param nbRoutees number of routees to be managed by the new router
+     * @param resizer the routees resizer (null for a fixed routees count)
+     * @param routingPolicy the routees routing policy (null for round robin)
+     * @param dispatcherID the Akka dispatcher id of the router and its routees (null for the default dispatcher)
      * @param cache tell if reply must be cached in case of retry
      * @return the request router ActorRef
      */
-    private static ActorRef createRequestRouter(String source, MomClient client, Channel channel, AppMsgWorker requestCB, ActorRef supervisor, int nbRoutees, boolean cache) {
-        Props routeeProps = MsgRequestActor.props(((Client) client), channel, requestCB, cache);
+    private static ActorRef createRequestRouter(String source, MomClient client, DeliveryAcker acker, AppMsgWorker requestCB, ActorRef supervisor, int nbRoutees, MomAkkaRouterResizer resizer,
+                                                MomRoutingPolicy routingPolicy, String dispatcherID, boolean cache) {
+        Props routeeProps = MomAkkaDispatcher.withDispatcher(MsgRequestActor.props(((Client) client), acker, requestCB, cache), dispatcherID);
         String routeeNamePrefix = source + "_msgWorker";
         ActorRef sup = supervisor;
         if (sup == null) sup = ((Client)client).getMainSupervisor();
         return MomAkkaSupervisor.createNewSupervisedService(
                 sup,
-                MomAkkaRequestRouter.props(routeeProps, routeeNamePrefix, nbRoutees),
+                MomAkkaDispatcher.withDispatcher(MomAkkaRequestRouter.props(routeeProps, routeeNamePrefix, nbRoutees, resizer, routingPolicy), dispatcherID),
                 source + "_router"
         );
     }
@@ -72,125 +77,230 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
     /**
      * (internal usage)
      * Create a new request router in charge of spawning request workers. Number of request workers is defined in the client configuration.
+     * The request workers are resized according to the load if the client has a router resizer.
+     * The routing policy and the dispatcher are the ones defined on the client for this source.
      *
      * @param source request source queue
      * @param client initialized RabbitMQ Client
+     * @param acker the service channel acknowledgements coalescer
      * @param requestCB application message worker to treat request
      * @param supervisor actor supervisor
      * @param cache tell if reply must be cached in case of retry
      * @return the request router ActorRef
      */
-    private static ActorRef createRequestRouter(String source, MomClient client, Channel channel, AppMsgWorker requestCB, ActorRef supervisor, boolean cache) {
-        return createRequestRouter(source, client, channel, requestCB, supervisor, ((Client) client).getRouteesCountPerService(), cache);
+    private static ActorRef createRequestRouter(String source, MomClient client, DeliveryAcker acker, AppMsgWorker requestCB, ActorRef supervisor, boolean cache) {
+        return createRequestRouter(source, client, acker, requestCB, supervisor, ((Client) client).getRouteesCountPerService(),
+                ((Client) client).getRouterResizer(), ((Client) client).getRoutingPolicy(source),
+                ((Client) client).getServiceDispatcherID(source), cache);
+    }
+
+    /**
+     * (internal usage)
+     * Create a new request service channel and its acknowledgements coalescer.
+     * <p/>
+     * The channel prefetch is sized to the routees count so that each routee has requests to treat while the
+     * acknowledgements of the previous ones are coalesced : routees count * {@link Client#getServicePrefetchPerRoutee()}
+     * (routees count is the router resizer upper bound if any). The prefetch is the RabbitMQ backpressure : it is
+     * bounded by {@link Client#getServiceMaxInFlight()} so that the broker stops delivering once the routees have this
+     * number of requests to treat and goes on as acks are sent. If the request worker is an {@link AppMsgBatchWorker}
+     * each routee prefetches a full batch at least ({@link Client#getServiceBatchSize()}). If the request worker is an
+     * {@link AppMsgAsyncWorker} each routee prefetches its outstanding requests limit at least ({@link Client#getServiceAsyncMaxPerRoutee()}).
+     *
+     * @param client initialized RabbitMQ Client
+     * @param connection the client RabbitMQ connection
+     * @param requestCB application message worker to treat request
+     * @return the service channel acknowledgements coalescer
+     * @throws IOException if problem encountered while creating the channel
+     */
+    private static DeliveryAcker createServiceAcker(Client client, Connection connection, AppMsgWorker requestCB) throws IOException {
+        Channel channel = connection.createChannel();
+        int routeesCount = (client.getRouterResizer()!=null) ? client.getRouterResizer().getUpperBound() : client.getRouteesCountPerService();
+        int prefetchPerRoutee = client.getServicePrefetchPerRoutee();
+        if (MomAkkaMsgBatch.isBatching(requestCB, client.getServiceBatchSize()))
+            prefetchPerRoutee = Math.max(prefetchPerRoutee, client.getServiceBatchSize());
+        else if (requestCB instanceof AppMsgAsyncWorker)
+            prefetchPerRoutee = Math.max(prefetchPerRoutee, client.getServiceAsyncMaxPerRoutee());
+        int prefetch = routeesCount * prefetchPerRoutee;
+        if (client.getServiceMaxInFlight() > 0) prefetch = Math.min(prefetch, client.getServiceMaxInFlight());
+        channel.basicQos(prefetch);
+        return new DeliveryAcker(channel, client.getActorSystem(), client.getServiceAckInterval());
     }
 
     /**
      * (internal usage)
      * Create a new MomConsumer to consume message from RabbitMQ source and forward them to the request actor.
+     * <p/>
+     * The consumer is push based : deliveries are handed to the request actor from the RabbitMQ connection consumer
+     * dispatch pool (no dedicated thread per consumer). Deliveries are decoded once here and sent to the request actor
+     * in a {@link MomMsgEnvelope}. Each delivery is declared to the service {@link DeliveryAcker} before being forwarded
+     * and the remaining completed deliveries are acknowledged on stop. A delivery dropped before treatment (request
+     * actor stopped with queued deliveries) is abandoned to the acker.
      *
      * @param source request source queue
-     * @param channel RabbitMQ channel
+     * @param acker the service channel acknowledgements coalescer
+     * @param topology the client topology registry
      * @param requestActor request actor ref to treat the message
      * @param isMsgDebugOnTimeout debug on timeout if true
      * @return the new MomConsumer
      */
-    private static MomConsumer createConsumer(final String source, final Channel channel, final ActorRef requestActor, final boolean isMsgDebugOnTimeout) {
-        return new MomConsumer() {
-            private boolean isRunning = false;
+    private static MomConsumer createConsumer(final String source, final DeliveryAcker acker, final TopologyRegistry topology,
+                                              final ActorRef requestActor, final boolean isMsgDebugOnTimeout) {
+        return new ServiceConsumer(source, acker, topology, requestActor, isMsgDebugOnTimeout);
+    }
 
-            @Override
-            public void run() {
-                try {
-                    Map<String, Object> finalMessage;
-                    channel.queueDeclare(source, false, false, true, null);
-
-                    QueueingConsumer consumer = new QueueingConsumer(channel);
-                    channel.basicConsume(source, false, consumer);
-                    isRunning = true;
-
-                    while (isRunning) {
-                        try {
-                            QueueingConsumer.Delivery delivery = consumer.nextDelivery(10);
-                            if (delivery!=null && isRunning) {
-                                finalMessage = translator.decode(new Message().setEnvelope(delivery.getEnvelope()).
-                                        setProperties(delivery.getProperties()).
-                                        setBody(delivery.getBody()));
-                                if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && isMsgDebugOnTimeout)
-                                    ((MomLogger)log).setMsgTraceLevel(true);
-                                ((MomLogger)log).traceMessage("MomConsumer(" + source + ").run", finalMessage);
-                                requestActor.tell(delivery, null);
-                                if (((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && isMsgDebugOnTimeout)
-                                    ((MomLogger)log).setMsgTraceLevel(false);
+    /**
+     * (internal usage)
+     * The push based request service consumer (see {@link #createConsumer(String, DeliveryAcker, TopologyRegistry, ActorRef, boolean)}).
+     * The consumer is stopped if the broker cancels it or if its channel is shut down : it can then be started again
+     * as long as its channel is open.
+     */
+    static class ServiceConsumer implements MomConsumer {
+        private final String source;
+        private final DeliveryAcker acker;
+        private final TopologyRegistry topology;
+        private final ActorRef requestActor;
+        private final boolean isMsgDebugOnTimeout;
+        private final Channel channel;
+        private volatile boolean isRunning = false;
+        private String consumerTag = null;
+
+        ServiceConsumer(String source, DeliveryAcker acker, TopologyRegistry topology, ActorRef requestActor, boolean isMsgDebugOnTimeout) {
+            this.source = source;
+            this.acker = acker;
+            this.topology = topology;
+            this.requestActor = requestActor;
+            this.isMsgDebugOnTimeout = isMsgDebugOnTimeout;
+            this.channel = acker.getChannel();
+        }
+
+        /**
+         * @return the service channel acknowledgements coalescer
+         */
+        DeliveryAcker getAcker() {
+            return acker;
+        }
+
+        @Override
+        public void run() {
+            try {
+                topology.declareQueue(channel, source, false, false, true);
+                isRunning = true;
+                consumerTag = channel.basicConsume(source, false, new DefaultConsumer(channel) {
+                    @Override
+                    public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+                        if (!isRunning) return;
+                        Map<String, Object> finalMessage = translator.decode(new Message().setEnvelope(envelope).
+                                setProperties(properties).
+                                setBody(body));
+                        boolean isTraced = ((HashMap)finalMessage).containsKey(MomMsgTranslator.MSG_TRACE) && isMsgDebugOnTimeout;
+                        if (isTraced) ((MomLogger)log).setMsgTraceLevel(true);
+                        ((MomLogger)log).traceMessage("MomConsumer(" + source + ").handleDelivery", finalMessage);
+                        final long deliveryTag = envelope.getDeliveryTag();
+                        acker.delivered(deliveryTag);
+                        requestActor.tell(new MomMsgEnvelope<>(new QueueingConsumer.Delivery(envelope, properties, body), finalMessage, null, new Runnable() {
+                            @Override
+                            public void run() {
+                                acker.abandon(deliveryTag);
                             }
-                        } catch (InterruptedException e) {
-                            // no message
-                        }
+                        }), null);
+                        if (isTraced) ((MomLogger)log).setMsgTraceLevel(false);
                     }
 
-                } catch (IOException e) {
-                    e.printStackTrace();
-                } finally {
-                    try {
-                        if (channel.getConnection()!=null && channel.getConnection().isOpen()) {
-                            channel.queueDelete(source);
-                            //channel.close();
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
+                    @Override
+                    public void handleCancel(String consumerTag) {
+                        log.warn("[source: " + source + "] consumer cancelled by broker");
+                        isRunning = false;
                     }
-                }
-            }
 
-            @Override
-            public boolean isRunning() {
-                return isRunning;
+                    @Override
+                    public void handleShutdownSignal(String consumerTag, ShutdownSignalException sig) {
+                        if (isRunning) log.warn("[source: " + source + "] consumer channel shut down : " + sig.getMessage());
+                        isRunning = false;
+                    }
+                });
+            } catch (IOException | ShutdownSignalException e) {
+                isRunning = false;
+                log.error("[source: " + source + "] unable to consume : " + e.getMessage());
             }
+        }
 
-            @Override
-            public void start() {
-                new Thread(this).start();
-            }
+        @Override
+        public boolean isRunning() {
+            return isRunning;
+        }
 
-            @Override
-            public void stop() {
-                isRunning = false;
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        @Override
+        public void start() {
+            this.run();
+        }
+
+        @Override
+        public void stop() {
+            isRunning = false;
+            try {
+                if (channel.getConnection()!=null && channel.getConnection().isOpen()) {
+                    if (consumerTag!=null && channel.isOpen()) channel.basicCancel(consumerTag);
+                    acker.flush();
+                    if (channel.isOpen()) topology.deleteQueue(channel, source);
                 }
+            } catch (IOException | ShutdownSignalException e) {
+                e.printStackTrace();
             }
-        };
+            consumerTag = null;
+        }
     }
 
     /**
      * (internal usage)
      * Create new messages group service manage to handle messages group on calling service.
+     * <p/>
+     * Each messages group is consumed on its own channel and acknowledgements coalescer : the deliveries of a group
+     * (and their prefetch window) never hold the acknowledgements of the calling service or of the other groups.
+     * The group channel is closed when the group service is closed.
      *
      * @param source request source queue
-     * @param channel RabbitMQ channel
+     * @param connection the client RabbitMQ connection
      * @param requestCB application message worker to treat request
      * @param client initialized RabbitMQ Client
      * @return the fresh new MomMsgGroupServiceMgr
      */
-    private static MomMsgGroupServiceMgr createMsgGroupServiceManager(final String source, final Channel channel,
+    private static MomMsgGroupServiceMgr createMsgGroupServiceManager(final String source, final Connection connection,
                                                                          final AppMsgWorker requestCB, final MomClient client) {
         return new MomMsgGroupServiceMgr() {
             HashMap<String, MomConsumer> msgGroupConsumersRegistry = new HashMap<>();
             HashMap<String, ActorRef> msgGroupActorRegistry = new HashMap<>();
+            HashMap<String, DeliveryAcker> msgGroupAckerRegistry = new HashMap<>();
+
+            private void closeMsgGroupChannel(String groupID) {
+                DeliveryAcker acker = msgGroupAckerRegistry.remove(groupID);
+                try {
+                    if (acker!=null && acker.getChannel().isOpen()) acker.getChannel().close();
+                } catch (IOException | ShutdownSignalException e) {
+                    log.error("Unable to close channel of group " + groupID + " : " + e.getMessage());
+                }
+            }
+
             @Override
             public void openMsgGroupService(String groupID) {
                 final String sessionSource = groupID + "-" + source;
+                DeliveryAcker acker;
+                try {
+                    acker = ServiceFactory.createServiceAcker((Client)client, connection, requestCB);
+                } catch (IOException e) {
+                    log.error("Unable to open channel for group " + groupID + " : " + e.getMessage());
+                    return;
+                }
+                msgGroupAckerRegistry.put(groupID, acker);
                 ActorRef msgGroupSupervisor = ((Client)client).getMsgGroupSupervisor(groupID);
                 ActorRef runnableReqActor;
                 if (msgGroupSupervisor!=null)
-                    runnableReqActor = ServiceFactory.createRequestRouter(source, client, channel, requestCB, msgGroupSupervisor, 2, true);
+                    runnableReqActor = ServiceFactory.createRequestRouter(source, client, acker, requestCB, msgGroupSupervisor, 2, null, null, ((Client)client).getServiceDispatcherID(source), true);
                 else {
                     log.warn("No supervisor found for group " + groupID + ". Use main mom supervisor.");
-                    runnableReqActor = ServiceFactory.createRequestRouter(sessionSource, client, channel, requestCB, null, 2, true);
+                    runnableReqActor = ServiceFactory.createRequestRouter(sessionSource, client, acker, requestCB, null, 2, null, null, ((Client)client).getServiceDispatcherID(source), true);
                 }
                 msgGroupActorRegistry.put(groupID, runnableReqActor);
-                msgGroupConsumersRegistry.put(groupID, ServiceFactory.createConsumer(sessionSource, channel, runnableReqActor, client.isMsgDebugOnTimeout()));
+                msgGroupConsumersRegistry.put(groupID, ServiceFactory.createConsumer(sessionSource, acker, ((Client)client).getTopologyRegistry(), runnableReqActor, client.isMsgDebugOnTimeout()));
                 msgGroupConsumersRegistry.get(groupID).start();
             }
 
@@ -204,6 +314,7 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
                     if (!msgGroupActorRegistry.get(groupID).isTerminated() && msgGroupSupervisor==null)
                         msgGroupActorRegistry.get(groupID).tell(PoisonPill.getInstance(), null);
                     msgGroupActorRegistry.remove(groupID);
+                    closeMsgGroupChannel(groupID);
                 }
             }
 
@@ -218,6 +329,7 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
                     if (!msgGroupActorRegistry.get(groupID).isTerminated() && msgGroupSupervisor==null)
                         msgGroupActorRegistry.get(groupID).tell(PoisonPill.getInstance(), null);
                     msgGroupActorRegistry.remove(groupID);
+                    closeMsgGroupChannel(groupID);
                 }
             }
         };
@@ -240,11 +352,11 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
         if (connection != null && connection.isOpen()) {
             try {
-                Channel channel = connection.createChannel();
-                channel.basicQos(1);
-                requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), channel, requestWorker, null, true);
-                consumer = ServiceFactory.createConsumer(source, channel, requestActor, super.getMomClient().isMsgDebugOnTimeout());
-                msgGroupMgr = ServiceFactory.createMsgGroupServiceManager(source, channel, requestWorker, super.getMomClient());
+                DeliveryAcker acker = ServiceFactory.createServiceAcker(((Client) super.getMomClient()), connection, requestWorker);
+                requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), acker, requestWorker, null, true);
+                consumer = ServiceFactory.createConsumer(source, acker, ((Client)super.getMomClient()).getTopologyRegistry(),
+                        requestActor, super.getMomClient().isMsgDebugOnTimeout());
+                msgGroupMgr = ServiceFactory.createMsgGroupServiceManager(source, connection, requestWorker, super.getMomClient());
                 consumer.start();
                 ret = new MomAkkaService().setMsgWorker(requestActor).setConsumer(consumer).setClient(super.getMomClient()).setMsgGroupServiceMgr(msgGroupMgr);
                 super.getServices().add(ret);
@@ -272,10 +384,10 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
         if (connection != null && connection.isOpen()) {
             try {
-                Channel channel = connection.createChannel();
-                channel.basicQos(1);
-                requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), channel, requestWorker, null, false);
-                consumer = ServiceFactory.createConsumer(source, channel, requestActor, super.getMomClient().isMsgDebugOnTimeout());
+                DeliveryAcker acker = ServiceFactory.createServiceAcker(((Client) super.getMomClient()), connection, requestWorker);
+                requestActor = ServiceFactory.createRequestRouter(source, super.getMomClient(), acker, requestWorker, null, false);
+                consumer = ServiceFactory.createConsumer(source, acker, ((Client)super.getMomClient()).getTopologyRegistry(),
+                        requestActor, super.getMomClient().isMsgDebugOnTimeout());
                 consumer.start();
 
                 ret = new MomAkkaService().setMsgWorker(requestActor).setConsumer(consumer).setClient(super.getMomClient());
@@ -302,8 +414,9 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
         MomAkkaService ret = null;
         Connection  connection   = ((Client)super.getMomClient()).getConnection();
         if (connection != null && connection.isOpen()) {
-            ActorRef feeder = super.getMomClient().getActorSystem().actorOf(MsgFeederActor.props(
-                    ((Client)super.getMomClient()),baseDestination, selector, feederWorker)
+            ActorRef feeder = super.getMomClient().getActorSystem().actorOf(MomAkkaDispatcher.withDispatcher(MsgFeederActor.props(
+                    ((Client)super.getMomClient()),baseDestination, selector, feederWorker),
+                    ((Client)super.getMomClient()).getServiceDispatcherID(baseDestination))
             );
             ret = new MomAkkaService().setClient(super.getMomClient()).setMsgFeeder(feeder, interval);
             super.getServices().add(ret);
@@ -331,52 +444,44 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
         if (connection != null && connection.isOpen()) {
             subsActor = super.getMomClient().getActorSystem().actorOf(
-                    MsgSubsActor.props(feedWorker), baseSource + "." + ((selector.equals("#")) ? "all" : selector) + "_msgWorker"
+                    MomAkkaDispatcher.withDispatcher(MsgSubsActor.props(((Client)super.getMomClient()), feedWorker), ((Client)super.getMomClient()).getServiceDispatcherID(baseSource)),
+                    baseSource + "." + ((selector.equals("#")) ? "all" : selector) + "_msgWorker"
             );
             final ActorRef runnableSubsActor = subsActor;
             final String   select           = selector;
             final Client cli = ((Client)super.getMomClient());
 
             consumer = new MomConsumer() {
-                private boolean isRunning = false;
+                private volatile boolean isRunning = false;
+                private Channel channel = null;
 
                 @Override
                 public void run() {
-                    Channel channel = null;
                     try {
                         channel = connection.createChannel();
-                        channel.exchangeDeclare(baseSource, "topic");
+                        cli.getTopologyRegistry().declareExchange(channel, baseSource, "topic");
 
                         String queueName = cli.getClientID()+"_SUBS_2_"+baseSource+"."+select;
-                        channel.queueDeclare(queueName, false, true, false, null);
-                        channel.queueBind(queueName, baseSource, select);
-
-                        QueueingConsumer consumer = new QueueingConsumer(channel);
-                        channel.basicConsume(queueName, true, consumer);
+                        cli.getTopologyRegistry().declareQueue(channel, queueName, false, true, false);
+                        cli.getTopologyRegistry().bindQueue(channel, queueName, baseSource, select);
 
                         isRunning = true;
-
-                        while (isRunning) {
-                            try {
-                                QueueingConsumer.Delivery delivery = consumer.nextDelivery(10);
-                                if (delivery!=null && isRunning) runnableSubsActor.tell(delivery, null);
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
+                        channel.basicConsume(queueName, true, new DefaultConsumer(channel) {
+                            @Override
+                            public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
+                                if (isRunning) runnableSubsActor.tell(new QueueingConsumer.Delivery(envelope, properties, body), null);
                             }
 
-                        }
-                        if (channel.getConnection().isOpen())
-                            channel.close();
-
+                            @Override
+                            public void handleCancel(String consumerTag) {
+                                log.warn("[source: " + baseSource + "." + select + "] subscriber cancelled by broker");
+                                isRunning = false;
+                            }
+                        });
                     } catch (IOException e) {
+                        isRunning = false;
                         e.printStackTrace();
-                    } finally {
-                        try {
-                            if (channel.getConnection().isOpen())
-                                channel.close();
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                        this.stop();
                     }
                 }
 
@@ -387,15 +492,16 @@ public class ServiceFactory extends MomAkkaAbsServiceFactory implements MomServi
 
                 @Override
                 public void start() {
-                    new Thread(this).start();
+                    this.run();
                 }
 
                 @Override
                 public void stop() {
                     isRunning = false;
                     try {
-                        Thread.sleep(20);
-                    } catch (InterruptedException e) {
+                        if (channel!=null && channel.getConnection().isOpen() && channel.isOpen())
+                            channel.close();
+                    } catch (IOException | ShutdownSignalException e) {
                         e.printStackTrace();
                     }
                 }
@@ -0,0 +1,171 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Topology registry
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import com.rabbitmq.client.Channel;
+import net.echinopsii.ariane.community.messaging.common.MomLoggerFactory;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TopologyRegistry class records the RabbitMQ exchanges, queues and bindings declared through a RabbitMQ client
+ * connection so that any request executor, feeder or service declares a resource once per connection :
+ * <br/> - a declared resource is not declared again (lock free lookup)
+ * <br/> - concurrent declarations of the same resource are deduplicated : one caller declares, the others wait for it
+ * <br/> - a failed declaration is not recorded (next caller will try again)
+ * <br/> - deleted queues are forgotten with their bindings
+ * <br/> - the registry is cleared when the connection is shut down or recovered as the broker may have lost the
+ * non durable resources.
+ */
+public class TopologyRegistry {
+    private static final Logger log = MomLoggerFactory.getLogger(TopologyRegistry.class);
+
+    private static final String EXCHANGE_KEY = "exchange:";
+    private static final String QUEUE_KEY    = "queue:";
+    private static final String BINDING_KEY  = "binding:";
+
+    /**
+     * RabbitMQ resource declaration
+     */
+    private interface Declaration {
+        void declare() throws IOException;
+    }
+
+    /**
+     * Declared (or being declared) RabbitMQ resource
+     */
+    private static class Resource {
+        volatile boolean declared = false;
+    }
+
+    private ConcurrentHashMap<String, Resource> resources = new ConcurrentHashMap<>();
+
+    /**
+     * declare exchange if not already declared
+     * @param channel the channel to declare exchange with
+     * @param exchange the exchange name
+     * @param type the exchange type
+     * @throws IOException while declaring RabbitMQ resources
+     */
+    public void declareExchange(final Channel channel, final String exchange, final String type) throws IOException {
+        declare(EXCHANGE_KEY + exchange, new Declaration() {
+            @Override
+            public void declare() throws IOException {
+                channel.exchangeDeclare(exchange, type);
+            }
+        });
+    }
+
+    /**
+     * declare queue if not already declared
+     * @param channel the channel to declare queue with
+     * @param queue the queue name
+     * @param durable true if queue must survive a broker restart
+     * @param exclusive true if queue is restricted to this connection
+     * @param autoDelete true if queue must be deleted when no longer used
+     * @throws IOException while declaring RabbitMQ resources
+     */
+    public void declareQueue(final Channel channel, final String queue, final boolean durable, final boolean exclusive,
+                             final boolean autoDelete) throws IOException {
+        declare(QUEUE_KEY + queue, new Declaration() {
+            @Override
+            public void declare() throws IOException {
+                channel.queueDeclare(queue, durable, exclusive, autoDelete, null);
+            }
+        });
+    }
+
+    /**
+     * bind queue to exchange if not already bound
+     * @param channel the channel to bind queue with
+     * @param queue the queue name
+     * @param exchange the exchange name
+     * @param routingKey the binding routing key
+     * @throws IOException while declaring RabbitMQ resources
+     */
+    public void bindQueue(final Channel channel, final String queue, final String exchange, final String routingKey) throws IOException {
+        declare(BINDING_KEY + queue + ":" + exchange + ":" + routingKey, new Declaration() {
+            @Override
+            public void declare() throws IOException {
+                channel.queueBind(queue, exchange, routingKey);
+            }
+        });
+    }
+
+    /**
+     * delete queue and forget it with its bindings
+     * @param channel the channel to delete queue with
+     * @param queue the queue name
+     * @throws IOException while deleting RabbitMQ resources
+     */
+    public void deleteQueue(Channel channel, String queue) throws IOException {
+        forgetQueue(queue);
+        channel.queueDelete(queue);
+    }
+
+    /**
+     * forget queue and its bindings (the queue has been deleted or will be auto deleted)
+     * @param queue the queue name
+     */
+    public void forgetQueue(String queue) {
+        resources.remove(QUEUE_KEY + queue);
+        for (String key : resources.keySet())
+            if (key.startsWith(BINDING_KEY + queue + ":")) resources.remove(key);
+    }
+
+    /**
+     * forget any declared resource (to be called on connection shutdown or recovery)
+     */
+    public void invalidate() {
+        log.debug("Topology registry invalidated (" + resources.size() + " resources)");
+        resources.clear();
+    }
+
+    /**
+     * @return the declared resources count
+     */
+    public int getDeclaredCount() {
+        int count = 0;
+        for (Resource resource : resources.values())
+            if (resource.declared) count++;
+        return count;
+    }
+
+    private void declare(String key, Declaration declaration) throws IOException {
+        Resource resource = resources.get(key);
+        if (resource!=null && resource.declared) return;
+        if (resource==null) {
+            resources.putIfAbsent(key, new Resource());
+            resource = resources.get(key);
+            if (resource==null) {
+                declaration.declare();
+                return;
+            }
+        }
+        synchronized (resource) {
+            if (!resource.declared) {
+                declaration.declare();
+                resource.declared = true;
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package net.echinopsii.ariane.community.messaging.rabbitmq;
 
+import com.rabbitmq.client.Channel;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
 import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
 import org.junit.AfterClass;
@@ -77,4 +78,20 @@ public class ClientTest {
             assertNotNull(client.getServiceFactory());
         }
     }
+
+    @Test
+    public void testTopologyRegistry() throws IOException {
+        if (client!=null) {
+            TopologyRegistry topology = ((Client)client).getTopologyRegistry();
+            Channel channel = ((Client)client).getConnection().createChannel();
+            int declaredCount = topology.getDeclaredCount();
+            topology.declareQueue(channel, "TOPOLOGY_TEST_QUEUE", false, false, true);
+            topology.declareQueue(channel, "TOPOLOGY_TEST_QUEUE", false, false, true);
+            topology.bindQueue(channel, "TOPOLOGY_TEST_QUEUE", "amq.direct", "TOPOLOGY_TEST_QUEUE");
+            assertTrue(topology.getDeclaredCount() == declaredCount + 2);
+            topology.deleteQueue(channel, "TOPOLOGY_TEST_QUEUE");
+            assertTrue(topology.getDeclaredCount() == declaredCount);
+            channel.close();
+        }
+    }
 }
\ No newline at end of file
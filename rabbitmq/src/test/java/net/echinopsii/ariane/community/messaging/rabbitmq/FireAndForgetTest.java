@@ -20,7 +20,9 @@
 package net.echinopsii.ariane.community.messaging.rabbitmq;
 
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomAsyncPublisher;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomException;
 import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
 import org.junit.AfterClass;
@@ -28,7 +30,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -107,4 +111,45 @@ public class FireAndForgetTest {
         }
     }
 
+    @Test
+    public void testFireAndForgetBatch() throws InterruptedException {
+        if (client!=null) {
+            TestMsgWorker test = new TestMsgWorker();
+            client.getServiceFactory().requestService("FAF_BATCH_QUEUE", test);
+
+            List<Map<String, Object>> messages = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> message = new HashMap<String, Object>();
+                message.put(MomMsgTranslator.MSG_BODY, sendedMsgBody);
+                messages.add(message);
+            }
+            List<Map<String, Object>> failedMessages = client.createRequestExecutor().FAFBatch(messages, "FAF_BATCH_QUEUE");
+
+            Thread.sleep(1000);
+            assertTrue(failedMessages.isEmpty());
+            assertTrue(test.isOK());
+        }
+    }
+
+    @Test
+    public void testAsyncFireAndForget() throws InterruptedException, MomException {
+        if (client!=null) {
+            TestMsgWorker test = new TestMsgWorker();
+            client.getServiceFactory().requestService("FAF_ASYNC_QUEUE", test);
+
+            MomAsyncPublisher publisher = client.getAsyncPublisher();
+            long publishedCount = publisher.getPublishedCount();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> message = new HashMap<String, Object>();
+                message.put(MomMsgTranslator.MSG_BODY, sendedMsgBody);
+                publisher.publish(message, "FAF_ASYNC_QUEUE");
+            }
+
+            Thread.sleep(1000);
+            assertTrue(publisher.getQueueDepth() == 0);
+            assertTrue(publisher.getPublishedCount() == publishedCount + 10);
+            assertTrue(test.isOK());
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * ID generators benchmark
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import net.echinopsii.ariane.community.messaging.api.MomIDGenerator;
+import net.echinopsii.ariane.community.messaging.common.MomStripedIDGenerator;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class IDGeneratorBenchmarkTest {
+
+    private static final int WARMUP_ID_COUNT = 10000;
+    private static final int BENCH_ID_COUNT  = 100000;
+    private static final int MAX_THREADS     = 64;
+
+    class SynchronizedUUIDGenerator implements MomIDGenerator {
+        @Override
+        public String nextID() {
+            synchronized (UUID.class) {
+                return UUID.randomUUID().toString();
+            }
+        }
+    }
+
+    private long runGenerators(final MomIDGenerator generator, int threads, final int countPerThread, final Set<String> ids) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < countPerThread; j++) {
+                            String id = generator.nextID();
+                            if (ids!=null) ids.add(id);
+                        }
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    @Test
+    public void testStripedIDGeneratorUniqueness() throws InterruptedException {
+        Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        runGenerators(new MomStripedIDGenerator(), MAX_THREADS, WARMUP_ID_COUNT, ids);
+        assertEquals(MAX_THREADS * WARMUP_ID_COUNT, ids.size());
+        for (String id : ids) assertEquals(true, id.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void testIDGeneratorsThroughput() throws InterruptedException {
+        // benchmark : run with -Dbenchmark=true
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        MomIDGenerator uuidGenerator = new SynchronizedUUIDGenerator();
+        MomIDGenerator stripedGenerator = new MomStripedIDGenerator();
+
+        runGenerators(uuidGenerator, 1, WARMUP_ID_COUNT, null);
+        runGenerators(stripedGenerator, 1, WARMUP_ID_COUNT, null);
+
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            int countPerThread = BENCH_ID_COUNT / threads;
+            long uuidTime = runGenerators(uuidGenerator, threads, countPerThread, null);
+            long stripedTime = runGenerators(stripedGenerator, threads, countPerThread, null);
+            System.out.println(threads + " threads - synchronized UUID : " + (uuidTime / (countPerThread * threads)) + " ns/ID" +
+                    " - striped : " + (stripedTime / (countPerThread * threads)) + " ns/ID");
+        }
+    }
+}
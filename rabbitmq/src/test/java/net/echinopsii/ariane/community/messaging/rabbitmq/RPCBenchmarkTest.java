@@ -0,0 +1,112 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * RPC reply modes benchmark
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomException;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeoutException;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class RPCBenchmarkTest {
+
+    private static final int WARMUP_RPC_COUNT = 100;
+    private static final int BENCH_RPC_COUNT  = 1000;
+
+    private static MomClient client = null;
+
+    @BeforeClass
+    public static void testSetup() throws IllegalAccessException, ClassNotFoundException, InstantiationException, IOException {
+        // benchmark : run with -Dbenchmark=true
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Properties props = new Properties();
+        props.load(ClientTest.class.getResourceAsStream("/rabbitmq-test.properties"));
+        client = MomClientFactory.make(props.getProperty(MomClient.MOM_CLI));
+
+        try {
+            client.init(props);
+        } catch (Exception e) {
+            System.err.println("No local rabbit to test");
+            client = null;
+        }
+    }
+
+    @AfterClass
+    public static void testCleanup() throws Exception {
+        if (client!=null)
+            client.close();
+    }
+
+    class EchoWorker implements AppMsgWorker {
+        @Override
+        public Map<String, Object> apply(Map<String, Object> message) {
+            Map<String, Object> reply = new HashMap<String, Object>();
+            reply.put(MomMsgTranslator.MSG_BODY, message.get(MomMsgTranslator.MSG_BODY));
+            return reply;
+        }
+    }
+
+    private long runRPCs(MomRequestExecutor requestExecutor, int count) throws TimeoutException, IOException, MomException {
+        int replied = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, "bench " + i);
+            if (requestExecutor.RPC(request, "RPC_BENCH_QUEUE", null)!=null) replied++;
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertEquals(count, replied);
+        return elapsed;
+    }
+
+    @Test
+    public void testRPCReplyModesLatency() throws TimeoutException, IOException, MomException {
+        if (client!=null) {
+            client.getServiceFactory().requestService("RPC_BENCH_QUEUE", new EchoWorker());
+
+            ((Client)client).setDirectReplyTo(false);
+            MomRequestExecutor tmpQueueRequestExecutor = client.createRequestExecutor();
+            ((Client)client).setDirectReplyTo(true);
+            MomRequestExecutor directReplyToRequestExecutor = client.createRequestExecutor();
+
+            runRPCs(tmpQueueRequestExecutor, WARMUP_RPC_COUNT);
+            runRPCs(directReplyToRequestExecutor, WARMUP_RPC_COUNT);
+
+            long tmpQueueTime = runRPCs(tmpQueueRequestExecutor, BENCH_RPC_COUNT);
+            long directReplyToTime = runRPCs(directReplyToRequestExecutor, BENCH_RPC_COUNT);
+
+            System.out.println("RPC with temporary reply queue : " + (tmpQueueTime / BENCH_RPC_COUNT / 1000) + " us/RPC");
+            System.out.println("RPC with direct reply-to       : " + (directReplyToTime / BENCH_RPC_COUNT / 1000) + " us/RPC");
+        }
+    }
+}
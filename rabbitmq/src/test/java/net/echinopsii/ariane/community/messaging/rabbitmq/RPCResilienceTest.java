@@ -0,0 +1,94 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * RPC latency estimator, retry budget and backoff test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsRequestExecutor;
+import net.echinopsii.ariane.community.messaging.common.MomRPCLatencyEstimator;
+import net.echinopsii.ariane.community.messaging.common.MomRPCRetryBudget;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class RPCResilienceTest {
+
+    private static final long MS = 1000000;
+
+    @Test
+    public void testLatencyEstimator() {
+        MomRPCLatencyEstimator estimator = new MomRPCLatencyEstimator();
+        assertEquals(-1, estimator.getP95());
+        assertEquals(10000, estimator.getTimeout(4, 100, 10000));
+
+        estimator.addSample(10 * MS);
+        assertEquals(10 * MS, estimator.getMean());
+        assertEquals(5 * MS, estimator.getDeviation());
+        assertEquals(20 * MS, estimator.getP95());
+        assertEquals(30 * MS, estimator.getEstimate(4));
+        assertEquals(100, estimator.getTimeout(4, 100, 10000));
+        assertEquals(30, estimator.getTimeout(4, 1, 10000));
+
+        for (int i = 0; i < 100; i++) estimator.addSample(10 * MS);
+        assertTrue(estimator.getMean() == 10 * MS);
+        assertTrue(estimator.getDeviation() < MS);
+
+        estimator.addSample(1000 * MS);
+        assertTrue(estimator.getMean() > 10 * MS);
+        assertEquals(50, estimator.getTimeout(4, 1, 50));
+    }
+
+    @Test
+    public void testRetryBudget() {
+        MomRPCRetryBudget budget = new MomRPCRetryBudget(0.2, 2);
+        assertEquals(2, budget.getAvailableRetries());
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        for (int i = 0; i < 4; i++) budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        for (int i = 0; i < 100; i++) budget.deposit();
+        assertEquals(2, budget.getAvailableRetries());
+    }
+
+    @Test
+    public void testJitteredBackoff() {
+        Set<Long> backoffs = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            long backoff = MomAkkaAbsRequestExecutor.getJitteredBackoff(50, 5000, 0);
+            assertTrue(backoff >= 0 && backoff <= 50);
+            backoff = MomAkkaAbsRequestExecutor.getJitteredBackoff(50, 5000, 3);
+            assertTrue(backoff >= 0 && backoff <= 400);
+            backoffs.add(backoff);
+            backoff = MomAkkaAbsRequestExecutor.getJitteredBackoff(50, 1000, 30);
+            assertTrue(backoff >= 0 && backoff <= 1000);
+        }
+        assertTrue(backoffs.size() > 1);
+        assertEquals(0, MomAkkaAbsRequestExecutor.getJitteredBackoff(0, 5000, 3));
+    }
+}
@@ -19,20 +19,48 @@
 
 package net.echinopsii.ariane.community.messaging.rabbitmq;
 
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.Futures;
+import net.echinopsii.ariane.community.messaging.api.AppMsgAsyncWorker;
+import net.echinopsii.ariane.community.messaging.api.AppMsgBatchWorker;
+import net.echinopsii.ariane.community.messaging.api.AppMsgFeeder;
 import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomCircuitBreakerListener;
 import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomCoalescingPolicy;
 import net.echinopsii.ariane.community.messaging.api.MomException;
+import net.echinopsii.ariane.community.messaging.api.MomGatherPolicy;
+import net.echinopsii.ariane.community.messaging.api.MomHedgingPolicy;
+import net.echinopsii.ariane.community.messaging.common.MomAkkaAbsClient;
 import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
+import net.echinopsii.ariane.community.messaging.common.MomRPCResponseCache;
 import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import net.echinopsii.ariane.community.messaging.api.MomService;
+import net.echinopsii.ariane.community.messaging.api.MomRPCResult;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.assertTrue;
 
@@ -129,4 +157,462 @@ public class RPCTest {
         }
     }
 
+    @Test
+    public void testRPCAsync() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            TestReplyWorker   replyWorker   = new TestReplyWorker();
+
+            client.getServiceFactory().requestService("RPC_ASYNC_QUEUE", requestWorker);
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            Future<Map<String, Object>> futureReply = client.createRequestExecutor().RPCAsync(request, "RPC_ASYNC_QUEUE", replyWorker);
+            Await.result(futureReply, Duration.create(10, TimeUnit.SECONDS));
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testRPCBatch() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            TestReplyWorker   replyWorker   = new TestReplyWorker();
+
+            client.getServiceFactory().requestService("RPC_BATCH_QUEUE", requestWorker);
+
+            List<Map<String, Object>> requests = new ArrayList<Map<String, Object>>();
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                requests.add(request);
+            }
+            List<MomRPCResult> results = client.createRequestExecutor().RPCBatch(requests, "RPC_BATCH_QUEUE", replyWorker);
+
+            assertTrue(results.size() == requests.size());
+            for (MomRPCResult result : results)
+                assertTrue(result.isSuccess());
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testRPCScatterGather() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            TestReplyWorker   replyWorker   = new TestReplyWorker();
+
+            List<String> destinations = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                client.getServiceFactory().requestService("RPC_SG_QUEUE_" + i, requestWorker);
+                destinations.add("RPC_SG_QUEUE_" + i);
+            }
+
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            List<MomRPCResult> results = client.createRequestExecutor().RPCScatterGather(request, destinations, MomGatherPolicy.all(), replyWorker);
+            assertTrue(results.size() == destinations.size());
+            for (MomRPCResult result : results)
+                assertTrue(result.isSuccess());
+
+            results = client.createRequestExecutor().RPCScatterGather(request, destinations, MomGatherPolicy.first(), replyWorker);
+            int successCount = 0;
+            for (MomRPCResult result : results)
+                if (result.isSuccess()) successCount++;
+            assertTrue(successCount >= 1);
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testSlowAnswerWorkerDeadline() throws Exception {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            AppMsgWorker slowReplyWorker = new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return message;
+                }
+            };
+
+            List<String> destinations = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                client.getServiceFactory().requestService("RPC_SLOW_ANSWER_QUEUE_" + i, requestWorker);
+                destinations.add("RPC_SLOW_ANSWER_QUEUE_" + i);
+            }
+
+            long rpcTimeoutMax = ((MomAkkaAbsClient)client).getRPCTimeoutMax();
+            // answers are received well before the deadline but their treatment ends after it
+            ((MomAkkaAbsClient)client).setRPCTimeoutMax(800);
+            try {
+                List<Map<String, Object>> requests = new ArrayList<Map<String, Object>>();
+                for (int i = 0; i < 8; i++) {
+                    Map<String, Object> request = new HashMap<String, Object>();
+                    request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                    requests.add(request);
+                }
+                for (MomRPCResult result : client.createRequestExecutor().RPCBatch(requests, "RPC_SLOW_ANSWER_QUEUE_0", slowReplyWorker))
+                    assertTrue(result.isSuccess());
+
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                for (MomRPCResult result : client.createRequestExecutor().RPCScatterGather(request, destinations, MomGatherPolicy.all(), slowReplyWorker))
+                    assertTrue(result.isSuccess());
+            } finally {
+                ((MomAkkaAbsClient)client).setRPCTimeoutMax(rpcTimeoutMax);
+            }
+        }
+    }
+
+    @Test
+    public void testHedgedRPC() throws InterruptedException, TimeoutException, IOException, MomException {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            TestReplyWorker   replyWorker   = new TestReplyWorker();
+
+            client.getServiceFactory().requestService("RPC_HEDGED_QUEUE", requestWorker);
+
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            requestExecutor.setHedgingPolicy(MomHedgingPolicy.withDelay(1, 1.0));
+            for (int i = 0; i < 10; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                assertTrue(requestExecutor.RPC(request, "RPC_HEDGED_QUEUE", replyWorker)!=null);
+            }
+
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testRPCCircuitBreaker() throws InterruptedException, IOException {
+        if (client!=null) {
+            final AtomicInteger openCount = new AtomicInteger(0);
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            requestExecutor.setCircuitBreakerListener(new MomCircuitBreakerListener() {
+                @Override
+                public void onStateChange(String destination, State from, State to) {
+                    if (to == State.OPEN) openCount.incrementAndGet();
+                }
+            });
+
+            ((MomAkkaAbsClient)client).setRPCCircuitBreaker(true);
+            ((MomAkkaAbsClient)client).setRPCTimeoutMax(100);
+            try {
+                boolean failedFast = false;
+                for (int i = 0; i < 10 && !failedFast; i++) {
+                    Map<String, Object> request = new HashMap<String, Object>();
+                    request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                    try {
+                        requestExecutor.RPC(request, "RPC_NO_SERVICE_QUEUE", null);
+                    } catch (TimeoutException e) {
+                        // no service : the circuit is still closed
+                    } catch (MomException e) {
+                        failedFast = true;
+                    }
+                }
+                assertTrue(failedFast);
+                assertTrue(openCount.get() == 1);
+                assertTrue(requestExecutor.getCircuitBreakerState("RPC_NO_SERVICE_QUEUE") == MomCircuitBreakerListener.State.OPEN);
+            } finally {
+                ((MomAkkaAbsClient)client).setRPCCircuitBreaker(false);
+                ((MomAkkaAbsClient)client).setRPCTimeoutMax(0);
+            }
+        }
+    }
+
+    @Test
+    public void testPooledRPC() throws InterruptedException {
+        if (client!=null) {
+            TestRequestWorker requestWorker = new TestRequestWorker();
+            final TestReplyWorker replyWorker = new TestReplyWorker();
+
+            client.getServiceFactory().requestService("RPC_POOLED_QUEUE", requestWorker);
+
+            final AtomicInteger successCount = new AtomicInteger(0);
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                            try {
+                                Map<String, Object> request = new HashMap<String, Object>();
+                                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                                if (requestExecutor.RPC(request, "RPC_POOLED_QUEUE", replyWorker)!=null) successCount.incrementAndGet();
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            } finally {
+                                client.returnRequestExecutor(requestExecutor);
+                            }
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) caller.join();
+
+            assertTrue(successCount.get() == 80);
+            assertTrue(((MomAkkaAbsClient)client).getRequestExecutorPool().getLeasedCount() == 0);
+            assertTrue(((MomAkkaAbsClient)client).getRequestExecutorPool().getIdleCount() <= 8);
+            assertTrue(requestWorker.isOK());
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testBatchWorkerRPC() throws InterruptedException {
+        if (client!=null) {
+            final AtomicInteger batchesCount = new AtomicInteger(0);
+            final AtomicInteger batchedCount = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_BATCH_WORKER_QUEUE", new AppMsgBatchWorker() {
+                @Override
+                public Map<String, Map<String, Object>> applyBatch(List<Map<String, Object>> messages) {
+                    batchesCount.incrementAndGet();
+                    batchedCount.addAndGet(messages.size());
+                    Map<String, Map<String, Object>> replies = new HashMap<String, Map<String, Object>>();
+                    for (Map<String, Object> message : messages)
+                        replies.put((String) message.get(MomMsgTranslator.MSG_CORRELATION_ID), apply(message));
+                    return replies;
+                }
+
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, new String((byte[]) message.get(MomMsgTranslator.MSG_BODY)));
+                    return reply;
+                }
+            });
+
+            final AtomicInteger successCount = new AtomicInteger(0);
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int callerID = i;
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                            try {
+                                String body = "request " + callerID + "-" + j;
+                                Map<String, Object> request = new HashMap<String, Object>();
+                                request.put(MomMsgTranslator.MSG_BODY, body);
+                                Map<String, Object> reply = requestExecutor.RPC(request, "RPC_BATCH_WORKER_QUEUE", null);
+                                if (reply!=null && body.equals(new String((byte[]) reply.get(MomMsgTranslator.MSG_BODY))))
+                                    successCount.incrementAndGet();
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            } finally {
+                                client.returnRequestExecutor(requestExecutor);
+                            }
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) caller.join();
+
+            assertTrue(successCount.get() == 80);
+            assertTrue(batchedCount.get() == 80);
+            assertTrue(batchesCount.get() <= 80);
+        }
+    }
+
+    @Test
+    public void testAsyncWorkerRPC() throws InterruptedException {
+        if (client!=null) {
+            final ExecutorService downstream = Executors.newFixedThreadPool(32);
+            final AtomicInteger outstanding = new AtomicInteger(0);
+            final AtomicInteger maxOutstanding = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_ASYNC_WORKER_QUEUE", new AppMsgAsyncWorker() {
+                @Override
+                public Future<Map<String, Object>> applyAsync(final Map<String, Object> message) {
+                    return Futures.future(new Callable<Map<String, Object>>() {
+                        @Override
+                        public Map<String, Object> call() throws Exception {
+                            int current = outstanding.incrementAndGet();
+                            while (current > maxOutstanding.get()) maxOutstanding.set(current);
+                            Thread.sleep(50);
+                            outstanding.decrementAndGet();
+                            return apply(message);
+                        }
+                    }, ExecutionContexts.fromExecutorService(downstream));
+                }
+
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, new String((byte[]) message.get(MomMsgTranslator.MSG_BODY)));
+                    return reply;
+                }
+            });
+
+            final AtomicInteger successCount = new AtomicInteger(0);
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final int callerID = i;
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 5; j++) {
+                            MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                            try {
+                                String body = "request " + callerID + "-" + j;
+                                Map<String, Object> request = new HashMap<String, Object>();
+                                request.put(MomMsgTranslator.MSG_BODY, body);
+                                Map<String, Object> reply = requestExecutor.RPC(request, "RPC_ASYNC_WORKER_QUEUE", null);
+                                if (reply!=null && body.equals(new String((byte[]) reply.get(MomMsgTranslator.MSG_BODY))))
+                                    successCount.incrementAndGet();
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            } finally {
+                                client.returnRequestExecutor(requestExecutor);
+                            }
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) caller.join();
+            downstream.shutdown();
+
+            assertTrue(successCount.get() == 80);
+            assertTrue(maxOutstanding.get() > 1);
+        }
+    }
+
+    @Test
+    public void testCoalescedRPC() throws InterruptedException {
+        if (client!=null) {
+            final AtomicInteger requestsCount = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_COALESCED_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    requestsCount.incrementAndGet();
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, sendedReplyBody);
+                    return reply;
+                }
+            });
+
+            final TestReplyWorker replyWorker = new TestReplyWorker();
+            final CountDownLatch start = new CountDownLatch(1);
+            final Set<Map<String, Object>> replies = Collections.synchronizedSet(
+                    Collections.newSetFromMap(new IdentityHashMap<Map<String, Object>, Boolean>())
+            );
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread caller = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                        requestExecutor.setCoalescingPolicy(MomCoalescingPolicy.onFields("OPERATION"));
+                        try {
+                            Map<String, Object> request = new HashMap<String, Object>();
+                            request.put("OPERATION", "GET_ALL");
+                            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                            start.await();
+                            Map<String, Object> reply = requestExecutor.RPC(request, "RPC_COALESCED_QUEUE", replyWorker);
+                            if (reply!=null) replies.add(reply);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        } finally {
+                            client.returnRequestExecutor(requestExecutor);
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            start.countDown();
+            for (Thread caller : callers) caller.join();
+
+            assertTrue(replies.size() == 8);
+            assertTrue(requestsCount.get() < 8);
+            assertTrue(((MomAkkaAbsClient)client).getRPCCoalescer().getFollowersCount() > 0);
+            assertTrue(((MomAkkaAbsClient)client).getRPCCoalescer().getInFlightCount() == 0);
+            assertTrue(replyWorker.isOK());
+        }
+    }
+
+    @Test
+    public void testCachedRPC() throws InterruptedException, TimeoutException, IOException, MomException {
+        if (client!=null) {
+            final AtomicInteger requestsCount = new AtomicInteger(0);
+            client.getServiceFactory().requestService("RPC_CACHED_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    requestsCount.incrementAndGet();
+                    Map<String, Object> reply = new HashMap<String, Object>();
+                    reply.put(MomMsgTranslator.MSG_BODY, sendedReplyBody);
+                    return reply;
+                }
+            });
+
+            MomRPCResponseCache cache = ((MomAkkaAbsClient)client).getRPCResponseCache();
+            cache.configure("RPC_CACHED_QUEUE", "GET", 60000);
+            MomService invalidationService = cache.subscribeInvalidations(client.getServiceFactory(), "RPC_CACHED_QUEUE_CHANGES", null, "RPC_CACHED_QUEUE");
+
+            TestReplyWorker replyWorker = new TestReplyWorker();
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            for (int i = 0; i < 3; i++) {
+                Map<String, Object> request = new HashMap<String, Object>();
+                request.put(MomRPCResponseCache.OPERATION, "GET");
+                request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+                assertTrue(requestExecutor.RPC(request, "RPC_CACHED_QUEUE", replyWorker)!=null);
+            }
+            assertTrue(requestsCount.get() == 1);
+            assertTrue(cache.getHitsCount() >= 2);
+            assertTrue(replyWorker.isOK());
+
+            final AtomicInteger changesCount = new AtomicInteger(0);
+            MomService changesFeeder = client.getServiceFactory().feederService("RPC_CACHED_QUEUE_CHANGES", null, 100, new AppMsgFeeder() {
+                @Override
+                public Map<String, Object> apply() {
+                    changesCount.incrementAndGet();
+                    Map<String, Object> change = new HashMap<String, Object>();
+                    change.put(MomRPCResponseCache.OPERATION, "GET");
+                    return change;
+                }
+
+                @Override
+                public int getInterval() {
+                    return 100;
+                }
+            });
+            while (changesCount.get() < 2) Thread.sleep(100);
+            changesFeeder.stop();
+            Thread.sleep(200);
+
+            assertTrue(cache.getEvictionsCount() >= 1);
+            Map<String, Object> request = new HashMap<String, Object>();
+            request.put(MomRPCResponseCache.OPERATION, "GET");
+            request.put(MomMsgTranslator.MSG_BODY, sendedRequestBody);
+            assertTrue(requestExecutor.RPC(request, "RPC_CACHED_QUEUE", replyWorker)!=null);
+            assertTrue(requestsCount.get() == 2);
+
+            invalidationService.stop();
+            cache.unconfigure("RPC_CACHED_QUEUE", null);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Router resizer test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import net.echinopsii.ariane.community.messaging.common.MomAkkaRouterResizer;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+public class RouterResizerTest {
+
+    @Test
+    public void testGrowOnLoad() {
+        MomAkkaRouterResizer resizer = new MomAkkaRouterResizer(2, 10, 1000, 0.8, 0.3, 3);
+        assertEquals(5, resizer.resize(5, 0.5, 0));
+        assertEquals(8, resizer.resize(5, 1.2, 0));
+        assertEquals(6, resizer.resize(5, 0.85, 0));
+        assertEquals(10, resizer.resize(8, 4.0, 0));
+    }
+
+    @Test
+    public void testShrinkWithHysteresis() {
+        MomAkkaRouterResizer resizer = new MomAkkaRouterResizer(2, 10, 1000, 0.8, 0.3, 3);
+        assertEquals(10, resizer.resize(10, 0.1, 1));
+        assertEquals(10, resizer.resize(10, 0.1, 2));
+        int shrunk = resizer.resize(10, 0.1, 3);
+        assertTrue(shrunk < 10 && shrunk >= 2);
+        assertEquals(2, resizer.resize(2, 0.0, 3));
+        assertEquals(10, resizer.resize(10, 0.5, 30));
+    }
+
+    @Test
+    public void testBounds() {
+        MomAkkaRouterResizer resizer = new MomAkkaRouterResizer(0, -1);
+        assertEquals(1, resizer.getLowerBound());
+        assertEquals(1, resizer.getUpperBound());
+        assertEquals(3, new MomAkkaRouterResizer(3, 6).bounded(1));
+        assertEquals(6, new MomAkkaRouterResizer(3, 6).bounded(9));
+    }
+}
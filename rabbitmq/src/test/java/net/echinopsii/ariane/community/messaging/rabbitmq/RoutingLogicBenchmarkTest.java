@@ -0,0 +1,149 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Routing logics benchmark
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import net.echinopsii.ariane.community.messaging.api.MomRoutingPolicy;
+import net.echinopsii.ariane.community.messaging.api.MomService;
+import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class RoutingLogicBenchmarkTest {
+
+    private static final int THREADS          = 8;
+    private static final int RPC_PER_THREAD   = 100;
+    private static final int SLOW_RPC_MODULO  = 20;
+    private static final int ENTITIES_COUNT   = 16;
+    private static final String ENTITY_FIELD  = "ENTITY";
+
+    private static MomClient client = null;
+
+    @BeforeClass
+    public static void testSetup() throws IllegalAccessException, ClassNotFoundException, InstantiationException, IOException {
+        // benchmark : run with -Dbenchmark=true
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        Properties props = new Properties();
+        props.load(ClientTest.class.getResourceAsStream("/rabbitmq-test.properties"));
+        client = MomClientFactory.make(props.getProperty(MomClient.MOM_CLI));
+
+        try {
+            client.init(props);
+        } catch (Exception e) {
+            System.err.println("No local rabbit to test");
+            client = null;
+        }
+    }
+
+    @AfterClass
+    public static void testCleanup() throws Exception {
+        if (client!=null)
+            client.close();
+    }
+
+    class SlowTailWorker implements AppMsgWorker {
+        @Override
+        public Map<String, Object> apply(Map<String, Object> message) {
+            try {
+                Thread.sleep(("slow".equals(message.get(MomMsgTranslator.MSG_BODY))) ? 50 : 1);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            Map<String, Object> reply = new HashMap<String, Object>();
+            reply.put(MomMsgTranslator.MSG_BODY, message.get(ENTITY_FIELD));
+            return reply;
+        }
+    }
+
+    private List<Long> runRPCs(final String queue) throws InterruptedException {
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<Long>());
+        final AtomicInteger replied = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    MomRequestExecutor requestExecutor = client.leaseRequestExecutor();
+                    try {
+                        for (int i = 0; i < RPC_PER_THREAD; i++) {
+                            Map<String, Object> request = new HashMap<String, Object>();
+                            request.put(MomMsgTranslator.MSG_BODY, ((thread * RPC_PER_THREAD + i) % SLOW_RPC_MODULO == 0) ? "slow" : "fast");
+                            request.put(ENTITY_FIELD, "entity" + (i % ENTITIES_COUNT));
+                            long begin = System.nanoTime();
+                            if (requestExecutor.RPC(request, queue, null)!=null) replied.incrementAndGet();
+                            latencies.add(System.nanoTime() - begin);
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        client.returnRequestExecutor(requestExecutor);
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+        assertEquals(THREADS * RPC_PER_THREAD, replied.get());
+        return latencies;
+    }
+
+    private void benchRoutingPolicy(String name, MomRoutingPolicy routingPolicy) throws InterruptedException {
+        String queue = "ROUTING_BENCH_" + name;
+        ((Client)client).setServiceRoutingPolicy(queue, routingPolicy);
+        MomService service = client.getServiceFactory().requestService(queue, new SlowTailWorker());
+        runRPCs(queue);
+        List<Long> latencies = runRPCs(queue);
+        service.stop();
+
+        Collections.sort(latencies);
+        System.out.println(String.format("%-16s : p50 %6d us - p99 %6d us - max %6d us", name,
+                latencies.get(latencies.size() / 2) / 1000,
+                latencies.get(latencies.size() * 99 / 100) / 1000,
+                latencies.get(latencies.size() - 1) / 1000));
+    }
+
+    @Test
+    public void testRoutingLogicsTailLatency() throws InterruptedException {
+        if (client!=null) {
+            benchRoutingPolicy("round_robin", MomRoutingPolicy.roundRobin());
+            benchRoutingPolicy("smallest_mailbox", MomRoutingPolicy.smallestMailbox());
+            benchRoutingPolicy("consistent_hash", MomRoutingPolicy.consistentHash(ENTITY_FIELD));
+            benchRoutingPolicy("random", MomRoutingPolicy.random());
+        }
+    }
+}
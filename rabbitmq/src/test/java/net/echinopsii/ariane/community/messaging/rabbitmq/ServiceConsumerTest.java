@@ -0,0 +1,243 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Request service consumer test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import akka.dispatch.Futures;
+import net.echinopsii.ariane.community.messaging.api.AppMsgAsyncWorker;
+import net.echinopsii.ariane.community.messaging.api.AppMsgWorker;
+import net.echinopsii.ariane.community.messaging.api.MomClient;
+import net.echinopsii.ariane.community.messaging.api.MomConsumer;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.api.MomRequestExecutor;
+import net.echinopsii.ariane.community.messaging.api.MomService;
+import net.echinopsii.ariane.community.messaging.common.MomClientFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class ServiceConsumerTest {
+
+    private static MomClient client = null;
+
+    @BeforeClass
+    public static void testSetup() throws IllegalAccessException, ClassNotFoundException, InstantiationException, IOException {
+        Properties props = new Properties();
+        props.load(ClientTest.class.getResourceAsStream("/rabbitmq-test.properties"));
+        client = MomClientFactory.make(props.getProperty(MomClient.MOM_CLI));
+
+        try {
+            client.init(props);
+        } catch (Exception e) {
+            System.err.println("No local rabbit to test");
+            client = null;
+        }
+    }
+
+    @AfterClass
+    public static void testCleanup() throws Exception {
+        if (client!=null)
+            client.close();
+    }
+
+    private static Map<String, Object> request() {
+        Map<String, Object> request = new HashMap<String, Object>();
+        request.put(MomMsgTranslator.MSG_BODY, "Hello Rabbit!");
+        return request;
+    }
+
+    private static Map<String, Object> reply() {
+        Map<String, Object> reply = new HashMap<String, Object>();
+        reply.put(MomMsgTranslator.MSG_BODY, "Hello Client!");
+        return reply;
+    }
+
+    @Test
+    public void testConsumerStopRestart() throws Exception {
+        if (client!=null) {
+            MomService service = client.getServiceFactory().requestService("SERVICE_CONSUMER_RESTART_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    return reply();
+                }
+            });
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            assertTrue(requestExecutor.RPC(request(), "SERVICE_CONSUMER_RESTART_QUEUE", null)!=null);
+
+            MomConsumer consumer = service.getConsumer();
+            consumer.stop();
+            assertFalse(consumer.isRunning());
+            consumer.start();
+            assertTrue(consumer.isRunning());
+            assertTrue(requestExecutor.RPC(request(), "SERVICE_CONSUMER_RESTART_QUEUE", null)!=null);
+
+            service.stop();
+            assertFalse(consumer.isRunning());
+        }
+    }
+
+    @Test
+    public void testChannelClosedMidDelivery() throws Exception {
+        if (client!=null) {
+            final CountDownLatch treatmentStarted = new CountDownLatch(1);
+            final CountDownLatch channelClosed = new CountDownLatch(1);
+            MomService service = client.getServiceFactory().requestService("SERVICE_CONSUMER_CLOSE_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    treatmentStarted.countDown();
+                    try {
+                        channelClosed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return reply();
+                }
+            });
+
+            Future<Map<String, Object>> futureReply = client.createRequestExecutor().RPCAsync(request(), "SERVICE_CONSUMER_CLOSE_QUEUE", null);
+            assertTrue(treatmentStarted.await(10, TimeUnit.SECONDS));
+
+            ServiceFactory.ServiceConsumer consumer = (ServiceFactory.ServiceConsumer) service.getConsumer();
+            consumer.getAcker().getChannel().close();
+            channelClosed.countDown();
+
+            for (int i = 0; i < 50 && consumer.isRunning(); i++) Thread.sleep(100);
+            assertFalse(consumer.isRunning());
+            // the reply is published on the routee reply channel : the request is answered but can't be acked anymore
+            assertTrue(Await.result(futureReply, Duration.create(10, TimeUnit.SECONDS))!=null);
+            assertEquals(0, consumer.getAcker().getPendingCount());
+
+            consumer.start();
+            assertFalse(consumer.isRunning());
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testWorkerFailure() throws Exception {
+        if (client!=null) {
+            MomService service = client.getServiceFactory().requestService("SERVICE_CONSUMER_FAILURE_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    if (message.containsKey("FAIL")) throw new IllegalStateException("worker failure");
+                    return reply();
+                }
+            });
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+            Map<String, Object> request = request();
+            request.put("FAIL", true);
+            Map<String, Object> errorReply = requestExecutor.RPC(request, "SERVICE_CONSUMER_FAILURE_QUEUE", null);
+            assertEquals(MomMsgTranslator.MSG_RET_SERVER_ERR, ((Number) errorReply.get(MomMsgTranslator.MSG_RC)).intValue());
+            assertTrue(requestExecutor.RPC(request(), "SERVICE_CONSUMER_FAILURE_QUEUE", null)!=null);
+
+            ServiceFactory.ServiceConsumer consumer = (ServiceFactory.ServiceConsumer) service.getConsumer();
+            for (int i = 0; i < 50 && consumer.getAcker().getPendingCount() > 0; i++) Thread.sleep(100);
+            assertEquals(0, consumer.getAcker().getPendingCount());
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testAsyncServiceStop() throws Exception {
+        if (client!=null) {
+            final CountDownLatch treatmentStarted = new CountDownLatch(1);
+            MomService service = client.getServiceFactory().requestService("SERVICE_CONSUMER_ASYNC_STOP_QUEUE", new AppMsgAsyncWorker() {
+                @Override
+                public Future<Map<String, Object>> applyAsync(Map<String, Object> message) {
+                    treatmentStarted.countDown();
+                    // never completed
+                    return Futures.<Map<String, Object>>promise().future();
+                }
+
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    return reply();
+                }
+            });
+
+            Future<Map<String, Object>> futureReply = client.createRequestExecutor().RPCAsync(request(), "SERVICE_CONSUMER_ASYNC_STOP_QUEUE", null);
+            assertTrue(treatmentStarted.await(10, TimeUnit.SECONDS));
+            long beginStop = System.nanoTime();
+            service.stop();
+            // the outstanding request is failed on stop instead of being awaited
+            Map<String, Object> errorReply = Await.result(futureReply, Duration.create(10, TimeUnit.SECONDS));
+            assertEquals(MomMsgTranslator.MSG_RET_SERVER_ERR, ((Number) errorReply.get(MomMsgTranslator.MSG_RC)).intValue());
+            assertTrue(System.nanoTime() - beginStop < TimeUnit.SECONDS.toNanos(5));
+        }
+    }
+
+    @Test
+    public void testCloseGroupWithQueuedRequests() throws Exception {
+        if (client!=null) {
+            final CountDownLatch slowTreatmentStarted = new CountDownLatch(1);
+            MomService service = client.getServiceFactory().msgGroupRequestService("SERVICE_CONSUMER_GROUP_QUEUE", new AppMsgWorker() {
+                @Override
+                public Map<String, Object> apply(Map<String, Object> message) {
+                    if (message.containsKey("SLOW")) {
+                        slowTreatmentStarted.countDown();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return reply();
+                }
+            });
+            MomRequestExecutor requestExecutor = client.createRequestExecutor();
+
+            String groupID = "SERVICE_CONSUMER_GROUP";
+            client.openMsgGroupServices(groupID);
+            client.openMsgGroupRequest(groupID);
+            for (int i = 0; i < 20; i++) {
+                Map<String, Object> request = request();
+                request.put("SLOW", true);
+                requestExecutor.FAF(request, "SERVICE_CONSUMER_GROUP_QUEUE");
+            }
+            client.closeMsgGroupRequest(groupID);
+            assertTrue(slowTreatmentStarted.await(10, TimeUnit.SECONDS));
+            // the group routees are stopped with queued deliveries
+            client.closeMsgGroupServices(groupID);
+
+            // the main service acks must not be held by the dropped group deliveries
+            int prefetch = ((Client) client).getRouteesCountPerService() * ((Client) client).getServicePrefetchPerRoutee();
+            for (int i = 0; i < 2 * prefetch + 1; i++)
+                assertTrue(requestExecutor.RPC(request(), "SERVICE_CONSUMER_GROUP_QUEUE", null)!=null);
+            ServiceFactory.ServiceConsumer consumer = (ServiceFactory.ServiceConsumer) service.getConsumer();
+            for (int i = 0; i < 50 && consumer.getAcker().getPendingCount() > 0; i++) Thread.sleep(100);
+            assertEquals(0, consumer.getAcker().getPendingCount());
+
+            service.stop();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Service dispatcher test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import akka.actor.ActorSystem;
+import net.echinopsii.ariane.community.messaging.common.MomAkkaDispatcher;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+public class ServiceDispatcherTest {
+
+    private static ActorSystem system = null;
+
+    @BeforeClass
+    public static void testSetup() {
+        system = ActorSystem.create("ServiceDispatcherTest");
+    }
+
+    @AfterClass
+    public static void testCleanup() {
+        if (system!=null) system.shutdown();
+    }
+
+    @Test
+    public void testRegisterDispatchers() {
+        for (MomAkkaDispatcher.Type type : MomAkkaDispatcher.Type.values()) {
+            MomAkkaDispatcher dispatcher = new MomAkkaDispatcher(type.name().toLowerCase(), type, 4);
+            String id = dispatcher.register(system);
+            assertEquals(MomAkkaDispatcher.DISPATCHER_ID_PREFIX + type.name().toLowerCase(), id);
+            assertTrue(system.dispatchers().hasDispatcher(id));
+            assertNotNull(system.dispatchers().lookup(id));
+            assertEquals(id, dispatcher.register(system));
+        }
+    }
+}
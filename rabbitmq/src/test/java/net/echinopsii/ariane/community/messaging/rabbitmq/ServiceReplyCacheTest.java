@@ -0,0 +1,101 @@
+/**
+ * Messaging - RabbitMQ Implementation
+ * Service reply cache test
+ * Copyright (C) 10/17/16 echinopsii
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.echinopsii.ariane.community.messaging.rabbitmq;
+
+import akka.actor.ActorSystem;
+import net.echinopsii.ariane.community.messaging.api.MomMsgTranslator;
+import net.echinopsii.ariane.community.messaging.common.MomServiceReplyCache;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+public class ServiceReplyCacheTest {
+
+    private static Map<String, Object> reply(int bodySize) {
+        Map<String, Object> reply = new HashMap<>();
+        reply.put(MomMsgTranslator.MSG_RC, 0);
+        reply.put(MomMsgTranslator.MSG_BODY, new byte[bodySize]);
+        return reply;
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        MomServiceReplyCache cache = new MomServiceReplyCache(10, 1024*1024, 20000);
+        cache.put("service_router", "corr-1", reply(8));
+        assertNotNull(cache.get("service_router", "corr-1"));
+        assertNull(cache.get("other_router", "corr-1"));
+        assertNull(cache.get("service_router", "corr-2"));
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(2, cache.getMissesCount());
+    }
+
+    @Test
+    public void testCachedReplyIsolation() {
+        MomServiceReplyCache cache = new MomServiceReplyCache(10, 1024*1024, 20000);
+        Map<String, Object> reply = reply(8);
+        cache.put("service_router", "corr-1", reply);
+        reply.put(MomMsgTranslator.MSG_APPLICATION_ID, "put-side");
+        Map<String, Object> cached = cache.get("service_router", "corr-1");
+        assertFalse(cached.containsKey(MomMsgTranslator.MSG_APPLICATION_ID));
+        cached.put(MomMsgTranslator.MSG_CORRELATION_ID, "corr-1");
+        assertFalse(cache.get("service_router", "corr-1").containsKey(MomMsgTranslator.MSG_CORRELATION_ID));
+    }
+
+    @Test
+    public void testBounds() {
+        MomServiceReplyCache cache = new MomServiceReplyCache(10, 1024*1024, 20000);
+        for (int i = 0; i < 25; i++) cache.put("service_router", "corr-" + i, reply(8));
+        assertEquals(10, cache.size());
+        assertEquals(15, cache.getEvictionsCount());
+
+        cache = new MomServiceReplyCache(1000, 4096, 20000);
+        for (int i = 0; i < 25; i++) cache.put("service_router", "corr-" + i, reply(1024));
+        assertTrue(cache.getBytes() <= 4096);
+        assertTrue(cache.size() < 4);
+        cache.put("service_router", "big", reply(8192));
+        assertNull(cache.get("service_router", "big"));
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        ActorSystem system = ActorSystem.create("ServiceReplyCacheTest");
+        try {
+            MomServiceReplyCache cache = new MomServiceReplyCache(10, 1024*1024, 200);
+            cache.start(system);
+            cache.put("service_router", "corr-1", reply(8));
+            assertNotNull(cache.get("service_router", "corr-1"));
+            Thread.sleep(600);
+            assertNull(cache.get("service_router", "corr-1"));
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getBytes());
+            assertEquals(1, cache.getExpirationsCount());
+            cache.stop();
+        } finally {
+            system.shutdown();
+        }
+    }
+}